@@ -175,6 +175,8 @@
 -keep class com.cobo.cold.protobuf.** { *; }
 -keep class com.cobo.coinlib.coins.** { *; }
 -keep class com.networknt.schema.**  { *; }
+# FileLogger names the SE methods in the metrics dump by reflecting over these fields
+-keep interface com.cobo.cold.encryption.interfaces.*CONSTANTS$METHODS { <fields>; }
 
 -useuniqueclassmembernames
 
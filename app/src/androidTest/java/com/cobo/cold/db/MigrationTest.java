@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.db;
+
+import android.database.Cursor;
+
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(),
+            AppDatabase.class.getCanonicalName(),
+            new FrameworkSQLiteOpenHelperFactory());
+
+    @Test
+    public void migrate2To3() throws Exception {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 2);
+        db.execSQL("INSERT INTO addresses (path, coinId, addressString, name, `index`, belongTo) "
+                + "VALUES ('M/44''/0''/0''/0/0', 'bitcoin', 'address0', 'BTC-0', 0, 'main')");
+        db.execSQL("INSERT INTO txs (txId, coinId, signId, timeStamp, belongTo) "
+                + "VALUES ('tx0', 'bitcoin', 'electrum_sign_id', 1, 'main')");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 3, true, AppDatabase.MIGRATION_2_3);
+
+        try (Cursor cursor = db.query("SELECT addressString FROM addresses WHERE coinId = 'bitcoin'")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals("address0", cursor.getString(0));
+        }
+        try (Cursor cursor = db.query("SELECT signId FROM txs WHERE txId = 'tx0'")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals("electrum_sign_id", cursor.getString(0));
+        }
+        List<String> addressIndices = indicesOf(db, "addresses");
+        assertTrue(addressIndices.contains("index_addresses_coinId_belongTo"));
+        assertTrue(addressIndices.contains("index_addresses_path_belongTo"));
+        assertTrue(indicesOf(db, "txs").contains("index_txs_coinId_signId_timeStamp"));
+    }
+
+    private static List<String> indicesOf(SupportSQLiteDatabase db, String table) {
+        List<String> indices = new ArrayList<>();
+        try (Cursor cursor = db.query("PRAGMA index_list(`" + table + "`)")) {
+            while (cursor.moveToNext()) {
+                indices.add(cursor.getString(cursor.getColumnIndex("name")));
+            }
+        }
+        return indices;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.db;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import com.cobo.cold.db.entity.AddressEntity;
+import com.cobo.cold.db.entity.TxEntity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class QueryPlanTest {
+
+    private static final String TAG = "Vault.QueryPlanTest";
+    private static final int ADDRESS_COUNT = 10000;
+    private static final int TX_COUNT = 5000;
+
+    private AppDatabase db;
+
+    @Before
+    public void setUp() {
+        db = Room.inMemoryDatabaseBuilder(InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                AppDatabase.class).build();
+        List<AddressEntity> addresses = new ArrayList<>();
+        for (int i = 0; i < ADDRESS_COUNT; i++) {
+            AddressEntity address = new AddressEntity();
+            address.setCoinId("coin" + (i % 10));
+            address.setBelongTo(i % 2 == 0 ? "main" : "hidden");
+            address.setPath("M/44'/0'/0'/0/" + i);
+            address.setIndex(i);
+            address.setAddressString("address" + i);
+            address.setName("name" + i);
+            addresses.add(address);
+        }
+        db.addressDao().insertAll(addresses);
+        db.runInTransaction(() -> {
+            for (int i = 0; i < TX_COUNT; i++) {
+                TxEntity tx = new TxEntity();
+                tx.setTxId("tx" + i);
+                tx.setCoinId("coin" + (i % 10));
+                tx.setSignId(i % 3 == 0 ? "electrum_sign_id" : "");
+                tx.setTimeStamp(i);
+                tx.setBelongTo("main");
+                db.txDao().insert(tx);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void addressLookupsUseIndices() {
+        assertUsesIndex("SELECT * FROM addresses WHERE coinId = 'coin1' AND belongTo = 'main'",
+                "index_addresses_coinId_belongTo");
+        assertUsesIndex("SELECT * FROM addresses WHERE path = 'M/44''/0''/0''/0/5' AND belongTo = 'main'",
+                "index_addresses_path_belongTo");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            db.addressDao().loadAddress("M/44'/0'/0'/0/" + (i * 10), "main");
+        }
+        Log.i(TAG, "1000 address path lookups: " + (System.nanoTime() - start) / 1000000 + "ms");
+    }
+
+    @Test
+    public void electrumTxsUseIndex() {
+        assertUsesIndex("SELECT * FROM txs where coinId = 'coin1' and signId = 'electrum_sign_id' "
+                + "ORDER BY timeStamp DESC", "index_txs_coinId_signId_timeStamp");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            db.txDao().loadElectrumTxsSync("coin" + (i % 10));
+        }
+        Log.i(TAG, "100 electrum tx loads: " + (System.nanoTime() - start) / 1000000 + "ms");
+    }
+
+    private void assertUsesIndex(String sql, String index) {
+        SupportSQLiteDatabase database = db.getOpenHelper().getReadableDatabase();
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = database.query("EXPLAIN QUERY PLAN " + sql)) {
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(cursor.getColumnIndex("detail"))).append('\n');
+            }
+        }
+        Log.i(TAG, sql + "\n" + plan);
+        assertTrue(plan.toString(), plan.toString().contains(index));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.v8;
+
+import android.util.Log;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import com.cobo.coinlib.utils.Coins;
+import com.cobo.coinlib.v8.ScriptLoader;
+import com.cobo.coinlib.v8.V8RuntimePool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertSame;
+
+@RunWith(AndroidJUnit4.class)
+public class V8RuntimePoolTest {
+
+    private static final String TAG = "Vault.V8RuntimePoolTest";
+
+    private V8RuntimePool pool;
+
+    @Before
+    public void setUp() {
+        ScriptLoader.init(InstrumentationRegistry.getInstrumentation().getTargetContext());
+        pool = V8RuntimePool.getInstance();
+        pool.clear();
+    }
+
+    @After
+    public void tearDown() {
+        pool.clear();
+    }
+
+    @Test
+    public void warmLeaseSkipsBundleEvaluation() {
+        String[] coinCodes = {Coins.BTC.coinCode(), Coins.ETH.coinCode(),
+                Coins.DOT.coinCode(), Coins.XRP.coinCode()};
+        for (String coinCode : coinCodes) {
+            long start = System.nanoTime();
+            pool.giveBack(pool.lease(coinCode));
+            long coldMs = (System.nanoTime() - start) / 1000000;
+            ScriptLoader.LoadStats loaded = ScriptLoader.sInstance.getLoadStats(coinCode);
+
+            start = System.nanoTime();
+            pool.giveBack(pool.lease(coinCode));
+            long warmMs = (System.nanoTime() - start) / 1000000;
+
+            assertSame(loaded, ScriptLoader.sInstance.getLoadStats(coinCode));
+            Log.i(TAG, coinCode + " lease cold " + coldMs + "ms, warm " + warmMs + "ms, " + loaded);
+        }
+    }
+
+    @Test
+    public void sharedBundleIsEvaluatedOnce() {
+        pool.giveBack(pool.lease(Coins.DOT.coinCode()));
+        ScriptLoader.LoadStats loaded = ScriptLoader.sInstance.getLoadStats(Coins.DOT.coinCode());
+
+        long start = System.nanoTime();
+        pool.giveBack(pool.lease(Coins.KSM.coinCode()));
+        Log.i(TAG, "KSM lease on the DOT runtime " + (System.nanoTime() - start) / 1000000 + "ms");
+
+        assertSame(loaded, ScriptLoader.sInstance.getLoadStats(Coins.DOT.coinCode()));
+    }
+}
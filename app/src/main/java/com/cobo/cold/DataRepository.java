@@ -44,10 +44,12 @@ public class DataRepository {
     private final AppDatabase mDb;
     private final MediatorLiveData<List<CoinEntity>> mObservableCoins;
     private final Context context;
+    private final DerivedAddressIndex addressIndex;
 
     private DataRepository(Context context, final AppDatabase database) {
         mDb = database;
         this.context = context;
+        this.addressIndex = new DerivedAddressIndex(this);
         mObservableCoins = new MediatorLiveData<>();
         mObservableCoins.addSource(mDb.coinDao().loadAllCoins(), coins -> {
             if (mDb.getDatabaseCreated().getValue() != null) {
@@ -166,6 +168,11 @@ public class DataRepository {
 
     public void clearDb() {
         mDb.clearAllTables();
+        addressIndex.clear();
+    }
+
+    public DerivedAddressIndex getAddressIndex() {
+        return addressIndex;
     }
 
     private List<CoinEntity> filterByBelongTo(List<CoinEntity> coins) {
@@ -216,5 +223,6 @@ public class DataRepository {
         mDb.txDao().deleteHidden();
         mDb.addressDao().deleteHidden();
         mDb.whiteListDao().deleteHidden();
+        addressIndex.clear();
     }
 }
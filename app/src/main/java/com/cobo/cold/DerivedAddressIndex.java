@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold;
+
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.cobo.coinlib.coins.AbsDeriver;
+import com.cobo.coinlib.exception.InvalidPathException;
+import com.cobo.coinlib.path.AddressIndex;
+import com.cobo.coinlib.path.CoinPath;
+import com.cobo.coinlib.utils.Coins;
+import com.cobo.cold.db.entity.AddressEntity;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * (coinId, account xpub, change, index) to address.
+ * <p>
+ * Lookups go to an in memory LRU first, then to the addresses table for receive
+ * addresses, and only derive from the xpub when neither has the address. The xpub
+ * is part of the key, so an account or xpub change never returns a stale address.
+ * Checks that guard funds, like change address verification, use
+ * {@link #deriveAddress(String, String, String)} and never read the cache.
+ */
+public class DerivedAddressIndex {
+
+    private static final int MAX_CACHED = 2048;
+
+    private final DataRepository repository;
+    private final Map<String, AbsDeriver> derivers = new ConcurrentHashMap<>();
+    private final Map<String, String> cache = Collections.synchronizedMap(
+            new LinkedHashMap<String, String>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MAX_CACHED;
+                }
+            });
+
+    DerivedAddressIndex(DataRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * @return the address of hdPath, or null if the path is invalid or the coin has no deriver
+     */
+    @Nullable
+    public String addressOf(@NonNull String coinCode, String exPub, @NonNull String hdPath) {
+        AddressIndex addressIndex = parsePath(hdPath);
+        if (addressIndex == null || TextUtils.isEmpty(exPub)) {
+            return null;
+        }
+        int change = addressIndex.getParent().getValue();
+        int index = addressIndex.getValue();
+
+        String coinId = Coins.coinIdFromCoinCode(coinCode);
+        String key = keyOf(coinId, exPub, change, index);
+        String address = cache.get(key);
+        if (address != null) {
+            return address;
+        }
+
+        if (change == 0) {
+            AddressEntity entity = repository.loadAddressBypath(hdPath);
+            if (entity != null && coinId.equals(entity.getCoinId())) {
+                address = entity.getAddressString();
+            }
+        }
+        if (address == null) {
+            AbsDeriver deriver = deriverOf(coinCode);
+            if (deriver != null) {
+                address = deriver.derive(exPub, change, index);
+            }
+        }
+        if (address != null) {
+            cache.put(key, address);
+        }
+        return address;
+    }
+
+    /**
+     * derive the address of hdPath from exPub, bypassing the cache and the addresses table
+     *
+     * @return the address, or null if the path is invalid or the coin has no deriver
+     */
+    @Nullable
+    public String deriveAddress(@NonNull String coinCode, String exPub, @NonNull String hdPath) {
+        AddressIndex addressIndex = parsePath(hdPath);
+        AbsDeriver deriver = deriverOf(coinCode);
+        if (addressIndex == null || deriver == null || TextUtils.isEmpty(exPub)) {
+            return null;
+        }
+        return deriver.derive(exPub, addressIndex.getParent().getValue(), addressIndex.getValue());
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    private AbsDeriver deriverOf(String coinCode) {
+        AbsDeriver deriver = derivers.get(coinCode);
+        if (deriver == null) {
+            deriver = AbsDeriver.newInstance(coinCode);
+            if (deriver != null) {
+                derivers.put(coinCode, deriver);
+            }
+        }
+        return deriver;
+    }
+
+    @Nullable
+    private static AddressIndex parsePath(String hdPath) {
+        try {
+            return CoinPath.parsePath(hdPath);
+        } catch (InvalidPathException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static String keyOf(String coinId, String exPub, int change, int index) {
+        return coinId + "/" + exPub + "/" + change + "/" + index;
+    }
+}
@@ -30,8 +30,11 @@ import android.text.TextUtils;
 import androidx.annotation.NonNull;
 
 import com.cobo.coinlib.v8.ScriptLoader;
+import com.cobo.coinlib.v8.V8RuntimePool;
+import com.cobo.coinlib.v8.V8Scope;
 import com.cobo.cold.callables.RestartSeCallable;
 import com.cobo.cold.db.AppDatabase;
+import com.cobo.cold.db.entity.CoinEntity;
 import com.cobo.cold.encryption.EncryptionCoreProvider;
 import com.cobo.cold.logging.FileLogger;
 import com.cobo.cold.service.AttackCheckingService;
@@ -42,6 +45,8 @@ import com.cobo.cold.util.HashUtil;
 import org.spongycastle.util.encoders.Hex;
 
 import java.lang.ref.SoftReference;
+import java.util.List;
+import java.util.stream.Collectors;
 
 public class MainApplication extends Application {
     private static MainApplication sApplication;
@@ -69,6 +74,8 @@ public class MainApplication extends Application {
         });
         initBackgroundCallBack();
         ScriptLoader.init(this);
+        V8Scope.setLeakDetection(BuildConfig.DEBUG);
+        preWarmCoinRuntimes();
         if (TextUtils.isEmpty(Utilities.getRandomSalt(this))) {
             Utilities.setRandomSalt(this, Hex.toHexString(HashUtil.getNextSalt()));
         }
@@ -96,6 +103,22 @@ public class MainApplication extends Application {
 
     }
 
+    private void preWarmCoinRuntimes() {
+        if (!Utilities.hasVaultCreated(this)) {
+            return;
+        }
+        DataRepository repository = getRepository();
+        mAppExecutors.diskIO().execute(() -> {
+            List<CoinEntity> coins = repository.loadCoinsSync()
+                    .stream()
+                    .filter(CoinEntity::isShow)
+                    .collect(Collectors.toList());
+            V8RuntimePool.getInstance().preWarm(coins.stream()
+                    .map(CoinEntity::getCoinCode)
+                    .collect(Collectors.toList()));
+        });
+    }
+
     private void resetInputMethodSettings() {
         if (!Utilities.isInputSettingsCleared(this)) {
             new Thread(() -> {
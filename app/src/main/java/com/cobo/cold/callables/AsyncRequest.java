@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.callables;
+
+import androidx.annotation.NonNull;
+
+import com.cobo.cold.encryption.EncryptionCoreProvider;
+import com.cobo.cold.encryptioncore.base.Packet;
+import com.cobo.cold.encryptioncore.interfaces.Callback;
+import com.cobo.cold.encryptioncore.utils.ByteFormatter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Offer a packet to the scheduler without blocking the calling thread.
+ * <p>
+ * Cancelling the returned future, or missing its deadline, drops the request if it
+ * is still queued. A request already on the serial link still runs to the end and
+ * its result is discarded.
+ */
+public final class AsyncRequest {
+
+    private static final ScheduledThreadPoolExecutor sDeadlines = newDeadlineTimer();
+
+    private AsyncRequest() {
+    }
+
+    private static ScheduledThreadPoolExecutor newDeadlineTimer() {
+        final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "se-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    @NonNull
+    public static CompletableFuture<Packet> offer(@NonNull Packet packet) {
+        return offer(packet, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param deadline the future fails with a TimeoutException after it, 0 for none
+     */
+    @NonNull
+    public static CompletableFuture<Packet> offer(@NonNull Packet packet, long deadline, @NonNull TimeUnit unit) {
+        final CompletableFuture<Packet> future = new CompletableFuture<>();
+        if (deadline > 0) {
+            final ScheduledFuture<?> timeout = sDeadlines.schedule(() ->
+                    future.completeExceptionally(new TimeoutException("missed the deadline of "
+                            + ByteFormatter.addHexPrefix(packet.getId()))), deadline, unit);
+            future.whenComplete((result, error) -> timeout.cancel(false));
+        }
+
+        EncryptionCoreProvider.getInstance().getImpl().offer(packet, new Callback() {
+            @Override
+            public void onSuccess(@NonNull Packet result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onFail(@NonNull Exception exception) {
+                future.completeExceptionally(exception);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return future.isDone();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Decode the response off the scheduler thread, so the next request is not held
+     * up. Cancelling the returned future also cancels the request.
+     */
+    @NonNull
+    public static <T> CompletableFuture<T> map(@NonNull CompletableFuture<Packet> request,
+                                               @NonNull Function<Packet, T> decoder) {
+        return linked(request, request.thenApplyAsync(decoder));
+    }
+
+    /**
+     * like {@link #map} but the handler also gets the failure of the request
+     */
+    @NonNull
+    public static <T> CompletableFuture<T> handle(@NonNull CompletableFuture<Packet> request,
+                                                  @NonNull BiFunction<Packet, Throwable, T> handler) {
+        return linked(request, request.handleAsync(handler));
+    }
+
+    /**
+     * block for the result, for the synchronous callables
+     *
+     * @throws Exception the failure of the request as it was reported by the scheduler
+     */
+    public static <T> T await(@NonNull CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static <T> CompletableFuture<T> linked(@NonNull CompletableFuture<Packet> request,
+                                                   @NonNull CompletableFuture<T> result) {
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                request.cancel(false);
+            }
+        });
+        return result;
+    }
+}
@@ -19,15 +19,14 @@ package com.cobo.cold.callables;
 
 import androidx.annotation.NonNull;
 
-import com.cobo.cold.encryption.EncryptionCoreProvider;
 import com.cobo.cold.encryptioncore.base.Packet;
-import com.cobo.cold.encryptioncore.interfaces.Callback;
-import com.cobo.cold.encryptioncore.interfaces.JobScheduler;
 
 import java.util.concurrent.Callable;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Synchronous adapter of {@link AsyncRequest}, it blocks the calling thread until
+ * the response arrives. Prefer the async variants on executors shared with the UI.
+ */
 public class BlockingCallable implements Callable<Packet> {
     private final Packet mPacket;
 
@@ -38,35 +37,6 @@ public class BlockingCallable implements Callable<Packet> {
     @NonNull
     @Override
     public Packet call() throws Exception {
-        final JobScheduler jobScheduler = EncryptionCoreProvider.getInstance().getImpl();
-
-        final CountDownLatch mLatch = new CountDownLatch(1);
-        final AtomicReference<Object> reference = new AtomicReference<>();
-
-        jobScheduler.offer(mPacket, new Callback() {
-            @Override
-            public void onSuccess(@NonNull Packet packet) {
-                reference.set(packet);
-                mLatch.countDown();
-            }
-
-            @Override
-            public void onFail(@NonNull Exception exception) {
-                reference.set(exception);
-                mLatch.countDown();
-            }
-        });
-
-        mLatch.await();
-
-        final Object result = reference.get();
-
-        if (result instanceof Packet) {
-            return (Packet) result;
-        } else if (result instanceof Exception) {
-            throw (Exception) result;
-        } else {
-            throw new IllegalStateException("zero result");
-        }
+        return AsyncRequest.await(AsyncRequest.offer(mPacket));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.callables;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Offer the xpub requests of all paths at once and wait for them together, like
+ * {@link SignTxBatchCallable}. Paths already cached are answered without the SE.
+ */
+public class GetExtendedPublicKeyBatchCallable implements Callable<String[]> {
+
+    private final List<String> paths;
+
+    public GetExtendedPublicKeyBatchCallable(@NonNull List<String> paths) {
+        this.paths = paths;
+    }
+
+    /**
+     * @return the xpub of every path in order, null for a path the SE did not export
+     */
+    @Override
+    public String[] call() {
+        final int size = paths.size();
+        final List<CompletableFuture<String>> futures = new ArrayList<>(size);
+        for (String path : paths) {
+            futures.add(new GetExtendedPublicKeyCallable(path).callAsync());
+        }
+
+        final String[] results = new String[size];
+        for (int i = 0; i < size; i++) {
+            try {
+                results[i] = AsyncRequest.await(futures.get(i));
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        return results;
+    }
+}
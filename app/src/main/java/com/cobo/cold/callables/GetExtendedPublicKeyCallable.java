@@ -17,6 +17,8 @@
 
 package com.cobo.cold.callables;
 
+import android.text.TextUtils;
+
 import com.cobo.coinlib.utils.Coins;
 import com.cobo.cold.MainApplication;
 import com.cobo.cold.Utilities;
@@ -24,37 +26,45 @@ import com.cobo.cold.encryption.interfaces.CONSTANTS;
 import com.cobo.cold.encryptioncore.base.Packet;
 import com.cobo.cold.encryptioncore.base.Payload;
 
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import static com.cobo.cold.db.PresetData.getCurveByPath;
 
+/**
+ * Exported xpubs are cached per wallet and path until the seed of a wallet changes,
+ * see {@link #clearCache()}.
+ */
 public class GetExtendedPublicKeyCallable implements Callable<String> {
+    private static final Map<String, String> sCache = new ConcurrentHashMap<>();
     private final String pubKeyPath;
     private final Coins.CURVE curve;
+    private final String belongTo;
     private final boolean isMainWallet;
 
 
     public GetExtendedPublicKeyCallable(String pubKeyPath) {
         this.curve = getCurveByPath(pubKeyPath);
         this.pubKeyPath = curve == Coins.CURVE.SR25519 ? pubKeyPath : pubKeyPath.toUpperCase();
-        isMainWallet = Utilities.getCurrentBelongTo(MainApplication.getApplication()).equals("main");
+        belongTo = Utilities.getCurrentBelongTo(MainApplication.getApplication());
+        isMainWallet = belongTo.equals("main");
+    }
+
+    /**
+     * drop the cached xpubs, called after every mnemonic write, passphrase update or reset,
+     * also failed ones since the SE may have changed the seed anyway
+     */
+    public static void clearCache() {
+        sCache.clear();
     }
 
     @Override
     public String call() {
-        final Callable<Packet> callable = new BlockingCallable(
-                new Packet.Builder(CONSTANTS.METHODS.GET_EXTENDED_PUBLICKEY)
-                        .addBytePayload(CONSTANTS.TAGS.CURVE, getCurveTag())
-                        .addBytePayload(CONSTANTS.TAGS.WALLET_FLAG, isMainWallet? 0 : 0x50)
-                        .addTextPayload(CONSTANTS.TAGS.PATH, pubKeyPath).build());
-
-        final Packet result;
         try {
-            result = callable.call();
-            final Payload payload = result.getPayload(CONSTANTS.TAGS.EXTEND_PUB_KEY);
-            if (payload != null) {
-                return payload.toUtf8();
-            }
+            return AsyncRequest.await(callAsync());
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -62,6 +72,33 @@ public class GetExtendedPublicKeyCallable implements Callable<String> {
         return null;
     }
 
+    /**
+     * @return the extended public key, null if the response carries none
+     */
+    public CompletableFuture<String> callAsync() {
+        return callAsync(0, TimeUnit.MILLISECONDS);
+    }
+
+    public CompletableFuture<String> callAsync(long deadline, TimeUnit unit) {
+        final String key = belongTo + ":" + pubKeyPath;
+        final String cached = sCache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        final Packet packet = new Packet.Builder(CONSTANTS.METHODS.GET_EXTENDED_PUBLICKEY)
+                .addBytePayload(CONSTANTS.TAGS.CURVE, getCurveTag())
+                .addBytePayload(CONSTANTS.TAGS.WALLET_FLAG, isMainWallet? 0 : 0x50)
+                .addTextPayload(CONSTANTS.TAGS.PATH, pubKeyPath).build();
+        return AsyncRequest.map(AsyncRequest.offer(packet, deadline, unit), result -> {
+            final Payload payload = result.getPayload(CONSTANTS.TAGS.EXTEND_PUB_KEY);
+            final String xPub = payload != null ? payload.toUtf8() : null;
+            if (!TextUtils.isEmpty(xPub)) {
+                sCache.put(key, xPub);
+            }
+            return xPub;
+        });
+    }
+
     private int getCurveTag() {
         int value = 0;
         switch (curve) {
@@ -22,6 +22,8 @@ import com.cobo.cold.encryptioncore.base.Packet;
 import com.cobo.cold.encryptioncore.base.Payload;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public class GetRandomEntropyCallable implements Callable<String> {
 
@@ -38,20 +40,28 @@ public class GetRandomEntropyCallable implements Callable<String> {
     @Override
     public String call() {
         try {
-            final Callable<Packet> callable = new BlockingCallable(
-                    new Packet.Builder(CONSTANTS.METHODS.GET_RANDOM_ENTROPY)
-                            .addShortPayload(CONSTANTS.TAGS.ENTROPY_TYPE, bits)
-                            .addBytePayload(CONSTANTS.TAGS.ENTROPY_CHECKSUM, 0).build());
-            final Packet result = callable.call();
-            final Payload payload = result.getPayload(CONSTANTS.TAGS.ENTROPY);
-
-            if (payload != null) {
-                return payload.toHex();
-            }
+            return AsyncRequest.await(callAsync());
         } catch (Exception e) {
             e.printStackTrace();
         }
 
         return "";
     }
+
+    /**
+     * @return the entropy in hex, empty if the response carries none
+     */
+    public CompletableFuture<String> callAsync() {
+        return callAsync(0, TimeUnit.MILLISECONDS);
+    }
+
+    public CompletableFuture<String> callAsync(long deadline, TimeUnit unit) {
+        final Packet packet = new Packet.Builder(CONSTANTS.METHODS.GET_RANDOM_ENTROPY)
+                .addShortPayload(CONSTANTS.TAGS.ENTROPY_TYPE, bits)
+                .addBytePayload(CONSTANTS.TAGS.ENTROPY_CHECKSUM, 0).build();
+        return AsyncRequest.map(AsyncRequest.offer(packet, deadline, unit), result -> {
+            final Payload payload = result.getPayload(CONSTANTS.TAGS.ENTROPY);
+            return payload != null ? payload.toHex() : "";
+        });
+    }
 }
@@ -32,6 +32,8 @@ public class ResetCallable implements Callable {
             callable.call();
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            GetExtendedPublicKeyCallable.clearCache();
         }
 
         return null;
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.callables;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Offer all sign requests to the scheduler at once and wait for them together,
+ * instead of one blocking round trip per request.
+ */
+public class SignTxBatchCallable implements Callable<String[]> {
+
+    private final List<SignTxCallable> callables;
+
+    public SignTxBatchCallable(@NonNull List<SignTxCallable> callables) {
+        this.callables = callables;
+    }
+
+    @Override
+    public String[] call() {
+        final int size = callables.size();
+        final List<CompletableFuture<String>> futures = new ArrayList<>(size);
+        for (SignTxCallable callable : callables) {
+            futures.add(callable.callAsync());
+        }
+
+        final String[] results = new String[size];
+        for (int i = 0; i < size; i++) {
+            try {
+                results[i] = AsyncRequest.await(futures.get(i));
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            if (results[i] == null) {
+                // the batch is useless now, drop the requests still queued
+                for (int j = i + 1; j < size; j++) {
+                    futures.get(j).cancel(false);
+                }
+                return null;
+            }
+        }
+        return results;
+    }
+}
@@ -23,17 +23,12 @@ import com.cobo.coinlib.utils.Coins;
 import com.cobo.cold.MainApplication;
 import com.cobo.cold.Utilities;
 import com.cobo.cold.encryption.interfaces.CONSTANTS;
-import com.cobo.cold.encryption.signature.Signature;
 import com.cobo.cold.encryptioncore.base.Packet;
 import com.cobo.cold.encryptioncore.base.Payload;
-import com.cobo.cold.encryptioncore.utils.ByteFormatter;
 
-import org.spongycastle.util.encoders.Hex;
-
-import java.math.BigInteger;
-import java.util.Arrays;
-import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public class SignTxCallable implements Callable<String> {
 
@@ -51,60 +46,43 @@ public class SignTxCallable implements Callable<String> {
         isMainWallet = Utilities.getCurrentBelongTo(MainApplication.getApplication()).equals("main");
     }
 
-    private static boolean isCanonical(byte[] sigs) {
-        return (sigs[0] & 0x80) == 0
-                && !(sigs[0] == 0 && ((sigs[1] & 0x80) == 0))
-                && (sigs[32] & 0x80) == 0
-                && !(sigs[32] == 0 && ((sigs[33] & 0x80) == 0));
-    }
-
-    private void postIntercept(@NonNull Packet packet) {
-        final String publicKey = Objects.requireNonNull(packet.getPayload(CONSTANTS.TAGS.PUBLIC_KEY_HASH)).toHex();
-        final String signed = Objects.requireNonNull(packet.getPayload(CONSTANTS.TAGS.SIGNED)).toHex();
-
-        final byte[] signBytes = ByteFormatter.hex2bytes(signed);
-        if (!isCanonical(signBytes)) {
-            throw new RuntimeException("couldn't find a canonical signature");
+    @Override
+    public String call() {
+        try {
+            return AsyncRequest.await(callAsync());
+        } catch (Exception e) {
+            e.printStackTrace();
         }
+        return null;
+    }
 
-        final byte[] signR = Arrays.copyOf(signBytes, 32);
-        final byte[] signS = Arrays.copyOfRange(signBytes, 32, 64);
-
-        final BigInteger publicKeyInt = new BigInteger(publicKey, 16);
-        final int recId = Signature.getRecoverIdFromSignature(publicKeyInt,
-                new BigInteger(1, signR),
-                new BigInteger(1, signS), Hex.decode(hash));
-        final byte[] signBytesWithRecId = new byte[signBytes.length + 1];
-
-        System.arraycopy(signBytes, 0, signBytesWithRecId, 0, signBytes.length);
-        signBytesWithRecId[signBytesWithRecId.length - 1] = (byte) recId;
-
-        packet.getPayloads().put(CONSTANTS.TAGS.SIGNED, new Payload(signBytesWithRecId));
+    /**
+     * @return the signature in hex, null if the response carries none
+     */
+    public CompletableFuture<String> callAsync() {
+        return callAsync(0, TimeUnit.MILLISECONDS);
     }
 
-    @Override
-    public String call() {
-        try {
-            final Callable<Packet> callable = new BlockingCallable(
-                    new Packet.Builder(CONSTANTS.METHODS.SIGN)
-                            .addTextPayload(CONSTANTS.TAGS.PATH, hdPath)
-                            .addBytePayload(CONSTANTS.TAGS.WALLET_FLAG, isMainWallet? 0 : 0x50)
-                            .addBytePayload(CONSTANTS.TAGS.CURVE, getCurveTag())
-                            .addHexPayload(CONSTANTS.TAGS.AUTH_TOKEN, authToken)
-                            .addHexPayload(CONSTANTS.TAGS.TX_HASH, hash).build());
-            final Packet result = callable.call();
+    public CompletableFuture<String> callAsync(long deadline, TimeUnit unit) {
+        return AsyncRequest.map(AsyncRequest.offer(buildPacket(), deadline, unit), this::handleResult);
+    }
 
-            // secp256k1 should calculate recovery id
-            if (curve == Coins.CURVE.SECP256K1) {
-                postIntercept(result);
-            }
+    Packet buildPacket() {
+        return new Packet.Builder(CONSTANTS.METHODS.SIGN)
+                .addTextPayload(CONSTANTS.TAGS.PATH, hdPath)
+                .addBytePayload(CONSTANTS.TAGS.WALLET_FLAG, isMainWallet? 0 : 0x50)
+                .addBytePayload(CONSTANTS.TAGS.CURVE, getCurveTag())
+                .addHexPayload(CONSTANTS.TAGS.AUTH_TOKEN, authToken)
+                .addHexPayload(CONSTANTS.TAGS.TX_HASH, hash).build();
+    }
 
-            final Payload payload = result.getPayload(CONSTANTS.TAGS.SIGNED);
-            if (payload != null) {
-                return payload.toHex();
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+    /**
+     * secp256k1 signatures arrive checked and with their recovery id, see Secp256k1SignIntercept
+     */
+    String handleResult(@NonNull Packet result) {
+        final Payload payload = result.getPayload(CONSTANTS.TAGS.SIGNED);
+        if (payload != null) {
+            return payload.toHex();
         }
         return null;
     }
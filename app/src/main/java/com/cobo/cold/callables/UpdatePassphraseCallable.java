@@ -55,6 +55,8 @@ public class UpdatePassphraseCallable implements Callable<Boolean> {
             return true;
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            GetExtendedPublicKeyCallable.clearCache();
         }
 
         return false;
@@ -23,6 +23,8 @@ import com.cobo.cold.encryption.interfaces.CONSTANTS;
 import com.cobo.cold.encryptioncore.base.Packet;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public class VerifyPasswordCallable implements Callable<Boolean> {
 
@@ -33,16 +35,30 @@ public class VerifyPasswordCallable implements Callable<Boolean> {
 
     @Override
     public Boolean call() {
-        final Callable<Packet> callable = new BlockingCallable(
-                new Packet.Builder(CONSTANTS.METHODS.VERIFY_USER_PASSWORD)
-                .addHexPayload(CONSTANTS.TAGS.CURRENT_PASSWORD, passwordHash).build());
         try {
-            callable.call();
+            return AsyncRequest.await(callAsync());
         } catch (Exception e) {
             e.printStackTrace();
             return false;
         }
+    }
+
+    /**
+     * @return false if the SE rejects the password or can not be reached
+     */
+    public CompletableFuture<Boolean> callAsync() {
+        return callAsync(0, TimeUnit.MILLISECONDS);
+    }
 
-        return true;
+    public CompletableFuture<Boolean> callAsync(long deadline, TimeUnit unit) {
+        final Packet packet = new Packet.Builder(CONSTANTS.METHODS.VERIFY_USER_PASSWORD)
+                .addHexPayload(CONSTANTS.TAGS.CURRENT_PASSWORD, passwordHash).build();
+        return AsyncRequest.handle(AsyncRequest.offer(packet, deadline, unit), (result, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+                return false;
+            }
+            return true;
+        });
     }
 }
@@ -74,6 +74,8 @@ public class WriteMnemonicCallable implements Callable<Boolean> {
             return true;
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            GetExtendedPublicKeyCallable.clearCache();
         }
         return false;
     }
@@ -25,6 +25,7 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.cobo.cold.AppExecutors;
@@ -40,11 +41,24 @@ import com.cobo.cold.db.entity.TxEntity;
 import com.cobo.cold.db.entity.WhiteListEntity;
 
 @Database(entities = {CoinEntity.class, AddressEntity.class,
-        TxEntity.class, WhiteListEntity.class, AccountEntity.class}, version = 2)
+        TxEntity.class, WhiteListEntity.class, AccountEntity.class}, version = 3)
 public abstract class AppDatabase extends RoomDatabase {
     private static final String DATABASE_NAME = "cobo-vault-db";
     private static AppDatabase sInstance;
 
+    // indices for the address and electrum tx lookups, no data changes
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_addresses_coinId_belongTo` "
+                    + "ON `addresses` (`coinId`, `belongTo`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_addresses_path_belongTo` "
+                    + "ON `addresses` (`path`, `belongTo`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_txs_coinId_signId_timeStamp` "
+                    + "ON `txs` (`coinId`, `signId`, `timeStamp`)");
+        }
+    };
+
     public abstract CoinDao coinDao();
 
     public abstract AddressDao addressDao();
@@ -85,6 +99,7 @@ public abstract class AppDatabase extends RoomDatabase {
                         });
                     }
                 })
+                .addMigrations(MIGRATION_2_3)
                 .fallbackToDestructiveMigration()
                 .build();
     }
@@ -21,11 +21,13 @@ import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import com.cobo.cold.model.Address;
 
-@Entity(tableName = "addresses")
+@Entity(tableName = "addresses", indices = {@Index({"coinId", "belongTo"}),
+        @Index({"path", "belongTo"})})
 
 public class AddressEntity implements Address, FilterableItem {
 
@@ -19,13 +19,26 @@ package com.cobo.cold.encryption;
 
 import androidx.annotation.Nullable;
 
+import com.cobo.coinlib.interfaces.BatchSigner;
 import com.cobo.coinlib.interfaces.Signer;
+import com.cobo.cold.callables.SignTxBatchCallable;
 import com.cobo.cold.callables.SignTxCallable;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 public class ChipSigner extends Signer {
 
+    private static final BatchSigner BATCH_SIGNER = (signers, hexes) -> {
+        List<SignTxCallable> callables = new ArrayList<>(signers.length);
+        for (int i = 0; i < signers.length; i++) {
+            ChipSigner signer = (ChipSigner) signers[i];
+            callables.add(new SignTxCallable(signer.privKeyPath, hexes[i], signer.authToken));
+        }
+        return new SignTxBatchCallable(callables).call();
+    };
+
     private final String privKeyPath;
     private final String authToken;
 
@@ -44,4 +57,9 @@ public class ChipSigner extends Signer {
         SignTxCallable callable = new SignTxCallable(privKeyPath, data, authToken);
         return callable.call();
     }
+
+    @Override
+    public BatchSigner batchSigner() {
+        return BATCH_SIGNER;
+    }
 }
@@ -23,6 +23,8 @@ import android.os.Looper;
 import androidx.annotation.NonNull;
 
 import com.cobo.cold.encryption.exception.EncryptionCoreException;
+import com.cobo.cold.encryption.interception.InterceptChain;
+import com.cobo.cold.encryption.interception.InterceptManagerGroup;
 import com.cobo.cold.encryption.interfaces.CONSTANTS;
 import com.cobo.cold.encryptioncore.base.Packet;
 import com.cobo.cold.encryptioncore.base.Payload;
@@ -31,6 +33,9 @@ import com.cobo.cold.encryptioncore.interfaces.JobScheduler;
 import com.cobo.cold.encryptioncore.utils.ByteFormatter;
 import com.cobo.cold.encryptioncore.utils.Preconditions;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 public class EncryptionCoreProvider {
     private static final EncryptionCoreProvider sInstance = new EncryptionCoreProvider();
     private JobScheduler mImpl;
@@ -86,17 +91,35 @@ public class EncryptionCoreProvider {
 
         @Override
         public void offer(@NonNull Packet packet, @NonNull Callback callback) {
-            mBase.offer(packet, new CallbackWrapper(packet.getId(), callback));
+            final InterceptChain chain = InterceptManagerGroup.newChain(packet.getId());
+            if (chain != null) {
+                try {
+                    chain.preIntercept(packet);
+                } catch (Exception e) {
+                    callback.onFail(e);
+                    return;
+                }
+            }
+            mBase.offer(packet, new CallbackWrapper(packet.getId(), callback, chain));
         }
     }
 
     private static class CallbackWrapper implements Callback {
+        // post intercepts run here, the serial thread goes on with the next request meanwhile
+        private static final ExecutorService sPostProcessor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "se-post-processor");
+            thread.setDaemon(true);
+            return thread;
+        });
+
         private final int mId;
         private final Callback mBase;
+        private final InterceptChain mChain;
 
-        private CallbackWrapper(int id, @NonNull Callback base) {
+        private CallbackWrapper(int id, @NonNull Callback base, InterceptChain chain) {
             mId = id;
             mBase = Preconditions.checkNotNull(base);
+            mChain = chain;
         }
 
         @Override
@@ -109,13 +132,30 @@ public class EncryptionCoreProvider {
                 return;
             }
 
-            mBase.onSuccess(packet);
+            if (mChain == null) {
+                mBase.onSuccess(packet);
+                return;
+            }
+            sPostProcessor.execute(() -> {
+                try {
+                    mChain.postIntercept(packet);
+                } catch (Exception e) {
+                    mBase.onFail(e);
+                    return;
+                }
+                mBase.onSuccess(packet);
+            });
         }
 
         @Override
         public void onFail(@NonNull Exception exception) {
             mBase.onFail(exception);
         }
+
+        @Override
+        public boolean isCancelled() {
+            return mBase.isCancelled();
+        }
     }
 
 }
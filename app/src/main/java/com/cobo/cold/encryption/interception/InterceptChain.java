@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.encryption.interception;
+
+import androidx.annotation.NonNull;
+
+import com.cobo.cold.encryptioncore.base.Packet;
+
+import java.util.List;
+
+/**
+ * The intercepts of one request. Pre intercepts run in registration order before
+ * the request is offered, post intercepts run in reverse order on the response.
+ */
+public final class InterceptChain implements Intercept {
+    private final List<Intercept> mIntercepts;
+
+    InterceptChain(@NonNull List<Intercept> intercepts) {
+        mIntercepts = intercepts;
+    }
+
+    @Override
+    public void preIntercept(@NonNull Packet packet) {
+        for (int i = 0; i < mIntercepts.size(); i++) {
+            mIntercepts.get(i).preIntercept(packet);
+        }
+    }
+
+    @Override
+    public void postIntercept(@NonNull Packet packet) {
+        for (int i = mIntercepts.size() - 1; i >= 0; i--) {
+            mIntercepts.get(i).postIntercept(packet);
+        }
+    }
+}
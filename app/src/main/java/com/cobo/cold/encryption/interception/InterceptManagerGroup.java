@@ -20,20 +20,39 @@ package com.cobo.cold.encryption.interception;
 import androidx.annotation.Nullable;
 import androidx.collection.SparseArrayCompat;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class InterceptManagerGroup {
-    private static final SparseArrayCompat<InterceptManager> sMap;
+    private static final SparseArrayCompat<List<InterceptManager>> sMap;
 
     static {
         sMap = new SparseArrayCompat<>();
         register(new Secp256k1SignIntercept());
     }
 
+    /**
+     * @return a new chain for one request of the method, null if nothing intercepts it
+     */
     @Nullable
-    public static InterceptManager get(int id) {
-        return sMap.get(id);
+    public static InterceptChain newChain(int id) {
+        final List<InterceptManager> managers = sMap.get(id);
+        if (managers == null) {
+            return null;
+        }
+        final List<Intercept> intercepts = new ArrayList<>(managers.size());
+        for (InterceptManager manager : managers) {
+            intercepts.add(manager.getIntercept());
+        }
+        return new InterceptChain(intercepts);
     }
 
     private static void register(InterceptManager interceptManager) {
-        sMap.put(interceptManager.getId(), interceptManager);
+        List<InterceptManager> managers = sMap.get(interceptManager.getId());
+        if (managers == null) {
+            managers = new ArrayList<>();
+            sMap.put(interceptManager.getId(), managers);
+        }
+        managers.add(interceptManager);
     }
 }
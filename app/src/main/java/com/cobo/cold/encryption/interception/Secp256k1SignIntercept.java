@@ -23,15 +23,15 @@ import com.cobo.cold.encryption.interfaces.CONSTANTS;
 import com.cobo.cold.encryption.signature.Signature;
 import com.cobo.cold.encryptioncore.base.Packet;
 import com.cobo.cold.encryptioncore.base.Payload;
-import com.cobo.cold.encryptioncore.utils.ByteFormatter;
 
-import org.spongycastle.util.encoders.Hex;
-
-import java.math.BigInteger;
-import java.util.Arrays;
 import java.util.Objects;
 
+/**
+ * Check that secp256k1 signatures are canonical and append their recovery id.
+ */
 class Secp256k1SignIntercept implements InterceptManager {
+    // the CURVE tag value of secp256k1
+    private static final int SECP256K1 = 0;
 
     private static boolean isCanonical(byte[] sigs) {
         return (sigs[0] & 0x80) == 0
@@ -52,30 +52,31 @@ class Secp256k1SignIntercept implements InterceptManager {
     }
 
     private static final class InterceptImpl implements Intercept {
-        private String txHash;
+        private byte[] txHash;
 
         @Override
         public void preIntercept(@NonNull Packet packet) {
-            txHash = Objects.requireNonNull(
-                    Objects.requireNonNull(packet.getPayload(CONSTANTS.TAGS.TX_HASH))
-                            .toHex());
+            // other curves have no recovery id
+            final Payload curve = packet.getPayload(CONSTANTS.TAGS.CURVE);
+            if (curve != null && curve.toInt() != SECP256K1) {
+                return;
+            }
+            txHash = Objects.requireNonNull(packet.getPayload(CONSTANTS.TAGS.TX_HASH)).getValue();
         }
 
         @Override
         public void postIntercept(@NonNull Packet packet) {
-            final String publicKey = Objects.requireNonNull(packet.getPayload(CONSTANTS.TAGS.PUBLIC_KEY_HASH)).toHex();
-            final String signed = Objects.requireNonNull(packet.getPayload(CONSTANTS.TAGS.SIGNED)).toHex();
+            if (txHash == null) {
+                return;
+            }
+            final byte[] publicKey = Objects.requireNonNull(packet.getPayload(CONSTANTS.TAGS.PUBLIC_KEY_HASH)).getValue();
+            final byte[] signBytes = Objects.requireNonNull(packet.getPayload(CONSTANTS.TAGS.SIGNED)).getValue();
 
-            final byte[] signBytes = ByteFormatter.hex2bytes(signed);
             if (!isCanonical(signBytes)) {
                 throw new RuntimeException("couldn't find a canonical signature");
             }
 
-            final byte[] signR = Arrays.copyOf(signBytes, 32);
-            final byte[] signS = Arrays.copyOfRange(signBytes, 32, 64);
-
-            final BigInteger publicKeyInt = new BigInteger(publicKey, 16);
-            final int recId = Signature.getRecoverIdFromSignature(publicKeyInt, new BigInteger(1, signR), new BigInteger(1, signS), Hex.decode(txHash));
+            final int recId = Signature.getRecoverIdFromSignature(publicKey, signBytes, txHash);
             final byte[] signBytesWithRecId = new byte[signBytes.length + 1];
 
             System.arraycopy(signBytes, 0, signBytesWithRecId, 0, signBytes.length);
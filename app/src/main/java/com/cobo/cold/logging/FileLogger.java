@@ -19,18 +19,30 @@ package com.cobo.cold.logging;
 
 import android.content.Context;
 import android.os.Environment;
+import android.text.TextUtils;
 import android.util.Log;
 
+import com.cobo.coinlib.v8.SignStats;
+import com.cobo.cold.encryption.interfaces.CONSTANTS;
+import com.cobo.cold.encryptioncore.metrics.SeMetrics;
 import com.cobo.cold.update.utils.Storage;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
@@ -40,6 +52,8 @@ public class FileLogger {
     private static final String TAG = "Vault.FileLogger";
     private static final String DATE_FORMAT = "yyyyMMddHHmmssSSS";
     private static final long LOG_PERSIST_LIMIT = 20;
+    private static final String SE_METRICS_FILE = "se-metrics.txt";
+    private static final String SIGN_STATS_FILE = "sign-stats.txt";
     private static final String LOG_PATTERN = "^(main|system|crash)\\.(\\d+)\\.log$";
 
     public static void init(Context context) {
@@ -74,7 +88,10 @@ public class FileLogger {
         }
         Log.i(TAG, "export log files: " + removableStorage);
         File exportFile = new File(removableStorage, "logs-" + getTimestamp() + ".zip");
-        return compressLogs(getLogDir(context), exportFile);
+        File logDir = getLogDir(context);
+        writeSeMetrics(logDir);
+        writeSignStats(logDir);
+        return compressLogs(logDir, exportFile);
     }
 
     public static void purgeLogs(Context context) {
@@ -162,6 +179,45 @@ public class FileLogger {
         return null;
     }
 
+    private static void writeSeMetrics(File dir) {
+        try (Writer writer = new FileWriter(new File(dir, SE_METRICS_FILE))) {
+            SeMetrics.getInstance().dump(writer, getMethodNames());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void writeSignStats(File dir) {
+        try (Writer writer = new FileWriter(new File(dir, SIGN_STATS_FILE))) {
+            for (SignStats stats : SignStats.getAll().values()) {
+                writer.write(stats + "\n");
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static Map<Integer, String> getMethodNames() {
+        // flavors re-declare some methods, and some ids are shared by two names
+        Map<Integer, Set<String>> fields = new HashMap<>();
+        for (Field field : CONSTANTS.METHODS.class.getFields()) {
+            if (field.getType() != int.class || !Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            try {
+                fields.computeIfAbsent(field.getInt(null), k -> new TreeSet<>()).add(field.getName());
+            } catch (IllegalAccessException e) {
+                e.printStackTrace();
+            }
+        }
+        Map<Integer, String> names = new HashMap<>();
+        for (Map.Entry<Integer, Set<String>> entry : fields.entrySet()) {
+            names.put(entry.getKey(), TextUtils.join("|", entry.getValue()));
+        }
+        names.put(SeMetrics.UNMATCHED, "UNMATCHED");
+        return names;
+    }
+
     private static boolean compressLogs(File dir, File outputFile) {
         Log.d(TAG, dir.getAbsolutePath());
         Log.d(TAG, outputFile.getAbsolutePath());
@@ -20,7 +20,7 @@ import android.os.Handler;
 import android.os.Message;
 
 import com.cobo.bcUniformResource.Workload;
-import com.cobo.coinlib.coins.polkadot.UOS.UOSDecoder;
+import com.cobo.coinlib.coins.polkadot.UOS.UOSFrameAssembler;
 import com.cobo.coinlib.exception.InvalidUOSException;
 import com.cobo.cold.scan.camera.CameraManager;
 import com.cobo.cold.scan.common.Constant;
@@ -43,6 +43,7 @@ public final class CaptureHandler extends Handler {
 
     private StringBuilder result = new StringBuilder();
     private ScannedData[] mScannedDatas;
+    private final UOSFrameAssembler mUOSFrames = new UOSFrameAssembler();
 
     private enum State {
         PREVIEW, SUCCESS, DONE
@@ -70,15 +71,7 @@ public final class CaptureHandler extends Handler {
             case Constant.DECODE_SUCCEEDED:
                 Result result = (Result) message.obj;
                 String text = result.getText();
-                com.cobo.coinlib.coins.polkadot.UOS.Result decodeResult = null;
-                try {
-                    decodeResult = UOSDecoder.decode(Hex.toHexString(result.getRawBytes()), false);
-                } catch (InvalidUOSException e) {
-                    e.printStackTrace();
-                }
-                if (decodeResult != null) {
-                    state = State.SUCCESS;
-                    host.handleDecode(Hex.toHexString(result.getRawBytes()));
+                if (result.getRawBytes() != null && handleUOSFrame(result.getRawBytes())) {
                     return;
                 }
 
@@ -104,6 +97,45 @@ public final class CaptureHandler extends Handler {
         }
     }
 
+    /**
+     * frames are collected until the payload is complete, other QR codes seen
+     * in between do not drop them
+     *
+     * @return false if the QR code is not a UOS frame, a complete payload that
+     * fails to decode is reported to the host and does not fall through
+     */
+    private boolean handleUOSFrame(byte[] rawBytes) {
+        try {
+            if (!mUOSFrames.add(rawBytes)) {
+                host.handleProgress(mUOSFrames.getFrameCount(), mUOSFrames.getReceivedCount());
+                state = State.PREVIEW;
+                cameraManager.requestPreviewFrame(decodeThread.getHandler(),
+                        Constant.DECODE);
+                return true;
+            }
+        } catch (InvalidUOSException e) {
+            e.printStackTrace();
+            return false;
+        }
+        if (mUOSFrames.getFrameCount() > 1) {
+            host.handleProgress(mUOSFrames.getFrameCount(), mUOSFrames.getReceivedCount());
+        }
+        try {
+            mUOSFrames.decode();
+        } catch (InvalidUOSException | RuntimeException e) {
+            e.printStackTrace();
+            mUOSFrames.reset();
+            state = State.SUCCESS;
+            host.handleUnsupportedTransaction();
+            return true;
+        }
+        state = State.SUCCESS;
+        String payload = Hex.toHexString(mUOSFrames.assemble());
+        mUOSFrames.reset();
+        host.handleDecode(payload);
+        return true;
+    }
+
     private void handleMultipartQrCode(ScannedData data) {
         if (mScannedDatas == null) {
             mScannedDatas = new ScannedData[data.total];
@@ -174,6 +206,7 @@ public final class CaptureHandler extends Handler {
         if (state == State.SUCCESS) {
             state = State.PREVIEW;
             mScannedDatas = null;
+            mUOSFrames.reset();
             cameraManager.requestPreviewFrame(decodeThread.getHandler(),
                     Constant.DECODE);
         }
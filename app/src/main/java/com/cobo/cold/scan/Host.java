@@ -34,6 +34,11 @@ public interface Host {
 
     void handleProgress(int total, int scan);
 
+    /**
+     * a complete UOS payload was scanned but could not be decoded
+     */
+    void handleUnsupportedTransaction();
+
     CameraManager getCameraManager();
 
     Handler getHandler();
@@ -342,11 +342,17 @@ public class AssetFragment extends BaseFragment<AssetFragmentBinding>
                 }
                 viewModel.addAddress(observableAddressNames);
 
-                handler.post(() -> viewModel.getObservableAddState().observe(this, complete -> {
-                    if (complete) {
-                        handler.postDelayed(dialog::dismiss, 500);
-                    }
-                }));
+                handler.post(() -> {
+                    viewModel.getObservableProgress().observe(this, derived ->
+                            dialog.setText(derived + "/" + value));
+                    viewModel.getObservableAddState().observe(this, complete -> {
+                        if (complete) {
+                            viewModel.getObservableProgress().removeObservers(this);
+                            viewModel.getObservableAddState().removeObservers(this);
+                            handler.postDelayed(dialog::dismiss, 500);
+                        }
+                    });
+                });
             }
         });
     }
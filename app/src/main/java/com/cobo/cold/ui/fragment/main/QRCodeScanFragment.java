@@ -298,6 +298,12 @@ public class QRCodeScanFragment extends BaseFragment<QrcodeScanFragmentBinding>
         mBinding.scanProgress.setText(getString(R.string.scan_progress, scan + "/" + total));
     }
 
+    @Override
+    public void handleUnsupportedTransaction() {
+        alert(getString(R.string.unsupported_polka_tx_type_title),
+                getString(R.string.unsupported_polka_tx_type_content));
+    }
+
     @Override
     public CameraManager getCameraManager() {
         return mCameraManager;
@@ -30,10 +30,13 @@ import androidx.databinding.DataBindingUtil;
 import androidx.fragment.app.DialogFragment;
 
 import com.cobo.cold.R;
+import com.cobo.cold.databinding.ProgressModalBinding;
 
 
 public class ProgressModalDialog extends DialogFragment {
 
+    private ProgressModalBinding binding;
+
     public static ProgressModalDialog newInstance() {
         return new ProgressModalDialog();
     }
@@ -48,12 +51,19 @@ public class ProgressModalDialog extends DialogFragment {
     @NonNull
     @Override
     public Dialog onCreateDialog(@Nullable Bundle savedInstanceState) {
-        View v = DataBindingUtil.inflate(LayoutInflater.from(getActivity()),
-                R.layout.progress_modal,null,false).getRoot();
+        binding = DataBindingUtil.inflate(LayoutInflater.from(getActivity()),
+                R.layout.progress_modal,null,false);
         Dialog dialog = new AlertDialog.Builder(getActivity(), R.style.dialog)
-                .setView(v)
+                .setView(binding.getRoot())
                 .create();
         dialog.setCanceledOnTouchOutside(false);
         return dialog;
     }
+
+    public void setText(String text) {
+        if (binding != null) {
+            binding.text.setText(text);
+            binding.text.setVisibility(View.VISIBLE);
+        }
+    }
 }
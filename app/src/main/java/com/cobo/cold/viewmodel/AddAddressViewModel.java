@@ -30,6 +30,7 @@ import androidx.lifecycle.ViewModel;
 import androidx.lifecycle.ViewModelProvider;
 
 import com.cobo.coinlib.coins.AbsDeriver;
+import com.cobo.coinlib.coins.ParallelDeriver;
 import com.cobo.coinlib.utils.Coins;
 import com.cobo.cold.DataRepository;
 import com.cobo.cold.MainApplication;
@@ -40,6 +41,7 @@ import com.cobo.cold.db.entity.CoinEntity;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class AddAddressViewModel extends AndroidViewModel {
 
@@ -47,6 +49,7 @@ public class AddAddressViewModel extends AndroidViewModel {
     public CoinEntity coin;
     private final ObservableField<Boolean> loading = new ObservableField<>();
     private final MutableLiveData<Boolean> addComplete = new MutableLiveData<>();
+    private final MutableLiveData<Integer> progress = new MutableLiveData<>();
 
     private AddAddressViewModel(@NonNull Application application, DataRepository repository,
                                 final long id) {
@@ -60,10 +63,13 @@ public class AddAddressViewModel extends AndroidViewModel {
 
     public void addAddress(List<String> addrs) {
         loading.set(true);
+        // called off the main thread, the reset lands before the caller observes
+        progress.postValue(0);
+        addComplete.postValue(Boolean.FALSE);
         new AddAddressTask(coin, mRepo, () -> {
             loading.set(false);
             addComplete.setValue(Boolean.TRUE);
-        }).execute(addrs.toArray(new String[0]));
+        }, progress::setValue).execute(addrs.toArray(new String[0]));
     }
 
     public void addAddress(CoinEntity coinEntity, DataRepository repo, String addrName) {
@@ -79,6 +85,13 @@ public class AddAddressViewModel extends AndroidViewModel {
         return addComplete;
     }
 
+    /**
+     * @return the number of addresses derived so far by the running add
+     */
+    public LiveData<Integer> getObservableProgress() {
+        return progress;
+    }
+
     public static class Factory extends ViewModelProvider.NewInstanceFactory {
         @NonNull
         private final Application mApplication;
@@ -101,15 +114,22 @@ public class AddAddressViewModel extends AndroidViewModel {
         }
     }
 
-    static class AddAddressTask extends AsyncTask<String, Void, Void> {
+    static class AddAddressTask extends AsyncTask<String, Integer, Void> {
         private final CoinEntity coinEntity;
         private final DataRepository repo;
         private final Runnable onComplete;
+        private final Consumer<Integer> onProgress;
 
         AddAddressTask(CoinEntity coinEntity, DataRepository repo, Runnable onComplete) {
+            this(coinEntity, repo, onComplete, null);
+        }
+
+        AddAddressTask(CoinEntity coinEntity, DataRepository repo, Runnable onComplete,
+                       Consumer<Integer> onProgress) {
             this.coinEntity = coinEntity;
             this.repo = repo;
             this.onComplete = onComplete;
+            this.onProgress = onProgress;
         }
 
         @Override
@@ -127,9 +147,12 @@ public class AddAddressViewModel extends AndroidViewModel {
 
             List<AddressEntity> entities = new ArrayList<>();
             AbsDeriver deriver = AbsDeriver.newInstance(coinEntity.getCoinCode());
+            int change = 0;
+            List<String> addresses = deriver != null
+                    ? ParallelDeriver.deriveRange(deriver, exPub, change, addressCount, strings.length,
+                    (derived, chunk) -> publishProgress(derived)) : null;
             for (int i = 0; i < strings.length; i++) {
                 AddressEntity addressEntity = new AddressEntity();
-                int change = 0;
                 int index = i + addressCount;
                 if (Coins.isPolkadotFamily(coinEntity.getCoinCode())) {
                     addressEntity.setPath(defaultAccount.getHdPath());
@@ -137,9 +160,8 @@ public class AddAddressViewModel extends AndroidViewModel {
                     addressEntity.setPath(String.format(path + "/%s/%s", change, index));
                 }
 
-                if (deriver != null) {
-                    String addr = deriver.derive(exPub, change, index);
-                    addressEntity.setAddressString(addr);
+                if (addresses != null) {
+                    addressEntity.setAddressString(addresses.get(i));
                     addressEntity.setCoinId(coinEntity.getCoinId());
                     addressEntity.setIndex(i + addressCount);
                     addressEntity.setName(strings[i]);
@@ -156,6 +178,13 @@ public class AddAddressViewModel extends AndroidViewModel {
             return null;
         }
 
+        @Override
+        protected void onProgressUpdate(Integer... values) {
+            if (onProgress != null) {
+                onProgress.accept(values[0]);
+            }
+        }
+
         @Override
         protected void onPostExecute(Void aVoid) {
             super.onPostExecute(aVoid);
@@ -37,6 +37,7 @@ import com.cobo.coinlib.coins.BTC.Btc;
 import com.cobo.coinlib.coins.BTC.Electrum.ElectrumTx;
 import com.cobo.coinlib.coins.BTC.Electrum.TransactionInput;
 import com.cobo.coinlib.coins.BTC.Electrum.TransactionOutput;
+import com.cobo.coinlib.coins.ParallelDeriver;
 import com.cobo.coinlib.exception.InvalidPathException;
 import com.cobo.coinlib.path.Account;
 import com.cobo.coinlib.utils.Coins;
@@ -87,12 +88,9 @@ public class ElectrumViewModel extends AndroidViewModel {
             if (TextUtils.isEmpty(xpub)) {
                 xpub = new ExpubInfo().invoke().expub;
             }
-            List<String> changes = new ArrayList<>();
             AbsDeriver btcDeriver = new Btc.Deriver();
-            for (int i = 0; i < DEFAULT_CHANGE_ADDRESS_NUM; i++) {
-                changes.add(btcDeriver.derive(xpub,1, i));
-            }
-            changeAddress.postValue(changes);
+            changeAddress.postValue(ParallelDeriver.deriveRange(btcDeriver, xpub, 1, 0,
+                    DEFAULT_CHANGE_ADDRESS_NUM));
         });
     }
 
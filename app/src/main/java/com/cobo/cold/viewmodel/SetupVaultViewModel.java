@@ -32,7 +32,7 @@ import com.cobo.coinlib.utils.Coins;
 import com.cobo.cold.AppExecutors;
 import com.cobo.cold.DataRepository;
 import com.cobo.cold.MainApplication;
-import com.cobo.cold.callables.GetExtendedPublicKeyCallable;
+import com.cobo.cold.callables.GetExtendedPublicKeyBatchCallable;
 import com.cobo.cold.callables.GetRandomEntropyCallable;
 import com.cobo.cold.callables.GetVaultIdCallable;
 import com.cobo.cold.callables.RestartSeCallable;
@@ -373,6 +373,9 @@ public class SetupVaultViewModel extends AndroidViewModel {
 
     public void presetData(List<CoinEntity> coins, final Runnable onComplete) {
         AppExecutors.getInstance().diskIO().execute(() -> {
+            List<CoinEntity> presetCoins = new ArrayList<>();
+            List<CoinEntity> storedCoins = new ArrayList<>();
+            List<String> paths = new ArrayList<>();
             for (CoinEntity coin : coins) {
                 CoinEntity coinEntity = mRepository.loadCoinSync(coin.getCoinId());
                 if (coinEntity != null) {
@@ -381,20 +384,27 @@ public class SetupVaultViewModel extends AndroidViewModel {
                         continue;
                     }
                 }
-                String xPub = new GetExtendedPublicKeyCallable(coin.getAccounts().get(0).getHdPath()).call();
-                coin.setExPub(xPub);
+                presetCoins.add(coin);
+                storedCoins.add(coinEntity);
+                for (AccountEntity account : coin.getAccounts()) {
+                    paths.add(account.getHdPath());
+                }
+            }
+
+            String[] xPubs = new GetExtendedPublicKeyBatchCallable(paths).call();
+            int next = 0;
+            for (int i = 0; i < presetCoins.size(); i++) {
+                CoinEntity coin = presetCoins.get(i);
+                CoinEntity coinEntity = storedCoins.get(i);
+                coin.setExPub(xPubs[next]);
                 if (coinEntity == null) {
                     long id = mRepository.insertCoin(coin);
                     coin.setId(id);
                 } else {
                     coin.setId(coinEntity.getId());
                 }
-                boolean isFirstAccount = true;
                 for (AccountEntity account : coin.getAccounts()) {
-                    if (!isFirstAccount) {
-                        xPub = new GetExtendedPublicKeyCallable(account.getHdPath()).call();
-                    }
-                    isFirstAccount = false;
+                    String xPub = xPubs[next++];
                     if (TextUtils.isEmpty(xPub)) {
                         continue;
                     }
@@ -29,7 +29,6 @@ import androidx.lifecycle.MutableLiveData;
 
 import com.cobo.coinlib.Util;
 import com.cobo.coinlib.coins.AbsCoin;
-import com.cobo.coinlib.coins.AbsDeriver;
 import com.cobo.coinlib.coins.AbsTx;
 import com.cobo.coinlib.coins.BTC.Btc;
 import com.cobo.coinlib.coins.BTC.BtcImpl;
@@ -41,12 +40,12 @@ import com.cobo.coinlib.exception.InvalidPathException;
 import com.cobo.coinlib.exception.InvalidTransactionException;
 import com.cobo.coinlib.interfaces.SignCallback;
 import com.cobo.coinlib.interfaces.Signer;
-import com.cobo.coinlib.path.AddressIndex;
 import com.cobo.coinlib.path.CoinPath;
 import com.cobo.coinlib.utils.B58;
 import com.cobo.coinlib.utils.Coins;
 import com.cobo.cold.AppExecutors;
 import com.cobo.cold.DataRepository;
+import com.cobo.cold.DerivedAddressIndex;
 import com.cobo.cold.MainApplication;
 import com.cobo.cold.Utilities;
 import com.cobo.cold.callables.ClearTokenCallable;
@@ -249,18 +248,9 @@ public class TxConfirmViewModel extends AndroidViewModel {
         String hdPath = changeAddressInfo.hdPath;
         String address = changeAddressInfo.address;
         String exPub = mRepository.loadCoinEntityByCoinCode(utxoTx.getCoinCode()).getExPub();
-        AbsDeriver deriver = AbsDeriver.newInstance(utxoTx.getCoinCode());
-
-        try {
-            AddressIndex addressIndex = CoinPath.parsePath(hdPath);
-            int change = addressIndex.getParent().getValue();
-            int index = addressIndex.getValue();
-            String expectAddress = Objects.requireNonNull(deriver).derive(exPub, change, index);
-            return address.equals(expectAddress);
-        } catch (InvalidPathException e) {
-            e.printStackTrace();
-            return false;
-        }
+        String expectAddress = mRepository.getAddressIndex()
+                .deriveAddress(utxoTx.getCoinCode(), exPub, hdPath);
+        return address.equals(expectAddress);
     }
 
     private String getToAddress() {
@@ -296,23 +286,21 @@ public class TxConfirmViewModel extends AndroidViewModel {
 
                 CoinEntity coin = mRepository.loadCoinSync(Coins.coinIdFromCoinCode(coinCode));
                 String expub = mRepository.loadAccountsForCoin(coin).get(0).getExPub();
+                DerivedAddressIndex addressIndex = mRepository.getAddressIndex();
 
                 for (int i = 0; i < inputs.length(); i++) {
                     JSONObject input = inputs.getJSONObject(i);
                     long value = input.getJSONObject("utxo").getLong("value");
                     String hdpath = input.getString("ownerKeyPath");
-                    AddressIndex addressIndex = CoinPath.parsePath(hdpath);
-                    int index = addressIndex.getValue();
-                    int change = addressIndex.getParent().getValue();
 
-                    String from = AbsDeriver.newInstance(transaction.getCoinCode()).derive(expub,change,index);
+                    String from = addressIndex.addressOf(transaction.getCoinCode(), expub, hdpath);
                     inputsClone.put(new JSONObject().put("value", value)
                                                     .put("address",from));
                 }
 
                 return inputsClone.toString();
             }
-        } catch (JSONException | InvalidPathException e) {
+        } catch (JSONException e) {
             e.printStackTrace();
         }
 
@@ -59,6 +59,7 @@ public class XummTxConfirmViewModel extends TxConfirmViewModel{
     public XummTxConfirmViewModel(@NonNull Application application) {
         super(application);
         coinCode = Coins.XRP.coinCode();
+        AppExecutors.getInstance().networkIO().execute(SupportTransactions::warmUp);
     }
 
     public MutableLiveData<JSONObject> getDisplayJson() {
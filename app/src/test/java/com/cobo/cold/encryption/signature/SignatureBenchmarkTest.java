@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.encryption.signature;
+
+import org.junit.Test;
+import org.spongycastle.asn1.x9.X9ECParameters;
+import org.spongycastle.asn1.x9.X9IntegerConverter;
+import org.spongycastle.crypto.digests.SHA256Digest;
+import org.spongycastle.crypto.ec.CustomNamedCurves;
+import org.spongycastle.crypto.params.ECDomainParameters;
+import org.spongycastle.crypto.params.ECPrivateKeyParameters;
+import org.spongycastle.crypto.signers.ECDSASigner;
+import org.spongycastle.crypto.signers.HMacDSAKCalculator;
+import org.spongycastle.math.ec.ECAlgorithms;
+import org.spongycastle.math.ec.ECPoint;
+import org.spongycastle.math.ec.custom.sec.SecP256K1Curve;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the recovery id computed from the known public key with the trial
+ * recovery it replaced, over 10k deterministic signatures.
+ */
+public class SignatureBenchmarkTest {
+
+    private static final int SIGNATURES = 10000;
+    private static final int KEYS = 16;
+    private static final X9ECParameters CURVE_PARAMS = CustomNamedCurves.getByName("secp256k1");
+    private static final ECDomainParameters CURVE = new ECDomainParameters(
+            CURVE_PARAMS.getCurve(), CURVE_PARAMS.getG(), CURVE_PARAMS.getN(), CURVE_PARAMS.getH());
+
+    private static class Sample {
+        final byte[] publicKey;
+        final BigInteger publicKeyInt;
+        final BigInteger r;
+        final BigInteger s;
+        final byte[] signature;
+        final byte[] hash;
+
+        Sample(byte[] publicKey, BigInteger r, BigInteger s, byte[] hash) {
+            this.publicKey = publicKey;
+            this.publicKeyInt = new BigInteger(1, publicKey);
+            this.r = r;
+            this.s = s;
+            this.signature = new byte[64];
+            this.hash = hash;
+            copyTo(r, signature, 0);
+            copyTo(s, signature, 32);
+        }
+
+        private static void copyTo(BigInteger value, byte[] target, int offset) {
+            final byte[] bytes = value.toByteArray();
+            final int length = Math.min(bytes.length, 32);
+            System.arraycopy(bytes, bytes.length - length, target, offset + 32 - length, length);
+        }
+    }
+
+    /**
+     * the trial recovery of the web3j port, every candidate id recovers a full key
+     */
+    private static class TrialRecovery {
+        static int getRecoverId(BigInteger publicKey, BigInteger signR, BigInteger signS, byte[] message) {
+            for (int i = 0; i < 4; ++i) {
+                final BigInteger k = recoverFromSignature(i, signR, signS, message);
+                if (k != null && k.equals(publicKey)) {
+                    return i;
+                }
+            }
+            throw new RuntimeException("Could not construct a recoverable key");
+        }
+
+        private static BigInteger recoverFromSignature(int recId, BigInteger signR, BigInteger signS, byte[] message) {
+            final BigInteger n = CURVE.getN();
+            final BigInteger x = signR.add(BigInteger.valueOf((long) recId / 2).multiply(n));
+            if (x.compareTo(SecP256K1Curve.q) >= 0) {
+                return null;
+            }
+            final X9IntegerConverter x9 = new X9IntegerConverter();
+            final byte[] compEnc = x9.integerToBytes(x, 1 + x9.getByteLength(CURVE.getCurve()));
+            compEnc[0] = (byte) ((recId & 1) == 1 ? 0x03 : 0x02);
+            final ECPoint R = CURVE.getCurve().decodePoint(compEnc);
+            if (!R.multiply(n).isInfinity()) {
+                return null;
+            }
+            final BigInteger e = new BigInteger(1, message);
+            final BigInteger eInv = BigInteger.ZERO.subtract(e).mod(n);
+            final BigInteger rInv = signR.modInverse(n);
+            final BigInteger srInv = rInv.multiply(signS).mod(n);
+            final BigInteger eInvrInv = rInv.multiply(eInv).mod(n);
+            final ECPoint q = ECAlgorithms.sumOfTwoMultiplies(CURVE.getG(), eInvrInv, R, srInv);
+            final byte[] qBytes = q.getEncoded(false);
+            return new BigInteger(1, Arrays.copyOfRange(qBytes, 1, qBytes.length));
+        }
+    }
+
+    private static Sample[] sign(int count) {
+        final Random random = new Random(42);
+        final BigInteger[] privateKeys = new BigInteger[KEYS];
+        final byte[][] publicKeys = new byte[KEYS][];
+        for (int i = 0; i < KEYS; i++) {
+            privateKeys[i] = new BigInteger(256, random).mod(CURVE.getN().subtract(BigInteger.ONE)).add(BigInteger.ONE);
+            final byte[] encoded = CURVE.getG().multiply(privateKeys[i]).getEncoded(false);
+            publicKeys[i] = Arrays.copyOfRange(encoded, 1, encoded.length);
+        }
+
+        final Sample[] samples = new Sample[count];
+        final byte[] hash = new byte[32];
+        for (int i = 0; i < count; i++) {
+            random.nextBytes(hash);
+            final ECDSASigner signer = new ECDSASigner(new HMacDSAKCalculator(new SHA256Digest()));
+            signer.init(true, new ECPrivateKeyParameters(privateKeys[i % KEYS], CURVE));
+            final BigInteger[] rs = signer.generateSignature(hash);
+            samples[i] = new Sample(publicKeys[i % KEYS], rs[0], rs[1], hash.clone());
+        }
+        return samples;
+    }
+
+    @Test
+    public void matchesTrialRecovery() {
+        final int[] seen = new int[4];
+        for (Sample sample : sign(500)) {
+            final int expected = TrialRecovery.getRecoverId(sample.publicKeyInt, sample.r, sample.s, sample.hash);
+            assertEquals(expected, Signature.getRecoverIdFromSignature(sample.publicKey, sample.signature, sample.hash));
+            assertEquals(expected, Signature.getRecoverIdFromSignature(sample.publicKeyInt, sample.r, sample.s, sample.hash));
+            seen[expected]++;
+        }
+        assertTrue(seen[0] > 0 && seen[1] > 0);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void rejectsSignatureOfAnotherKey() {
+        final Sample[] samples = sign(KEYS + 1);
+        Signature.getRecoverIdFromSignature(samples[1].publicKey, samples[0].signature, samples[0].hash);
+    }
+
+    @Test
+    public void compareRecovery() {
+        final Sample[] samples = sign(SIGNATURES);
+
+        // warm up
+        for (int i = 0; i < 1000; i++) {
+            TrialRecovery.getRecoverId(samples[i].publicKeyInt, samples[i].r, samples[i].s, samples[i].hash);
+            Signature.getRecoverIdFromSignature(samples[i].publicKey, samples[i].signature, samples[i].hash);
+        }
+
+        long sink = 0;
+        long start = System.nanoTime();
+        for (Sample sample : samples) {
+            sink += TrialRecovery.getRecoverId(sample.publicKeyInt, sample.r, sample.s, sample.hash);
+        }
+        final long trial = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (Sample sample : samples) {
+            sink -= Signature.getRecoverIdFromSignature(sample.publicKey, sample.signature, sample.hash);
+        }
+        final long direct = System.nanoTime() - start;
+
+        System.out.println(String.format("trial recovery  %8d ns/op", trial / SIGNATURES));
+        System.out.println(String.format("direct recovery %8d ns/op", direct / SIGNATURES));
+        assertEquals(0, sink);
+        assertTrue("direct " + direct + " trial " + trial, direct < trial);
+    }
+}
@@ -17,17 +17,24 @@
 
 package com.cobo.coinlib.coins;
 
+import android.util.Log;
+
 import androidx.annotation.NonNull;
 
+import com.cobo.coinlib.Util;
 import com.cobo.coinlib.interfaces.Coin;
 import com.cobo.coinlib.interfaces.SignCallback;
 import com.cobo.coinlib.interfaces.Signer;
 import com.cobo.coinlib.v8.CoinImpl;
 
+import org.bouncycastle.util.encoders.Hex;
+
 import java.lang.reflect.InvocationTargetException;
 
 public abstract class AbsCoin implements Coin {
+    private static final String TAG = "Vault.AbsCoin";
     protected final Coin impl;
+    private AbsDeriver deriver;
 
     protected AbsCoin(Coin impl) {
         this.impl = impl;
@@ -58,7 +65,25 @@ public abstract class AbsCoin implements Coin {
 
     @Override
     public String generateAddress(@NonNull String publicKey) {
-        return impl.generateAddress(publicKey);
+        String address = null;
+        try {
+            if (deriver == null) {
+                deriver = AbsDeriver.newInstance(coinCode());
+            }
+            if (deriver != null) {
+                address = encodeAddress(deriver, Hex.decode(Util.cleanHexPrefix(publicKey)));
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "encode address of " + coinCode() + " failed", e);
+        }
+        return address != null ? address : impl.generateAddress(publicKey);
+    }
+
+    /**
+     * encode the address of a public key in the format the coin's js bundle returns
+     */
+    protected String encodeAddress(@NonNull AbsDeriver deriver, byte[] publicKey) {
+        return deriver.encodeAddress(publicKey);
     }
 
     @Override
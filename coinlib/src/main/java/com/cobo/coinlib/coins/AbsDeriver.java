@@ -29,6 +29,12 @@ import org.bitcoinj.crypto.HDKeyDerivation;
 import org.bitcoinj.params.MainNetParams;
 import org.bitcoinj.params.RegTestParams;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 public abstract class AbsDeriver {
     public static AbsDeriver newInstance(@NonNull String coinCode) {
         try {
@@ -48,17 +54,62 @@ public abstract class AbsDeriver {
 
     protected static final NetworkParameters TESTNET = RegTestParams.get();
 
+    // deserialized account keys and their change level children, keyed by xpub and xpub/change
+    private static final int MAX_CACHED_NODES = 64;
+    private static final Map<String, DeterministicKey> NODE_CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<String, DeterministicKey>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, DeterministicKey> eldest) {
+                    return size() > MAX_CACHED_NODES;
+                }
+            });
+
     protected DeterministicKey getAddrDeterministicKey(String accountXpub, int changeIndex, int addressIndex) {
-        DeterministicKey account = DeterministicKey.deserializeB58(accountXpub, MAINNET);
-        DeterministicKey change = HDKeyDerivation.deriveChildKey(account, changeIndex);
-        return HDKeyDerivation.deriveChildKey(change, addressIndex);
+        return HDKeyDerivation.deriveChildKey(getChangeKey(accountXpub, changeIndex), addressIndex);
+    }
+
+    protected DeterministicKey getChangeKey(String accountXpub, int changeIndex) {
+        String cacheKey = accountXpub + "/" + changeIndex;
+        DeterministicKey change = NODE_CACHE.get(cacheKey);
+        if (change == null) {
+            change = HDKeyDerivation.deriveChildKey(getDeterministicKey(accountXpub), changeIndex);
+            NODE_CACHE.put(cacheKey, change);
+        }
+        return change;
     }
 
     protected DeterministicKey getDeterministicKey(String xPub) {
-        return DeterministicKey.deserializeB58(xPub, MAINNET);
+        DeterministicKey key = NODE_CACHE.get(xPub);
+        if (key == null) {
+            key = DeterministicKey.deserializeB58(xPub, MAINNET);
+            NODE_CACHE.put(xPub, key);
+        }
+        return key;
     }
 
     public abstract String derive(String xPubKey, int changeIndex, int addrIndex);
 
     public abstract String derive(String xPubKey);
+
+    /**
+     * derive count addresses starting at index from, the account and change keys
+     * are derived once for the whole range
+     */
+    public List<String> deriveRange(String accountXpub, int changeIndex, int from, int count) {
+        List<String> addresses = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            addresses.add(derive(accountXpub, changeIndex, i));
+        }
+        return addresses;
+    }
+
+    /**
+     * encode the address of a public key in java, without the coin js bundle
+     *
+     * @param publicKey public key bytes, compressed for secp256k1 coins
+     * @return address, or null if the coin can not encode it natively
+     */
+    public String encodeAddress(byte[] publicKey) {
+        return null;
+    }
 }
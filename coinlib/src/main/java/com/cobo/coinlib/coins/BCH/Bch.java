@@ -17,6 +17,8 @@
 
 package com.cobo.coinlib.coins.BCH;
 
+import androidx.annotation.NonNull;
+
 import com.cobo.coinlib.coins.AbsDeriver;
 import com.cobo.coinlib.coins.BTC.Btc;
 import com.cobo.coinlib.exception.InvalidTransactionException;
@@ -24,6 +26,7 @@ import com.cobo.coinlib.interfaces.Coin;
 import com.github.kiulian.converter.AddressConverter;
 
 import org.bitcoinj.core.LegacyAddress;
+import org.bitcoinj.core.Utils;
 import org.bitcoinj.crypto.DeterministicKey;
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -39,6 +42,12 @@ public class Bch extends Btc {
         return "BCH";
     }
 
+    @Override
+    protected String encodeAddress(@NonNull AbsDeriver deriver, byte[] publicKey) {
+        // the js bundle returns legacy addresses from generateAddress
+        return Deriver.encodeLegacyAddress(publicKey);
+    }
+
     public static String toCashAddress(String legacyAddress) {
         if (legacyAddress.startsWith("q") || legacyAddress.startsWith("bitcoincash")) {
             return legacyAddress;
@@ -88,18 +97,23 @@ public class Bch extends Btc {
         @Override
         public String derive(String xPubKey, int changeIndex, int addrIndex) {
             DeterministicKey address = getAddrDeterministicKey(xPubKey, changeIndex, addrIndex);
-            LegacyAddress addr = LegacyAddress.fromPubKeyHash(MAINNET, address.getPubKeyHash());
-            String legacy = addr.toBase58();
-            if (legacyAddress) return legacy;
-            return Bch.toCashAddress(legacy);
+            return encodeAddress(address.getPubKey());
         }
 
         @Override
         public String derive(String xPubKey) {
-            String legacy = LegacyAddress.fromPubKeyHash(MAINNET,
-                    getDeterministicKey(xPubKey).getPubKeyHash()).toBase58();
+            return encodeAddress(getDeterministicKey(xPubKey).getPubKey());
+        }
+
+        @Override
+        public String encodeAddress(byte[] publicKey) {
+            String legacy = encodeLegacyAddress(publicKey);
             if (legacyAddress) return legacy;
             return Bch.toCashAddress(legacy);
         }
+
+        static String encodeLegacyAddress(byte[] publicKey) {
+            return LegacyAddress.fromPubKeyHash(MAINNET, Utils.sha256hash160(publicKey)).toBase58();
+        }
     }
 }
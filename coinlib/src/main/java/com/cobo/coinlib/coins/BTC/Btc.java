@@ -32,6 +32,7 @@ import com.cobo.coinlib.interfaces.Signer;
 import com.cobo.coinlib.utils.Coins;
 
 import org.bitcoinj.core.LegacyAddress;
+import org.bitcoinj.core.Utils;
 import org.bitcoinj.crypto.DeterministicKey;
 import org.bitcoinj.script.Script;
 import org.bitcoinj.script.ScriptBuilder;
@@ -226,16 +227,18 @@ public class Btc extends AbsCoin {
         @Override
         public String derive(String accountXpub, int changeIndex, int addressIndex) {
             DeterministicKey address = getAddrDeterministicKey(accountXpub, changeIndex, addressIndex);
-            LegacyAddress addr = LegacyAddress.fromScriptHash(MAINNET,
-                    segWitOutputScript(address.getPubKeyHash()).getPubKeyHash());
-            return addr.toBase58();
+            return encodeAddress(address.getPubKey());
         }
 
         @Override
         public String derive(String xPubKey) {
-            DeterministicKey key = DeterministicKey.deserializeB58(xPubKey, MAINNET);
+            return encodeAddress(getDeterministicKey(xPubKey).getPubKey());
+        }
+
+        @Override
+        public String encodeAddress(byte[] publicKey) {
             return LegacyAddress.fromScriptHash(MAINNET,
-                    segWitOutputScript(key.getPubKeyHash()).getPubKeyHash()).toBase58();
+                    segWitOutputScript(Utils.sha256hash160(publicKey)).getPubKeyHash()).toBase58();
         }
 
         protected Script segWitOutputScript(byte[] pubKeyHash) {
@@ -23,7 +23,6 @@ import com.cobo.coinlib.coins.AbsTx;
 import com.cobo.coinlib.coins.SignTxResult;
 import com.cobo.coinlib.interfaces.Signer;
 import com.cobo.coinlib.v8.CoinImpl;
-import com.eclipsesource.v8.V8Object;
 
 public class BtcImpl extends CoinImpl {
     public BtcImpl() {
@@ -31,7 +30,6 @@ public class BtcImpl extends CoinImpl {
     }
 
     SignTxResult generateOmniTx(@NonNull AbsTx tx, Signer... signers) {
-        V8Object txData = constructTxData(tx.getMetaData());
-        return signTxImpl(txData, "generateOmniTransactionSync", signers);
+        return signTxImpl(tx.getMetaData(), "generateOmniTransactionSync", signers);
     }
 }
@@ -123,24 +123,18 @@ public class Cfx extends AbsCoin implements Coin {
         @Override
         public String derive(String accountXpub, int changeIndex, int addrIndex) {
             DeterministicKey address = getAddrDeterministicKey(accountXpub, changeIndex, addrIndex);
-            //decompress
-            ECKey eckey = ECKey.fromPublicOnly(address.getPubKeyPoint());
-            byte[] pubKey = eckey.decompress().getPubKey();
-            byte[] hash = new byte[pubKey.length - 1];
-            System.arraycopy(pubKey, 1, hash, 0, hash.length);
-
-            String s = Hex.toHexString(getAddress(hash));
-
-            StringBuilder result = new StringBuilder(s.length() + 2);
-            result.append("0x").append(s);
-            return  result.toString();
+            return encodeAddress(address.getPubKey());
         }
 
         @Override
         public String derive(String xPubKey) {
-            DeterministicKey key = getDeterministicKey(xPubKey);
+            return encodeAddress(getDeterministicKey(xPubKey).getPubKey());
+        }
+
+        @Override
+        public String encodeAddress(byte[] publicKey) {
             //decompress
-            ECKey eckey = ECKey.fromPublicOnly(key.getPubKey());
+            ECKey eckey = ECKey.fromPublicOnly(publicKey);
 
             byte[] pubKey = eckey.decompress().getPubKey();
             byte[] hash = new byte[pubKey.length - 1];
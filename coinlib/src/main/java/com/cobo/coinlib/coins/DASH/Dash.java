@@ -24,6 +24,7 @@ import com.cobo.coinlib.interfaces.Coin;
 import com.cobo.coinlib.utils.Coins;
 
 import org.bitcoinj.core.Base58;
+import org.bitcoinj.core.Utils;
 import org.bitcoinj.crypto.DeterministicKey;
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -69,12 +70,17 @@ public class Dash extends Btc {
         @Override
         public String derive(String xPubKey, int changeIndex, int addrIndex) {
             DeterministicKey address = getAddrDeterministicKey(xPubKey, changeIndex, addrIndex);
-            return Base58.encodeChecked(0x4c, address.getPubKeyHash());
+            return encodeAddress(address.getPubKey());
         }
 
         @Override
         public String derive(String xPubKey) {
-            return Base58.encodeChecked(0x4c, getDeterministicKey(xPubKey).getPubKeyHash());
+            return encodeAddress(getDeterministicKey(xPubKey).getPubKey());
+        }
+
+        @Override
+        public String encodeAddress(byte[] publicKey) {
+            return Base58.encodeChecked(0x4c, Utils.sha256hash160(publicKey));
         }
     }
 }
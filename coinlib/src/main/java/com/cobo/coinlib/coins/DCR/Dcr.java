@@ -76,13 +76,17 @@ public class Dcr extends AbsCoin implements Coin {
         @Override
         public String derive(String xPubKey, int changeIndex, int addrIndex) {
             DeterministicKey address = getAddrDeterministicKey(xPubKey, changeIndex, addrIndex);
-            byte[] hash = blake256Ripemd160(address.getPubKey());
-            return encodeChecked(hash);
+            return encodeAddress(address.getPubKey());
         }
 
         @Override
         public String derive(String xPubKey) {
-            return encodeChecked(blake256Ripemd160(getDeterministicKey(xPubKey).getPubKey()));
+            return encodeAddress(getDeterministicKey(xPubKey).getPubKey());
+        }
+
+        @Override
+        public String encodeAddress(byte[] publicKey) {
+            return encodeChecked(blake256Ripemd160(publicKey));
         }
 
 
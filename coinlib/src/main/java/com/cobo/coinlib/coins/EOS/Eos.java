@@ -76,16 +76,16 @@ public class Eos extends AbsCoin {
         public String derive(String accountXpub, int changeIndex, int addressIndex) {
             DeterministicKey address = getAddrDeterministicKey(accountXpub, 0, 0);
 
-            return getEosPubKey(address);
+            return encodeAddress(address.getPubKey());
         }
 
         @Override
         public String derive(String xPubKey) {
-            return getEosPubKey(getDeterministicKey(xPubKey));
+            return encodeAddress(getDeterministicKey(xPubKey).getPubKey());
         }
 
-        private String getEosPubKey(DeterministicKey address) {
-            byte[] pubkeyByte = address.getPubKey();
+        @Override
+        public String encodeAddress(byte[] pubkeyByte) {
             byte[] csum = ripeMD160Hash(pubkeyByte);
             csum = copy(csum, 0, 4);
 
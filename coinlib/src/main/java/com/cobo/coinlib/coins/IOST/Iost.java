@@ -72,14 +72,19 @@ public class Iost extends AbsCoin {
         @Override
         public String derive(String xPubKey, int changeIndex, int addrIndex) {
             String pubKeyHex = Util.pubKeyFromExtentPubKey(xPubKey).substring(2);
-            return new B58().encodeToString(Hex.decode(pubKeyHex));
+            return encodeAddress(Hex.decode(pubKeyHex));
         }
 
         @Override
         public String derive(String xPubKey) {
             byte[] bytes = new B58().decode(xPubKey);
             byte[] pubKey = Arrays.copyOfRange(bytes,bytes.length - 4 - 32,bytes.length - 4);
-            return new B58().encodeToString(pubKey);
+            return encodeAddress(pubKey);
+        }
+
+        @Override
+        public String encodeAddress(byte[] publicKey) {
+            return new B58().encodeToString(publicKey);
         }
     }
 }
@@ -24,7 +24,7 @@ import com.cobo.coinlib.utils.Coins;
 
 import org.bitcoinj.core.Base58;
 import org.bitcoinj.core.LegacyAddress;
-import org.bitcoinj.crypto.DeterministicKey;
+import org.bitcoinj.core.Utils;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -70,25 +70,12 @@ public class Ltc extends Btc {
         static final boolean legacyAddress = false;
 
         @Override
-        public String derive(String xPubKey, int changeIndex, int addrIndex) {
-
-            if (legacyAddress) {
-                return super.derive(xPubKey, changeIndex, addrIndex);
-            }
-            DeterministicKey address = getAddrDeterministicKey(xPubKey, changeIndex, addrIndex);
-
-            LegacyAddress addr = LegacyAddress.fromScriptHash(MAINNET,
-                    segWitOutputScript(address.getPubKeyHash()).getPubKeyHash());
-            return Base58.encodeChecked(0x32, addr.getHash());
-        }
-
-        @Override
-        public String derive(String xPubKey) {
+        public String encodeAddress(byte[] publicKey) {
             if (legacyAddress) {
-                return super.derive(xPubKey);
+                return super.encodeAddress(publicKey);
             }
             LegacyAddress addr = LegacyAddress.fromScriptHash(MAINNET,
-                    segWitOutputScript(getDeterministicKey(xPubKey).getPubKeyHash()).getPubKeyHash());
+                    segWitOutputScript(Utils.sha256hash160(publicKey)).getPubKeyHash());
             return Base58.encodeChecked(0x32, addr.getHash());
         }
     }
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.coinlib.coins;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Derive a range of addresses on all cores. The range is cut into chunks, each
+ * chunk is derived on the shared pool and the chunks are joined in index order,
+ * so the listener sees the chunks of the result in index order.
+ */
+public final class ParallelDeriver {
+
+    public static final int CHUNK_SIZE = 20;
+
+    private static final ForkJoinPool POOL =
+            new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+
+    public interface ChunkListener {
+        /**
+         * @param derived the number of addresses derived so far
+         * @param chunk   the addresses of the chunk just derived, in index order
+         */
+        void onChunk(int derived, List<String> chunk);
+    }
+
+    private ParallelDeriver() {
+    }
+
+    public static List<String> deriveRange(@NonNull AbsDeriver deriver, String accountXpub,
+                                           int changeIndex, int from, int count) {
+        return deriveRange(deriver, accountXpub, changeIndex, from, count, null);
+    }
+
+    public static List<String> deriveRange(@NonNull AbsDeriver deriver, String accountXpub,
+                                           int changeIndex, int from, int count,
+                                           @Nullable ChunkListener listener) {
+        List<String> addresses = new ArrayList<>(count);
+        if (count <= CHUNK_SIZE) {
+            addresses.addAll(deriver.deriveRange(accountXpub, changeIndex, from, count));
+            notify(listener, addresses.size(), addresses);
+            return addresses;
+        }
+
+        List<ForkJoinTask<List<String>>> chunks = new ArrayList<>();
+        for (int start = from; start < from + count; start += CHUNK_SIZE) {
+            final int chunkFrom = start;
+            final int chunkCount = Math.min(CHUNK_SIZE, from + count - start);
+            chunks.add(POOL.submit(() ->
+                    deriver.deriveRange(accountXpub, changeIndex, chunkFrom, chunkCount)));
+        }
+        for (ForkJoinTask<List<String>> chunk : chunks) {
+            List<String> derived = chunk.join();
+            addresses.addAll(derived);
+            notify(listener, addresses.size(), derived);
+        }
+        return addresses;
+    }
+
+    private static void notify(ChunkListener listener, int derived, List<String> chunk) {
+        if (listener != null) {
+            listener.onChunk(derived, Collections.unmodifiableList(chunk));
+        }
+    }
+}
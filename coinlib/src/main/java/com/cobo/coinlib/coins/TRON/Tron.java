@@ -90,22 +90,18 @@ public class Tron extends AbsCoin {
     public static class Deriver extends AbsDeriver {
         @Override
         public String derive(String accountXpub, int changeIndex, int addrIndex) {
-
             DeterministicKey address = getAddrDeterministicKey(accountXpub, changeIndex, addrIndex);
-
-            ECKey eckey = ECKey.fromPublicOnly(address.getPubKeyPoint());
-            byte[] pubKey = eckey.decompress().getPubKey();
-            byte[] hash = new byte[pubKey.length - 1];
-            System.arraycopy(pubKey, 1, hash, 0, hash.length);
-
-            byte[] addr = getAddress(hash);
-
-            return Base58.encodeChecked(0x41, addr);
+            return encodeAddress(address.getPubKey());
         }
 
         @Override
         public String derive(String xPubKey) {
-            ECKey eckey = ECKey.fromPublicOnly(getDeterministicKey(xPubKey).getPubKeyPoint());
+            return encodeAddress(getDeterministicKey(xPubKey).getPubKey());
+        }
+
+        @Override
+        public String encodeAddress(byte[] publicKey) {
+            ECKey eckey = ECKey.fromPublicOnly(publicKey);
             byte[] pubKey = eckey.decompress().getPubKey();
             byte[] hash = new byte[pubKey.length - 1];
             System.arraycopy(pubKey, 1, hash, 0, hash.length);
@@ -21,17 +21,38 @@ package com.cobo.coinlib.coins.XRP;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.networknt.schema.JsonSchema;
 import com.networknt.schema.JsonSchemaFactory;
 import com.networknt.schema.SpecVersion;
 import com.networknt.schema.ValidationMessage;
 
+import org.json.JSONArray;
+import org.json.JSONObject;
+
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Schemas are compiled once and shared, a compiled {@link JsonSchema} is immutable
+ * and safe to validate from any thread. The schema strings are constants, so the
+ * cache is bounded by the number of supported transaction types.
+ */
 class JsonSchemaValidator {
 
-    private final ObjectMapper mapper = new ObjectMapper();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+    private static final JsonSchemaFactory FACTORY =
+            JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V4);
+    private static final Map<String, JsonSchema> SCHEMAS = new ConcurrentHashMap<>();
+
     private Set<ValidationMessage> errors;
 
 
@@ -39,22 +60,63 @@ class JsonSchemaValidator {
         return errors;
     }
 
-    protected JsonSchema getJsonSchemaFromStringContent(String schemaContent) {
-        JsonSchemaFactory factory = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V4);
-        return factory.getSchema(schemaContent);
+    static JsonSchema getSchema(String schemaContent) {
+        return SCHEMAS.computeIfAbsent(schemaContent, FACTORY::getSchema);
     }
 
-    protected JsonNode getJsonNodeFromStringContent(String content) throws IOException {
-        return mapper.readTree(content);
+    static JsonNode readTree(String content) throws IOException {
+        return MAPPER.readTree(content);
     }
 
+    /**
+     * build the jackson tree straight from the parsed object instead of
+     * printing it and parsing it again
+     */
+    static JsonNode toJsonNode(Object value) {
+        if (value instanceof JSONObject) {
+            JSONObject object = (JSONObject) value;
+            ObjectNode node = NODES.objectNode();
+            Iterator<String> keys = object.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                node.set(key, toJsonNode(object.opt(key)));
+            }
+            return node;
+        } else if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            ArrayNode node = NODES.arrayNode(array.length());
+            for (int i = 0; i < array.length(); i++) {
+                node.add(toJsonNode(array.opt(i)));
+            }
+            return node;
+        } else if (value instanceof String) {
+            return NODES.textNode((String) value);
+        } else if (value instanceof Boolean) {
+            return NODES.booleanNode((Boolean) value);
+        } else if (value instanceof Integer) {
+            return NODES.numberNode((Integer) value);
+        } else if (value instanceof Long) {
+            return NODES.numberNode((Long) value);
+        } else if (value instanceof BigInteger) {
+            return NODES.numberNode((BigInteger) value);
+        } else if (value instanceof BigDecimal) {
+            return NODES.numberNode((BigDecimal) value);
+        } else if (value instanceof Number) {
+            return NODES.numberNode(((Number) value).doubleValue());
+        } else if (value == null || JSONObject.NULL.equals(value)) {
+            return NODES.nullNode();
+        }
+        return NODES.textNode(value.toString());
+    }
+
+    public boolean isStateValid(String modelSchema, JsonNode state) {
+        errors = getSchema(modelSchema).validate(state);
+        return errors != null && errors.isEmpty();
+    }
 
     public boolean isStateValid(String modelSchema, String state) {
         try {
-            JsonSchema schema = getJsonSchemaFromStringContent(modelSchema);
-            JsonNode node = getJsonNodeFromStringContent(state);
-            errors = schema.validate(node);
-            return errors != null && errors.isEmpty();
+            return isStateValid(modelSchema, readTree(state));
         } catch (IOException e) {
             e.printStackTrace();
         }
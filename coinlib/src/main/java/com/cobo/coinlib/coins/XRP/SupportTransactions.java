@@ -74,6 +74,15 @@ public class SupportTransactions {
         return sMap.get(type);
     }
 
+    /**
+     * compile the schemas of all supported transactions, call it off the main thread
+     */
+    public static void warmUp() {
+        for (XrpTransaction xrpTransaction : sMap.values()) {
+            xrpTransaction.warmUp();
+        }
+    }
+
     private static void register(XrpTransaction xrpTransaction) {
         sMap.put(xrpTransaction.getTransactionType(), xrpTransaction);
     }
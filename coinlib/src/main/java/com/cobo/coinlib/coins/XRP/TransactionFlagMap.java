@@ -18,80 +18,192 @@
  */
 package com.cobo.coinlib.coins.XRP;
 
-import java.util.*;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Flag names are looked up in a table per transaction type. Single bit flags are
+ * indexed by bit position and found by walking the set bits, the rendered string
+ * is cached per type and matched bits, at most 2^6 entries for a type.
+ */
 public class TransactionFlagMap {
-    private final static List<Flags> flags = new ArrayList<>();
-    private final static List<Flags> accountSetFlags = new ArrayList<>();
-    static {
+
+    public enum Flag {
         // Constraints flags:
-        flags.add(new Flags(TransactionFlag.FullyCanonicalSig, "FullyCanonicalSig","Constraints"));
-        flags.add(new Flags(TransactionFlag.UniversalMask, "UniversalMask", "Constraints"));
+        FullyCanonicalSig(TransactionFlag.FullyCanonicalSig, "Constraints"),
+        UniversalMask(TransactionFlag.UniversalMask, "Constraints"),
         // AccountSet flags:
-        flags.add(new Flags(TransactionFlag.RequireDestTag, "RequireDestTag", "AccountSet"));
-        flags.add(new Flags(TransactionFlag.OptionalDestTag, "OptionalDestTag", "AccountSet"));
-        flags.add(new Flags(TransactionFlag.RequireAuth, "RequireAuth", "AccountSet"));
-        flags.add(new Flags(TransactionFlag.OptionalAuth, "OptionalAuth", "AccountSet"));
-        flags.add(new Flags(TransactionFlag.DisallowXRP, "DisallowXRP", "AccountSet"));
-        flags.add(new Flags(TransactionFlag.AllowXRP, "AllowXRP", "AccountSet"));
-        flags.add(new Flags(TransactionFlag.AccountSetMask, "AccountSetMask", "AccountSet"));
+        RequireDestTag(TransactionFlag.RequireDestTag, "AccountSet"),
+        OptionalDestTag(TransactionFlag.OptionalDestTag, "AccountSet"),
+        RequireAuth(TransactionFlag.RequireAuth, "AccountSet"),
+        OptionalAuth(TransactionFlag.OptionalAuth, "AccountSet"),
+        DisallowXRP(TransactionFlag.DisallowXRP, "AccountSet"),
+        AllowXRP(TransactionFlag.AllowXRP, "AccountSet"),
+        AccountSetMask(TransactionFlag.AccountSetMask, "AccountSet"),
         // OfferCreate flags:
-        flags.add(new Flags(TransactionFlag.Passive, "Passive", "OfferCreate"));
-        flags.add(new Flags(TransactionFlag.ImmediateOrCancel, "ImmediateOrCancel", "OfferCreate"));
-        flags.add(new Flags(TransactionFlag.FillOrKill, "FillOrKill", "OfferCreate"));
-        flags.add(new Flags(TransactionFlag.Sell, "Sell", "OfferCreate"));
-        flags.add(new Flags(TransactionFlag.OfferCreateMask, "OfferCreateMask", "OfferCreate"));
+        Passive(TransactionFlag.Passive, "OfferCreate"),
+        ImmediateOrCancel(TransactionFlag.ImmediateOrCancel, "OfferCreate"),
+        FillOrKill(TransactionFlag.FillOrKill, "OfferCreate"),
+        Sell(TransactionFlag.Sell, "OfferCreate"),
+        OfferCreateMask(TransactionFlag.OfferCreateMask, "OfferCreate"),
         // Payment flags:
-        flags.add(new Flags(TransactionFlag.NoRippleDirect, "NoRippleDirect", "Payment"));
-        flags.add(new Flags(TransactionFlag.PartialPayment, "PartialPayment", "Payment"));
-        flags.add(new Flags(TransactionFlag.LimitQuality, "LimitQuality", "Payment"));
-        flags.add(new Flags(TransactionFlag.PaymentMask, "PaymentMask", "Payment"));
+        NoRippleDirect(TransactionFlag.NoRippleDirect, "Payment"),
+        PartialPayment(TransactionFlag.PartialPayment, "Payment"),
+        LimitQuality(TransactionFlag.LimitQuality, "Payment"),
+        PaymentMask(TransactionFlag.PaymentMask, "Payment"),
         // PaymentChannelClaim flags:
-        flags.add(new Flags(TransactionFlag.Renew, "Renew", "PaymentChannelClaim"));
-        flags.add(new Flags(TransactionFlag.Close, "Close", "PaymentChannelClaim"));
-        flags.add(new Flags(TransactionFlag.PaymentChannelClaimMask, "PaymentChannelClaimMask", "PaymentChannelClaim"));
+        Renew(TransactionFlag.Renew, "PaymentChannelClaim"),
+        Close(TransactionFlag.Close, "PaymentChannelClaim"),
+        PaymentChannelClaimMask(TransactionFlag.PaymentChannelClaimMask, "PaymentChannelClaim"),
         // TrustSet flags:
-        flags.add(new Flags(TransactionFlag.SetAuth, "SetAuth", "TrustSet"));
-        flags.add(new Flags(TransactionFlag.SetNoRipple, "SetNoRipple", "TrustSet"));
-        flags.add(new Flags(TransactionFlag.ClearNoRipple, "ClearNoRipple", "TrustSet"));
-        flags.add(new Flags(TransactionFlag.SetFreeze, "SetFreeze", "TrustSet"));
-        flags.add(new Flags(TransactionFlag.ClearFreeze, "ClearFreeze", "TrustSet"));
-        flags.add(new Flags(TransactionFlag.TrustSetMask, "TrustSetMask", "TrustSet"));
-        // AccountSet SetFlag/ClearFlag values
-        accountSetFlags.add(new Flags(TransactionFlag.asfRequireDest, "asfRequireDest", "AccountSetFlag"));
-        accountSetFlags.add(new Flags(TransactionFlag.asfRequireAuth, "asfRequireAuth", "AccountSetFlag"));
-        accountSetFlags.add(new Flags(TransactionFlag.asfDisallowXRP, "asfDisallowXRP", "AccountSetFlag"));
-        accountSetFlags.add(new Flags(TransactionFlag.asfDisableMaster, "asfDisableMaster", "AccountSetFlag"));
-        accountSetFlags.add(new Flags(TransactionFlag.asfAccountTxnID, "asfAccountTxnID", "AccountSetFlag"));
-        accountSetFlags.add(new Flags(TransactionFlag.asfNoFreeze, "asfNoFreeze", "AccountSetFlag"));
-        accountSetFlags.add(new Flags(TransactionFlag.asfGlobalFreeze, "asfGlobalFreeze", "AccountSetFlag"));
-        accountSetFlags.add(new Flags(TransactionFlag.asfDefaultRipple, "asfDefaultRipple", "AccountSetFlag"));
-        accountSetFlags.add(new Flags(TransactionFlag.asfDepositAuth, "asfDepositAuth", "AccountSetFlag"));
+        SetAuth(TransactionFlag.SetAuth, "TrustSet"),
+        SetNoRipple(TransactionFlag.SetNoRipple, "TrustSet"),
+        ClearNoRipple(TransactionFlag.ClearNoRipple, "TrustSet"),
+        SetFreeze(TransactionFlag.SetFreeze, "TrustSet"),
+        ClearFreeze(TransactionFlag.ClearFreeze, "TrustSet"),
+        TrustSetMask(TransactionFlag.TrustSetMask, "TrustSet"),
+        // AccountSet SetFlag/ClearFlag values, these are not bits
+        asfRequireDest(TransactionFlag.asfRequireDest, ACCOUNT_SET_FLAG),
+        asfRequireAuth(TransactionFlag.asfRequireAuth, ACCOUNT_SET_FLAG),
+        asfDisallowXRP(TransactionFlag.asfDisallowXRP, ACCOUNT_SET_FLAG),
+        asfDisableMaster(TransactionFlag.asfDisableMaster, ACCOUNT_SET_FLAG),
+        asfAccountTxnID(TransactionFlag.asfAccountTxnID, ACCOUNT_SET_FLAG),
+        asfNoFreeze(TransactionFlag.asfNoFreeze, ACCOUNT_SET_FLAG),
+        asfGlobalFreeze(TransactionFlag.asfGlobalFreeze, ACCOUNT_SET_FLAG),
+        asfDefaultRipple(TransactionFlag.asfDefaultRipple, ACCOUNT_SET_FLAG),
+        asfDepositAuth(TransactionFlag.asfDepositAuth, ACCOUNT_SET_FLAG);
+
+        private final long flag;
+        private final String transactionType;
+
+        Flag(long flag, String transactionType) {
+            this.flag = flag;
+            this.transactionType = transactionType;
+        }
+
+        public long getFlag() {
+            return flag;
+        }
+
+        public String getTransactionType() {
+            return transactionType;
+        }
+
+        public boolean isSet(long flags) {
+            return TransactionFlag.hasFlag(flags, flag);
+        }
+    }
+
+    private static final String ACCOUNT_SET_FLAG = "AccountSetFlag";
+    private static final Map<String, FlagTable> tables = new HashMap<>();
+    private static final Map<Long, Flag> accountSetFlags = new HashMap<>();
+
+    static {
+        for (Flag f : Flag.values()) {
+            if (ACCOUNT_SET_FLAG.equals(f.transactionType)) {
+                accountSetFlags.put(f.flag, f);
+            } else {
+                FlagTable table = tables.get(f.transactionType);
+                if (table == null) {
+                    table = new FlagTable();
+                    tables.put(f.transactionType, table);
+                }
+                table.add(f);
+            }
+        }
+    }
+
+    /**
+     * @return the flags of the transaction type set in flag, iterated in declaration order
+     */
+    public static Set<Flag> getFlags(long flag, String transactionType) {
+        FlagTable table = tables.get(transactionType);
+        if (table == null) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(table.decode(flag));
     }
 
     public static String getString(long flag, String transactionType) {
-       return  flags.stream().filter(f -> f.transactionType.equals(transactionType))
-                .filter(f -> TransactionFlag.hasFlag(flag, f.flag))
-                .map(f -> f.flagName)
-                .reduce((s1,s2) -> s1 + ", " + s2).orElse(null);
+        FlagTable table = tables.get(transactionType);
+        return table != null ? table.render(flag) : null;
     }
 
     public static String getAccountSetFlagsString(long flag, String transactionType) {
-        return  accountSetFlags.stream().filter(f -> f.transactionType.equals(transactionType))
-                .filter(f -> f.flag == flag)
-                .findFirst()
-                .map(f -> f.flagName).orElse(null);
+        Flag f = getAccountSetFlag(flag, transactionType);
+        return f != null ? f.name() : null;
     }
 
-    static class Flags {
-        long flag;
-        String flagName;
-        String transactionType;
+    public static Flag getAccountSetFlag(long flag, String transactionType) {
+        if (!ACCOUNT_SET_FLAG.equals(transactionType)) {
+            return null;
+        }
+        return accountSetFlags.get(flag);
+    }
 
-        public Flags(long flag, String flagName, String transactionType) {
-            this.flag = flag;
-            this.flagName = flagName;
-            this.transactionType = transactionType;
+    private static class FlagTable {
+        private final Flag[] bits = new Flag[Long.SIZE];
+        private final EnumSet<Flag> multiBits = EnumSet.noneOf(Flag.class);
+        private final Map<Long, String> rendered = new ConcurrentHashMap<>();
+        private long bitMask;
+
+        void add(Flag f) {
+            if (Long.bitCount(f.flag) == 1) {
+                bits[Long.numberOfTrailingZeros(f.flag)] = f;
+                bitMask |= f.flag;
+            } else {
+                multiBits.add(f);
+            }
+        }
+
+        EnumSet<Flag> decode(long flag) {
+            EnumSet<Flag> result = EnumSet.noneOf(Flag.class);
+            long set = flag & bitMask;
+            while (set != 0) {
+                result.add(bits[Long.numberOfTrailingZeros(set)]);
+                set &= set - 1;
+            }
+            for (Flag f : multiBits) {
+                if (f.isSet(flag)) {
+                    result.add(f);
+                }
+            }
+            return result;
+        }
+
+        String render(long flag) {
+            for (Flag f : multiBits) {
+                if (f.isSet(flag)) {
+                    // masks only match malformed flags, not worth caching
+                    return join(decode(flag));
+                }
+            }
+            // only the indexed bits change the result, so the cache stays small
+            long key = flag & bitMask;
+            String result = rendered.get(key);
+            if (result == null && key != 0) {
+                result = join(decode(key));
+                rendered.put(key, result);
+            }
+            return result;
+        }
+
+        private static String join(EnumSet<Flag> flags) {
+            if (flags.isEmpty()) {
+                return null;
+            }
+            StringBuilder sb = new StringBuilder();
+            Iterator<Flag> it = flags.iterator();
+            sb.append(it.next().name());
+            while (it.hasNext()) {
+                sb.append(", ").append(it.next().name());
+            }
+            return sb.toString();
         }
     }
 }
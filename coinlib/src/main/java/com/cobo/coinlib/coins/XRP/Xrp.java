@@ -88,14 +88,17 @@ public class Xrp extends AbsCoin implements Coin {
         @Override
         public String derive(String xPubKey, int changeIndex, int addrIndex) {
             DeterministicKey address = getAddrDeterministicKey(xPubKey, changeIndex, addrIndex);
-            System.out.println(Hex.toHexString(address.getPubKey()));
-            return new B58(DEFAULT_ALPHABET).encodeToStringChecked(address.getPubKeyHash(), 0);
+            return encodeAddress(address.getPubKey());
         }
 
         @Override
         public String derive(String xPubKey) {
-            return new B58(DEFAULT_ALPHABET)
-                    .encodeToStringChecked(getDeterministicKey(xPubKey).getPubKeyHash(), 0);
+            return encodeAddress(getDeterministicKey(xPubKey).getPubKey());
+        }
+
+        @Override
+        public String encodeAddress(byte[] publicKey) {
+            return new B58(DEFAULT_ALPHABET).encodeToStringChecked(Utils.sha256hash160(publicKey), 0);
         }
     }
 }
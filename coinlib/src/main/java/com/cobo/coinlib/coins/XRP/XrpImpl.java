@@ -22,7 +22,6 @@ import androidx.annotation.NonNull;
 import com.cobo.coinlib.coins.SignTxResult;
 import com.cobo.coinlib.interfaces.Signer;
 import com.cobo.coinlib.v8.CoinImpl;
-import com.eclipsesource.v8.V8Object;
 
 import org.json.JSONObject;
 
@@ -33,7 +32,6 @@ public class XrpImpl extends CoinImpl {
     }
 
     SignTxResult signTx(@NonNull JSONObject object, Signer signer) {
-        V8Object txData = constructTxData(object);
-        return signTxImpl(txData, "generateTransactionFromJsonSync", signer);
+        return signTxImpl(object, "generateTransactionFromJsonSync", signer);
     }
 }
@@ -21,6 +21,8 @@ package com.cobo.coinlib.coins.XRP;
 
 import android.text.TextUtils;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
 import org.bouncycastle.util.encoders.Hex;
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -114,13 +116,25 @@ public abstract class XrpTransaction {
     public boolean isValid(JSONObject tx) {
         try {
             return getTransactionType().equals(tx.getString("TransactionType"))
-                    && new JsonSchemaValidator().isStateValid(schema, tx.toString());
+                    && new JsonSchemaValidator().isStateValid(schema, JsonSchemaValidator.toJsonNode(tx));
         } catch (JSONException e) {
             e.printStackTrace();
         }
         return false;
     }
 
+    public boolean isValid(JsonNode tx) {
+        return getTransactionType().equals(tx.path("TransactionType").asText())
+                && new JsonSchemaValidator().isStateValid(schema, tx);
+    }
+
+    /**
+     * compile the schema ahead of the first transaction
+     */
+    void warmUp() {
+        JsonSchemaValidator.getSchema(schema);
+    }
+
     protected String formatAmount(String drops) {
         if(TextUtils.isEmpty(drops)) {
             return null;
@@ -24,7 +24,7 @@ import com.cobo.coinlib.utils.Coins;
 
 import org.bitcoinj.core.Base58;
 import org.bitcoinj.core.LegacyAddress;
-import org.bitcoinj.crypto.DeterministicKey;
+import org.bitcoinj.core.Utils;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -48,18 +48,9 @@ public class Xtn extends Btc {
     public static class Deriver extends Btc.Deriver {
 
         @Override
-        public String derive(String xPubKey, int changeIndex, int addrIndex) {
-            DeterministicKey address = getAddrDeterministicKey(xPubKey, changeIndex, addrIndex);
-
-            LegacyAddress addr = LegacyAddress.fromScriptHash(TESTNET,
-                    segWitOutputScript(address.getPubKeyHash()).getPubKeyHash());
-            return Base58.encodeChecked(0xc4, addr.getHash());
-        }
-
-        @Override
-        public String derive(String xPubKey) {
+        public String encodeAddress(byte[] publicKey) {
             LegacyAddress addr = LegacyAddress.fromScriptHash(TESTNET,
-                    segWitOutputScript(getDeterministicKey(xPubKey).getPubKeyHash()).getPubKeyHash());
+                    segWitOutputScript(Utils.sha256hash160(publicKey)).getPubKeyHash());
             return Base58.encodeChecked(0xc4, addr.getHash());
         }
     }
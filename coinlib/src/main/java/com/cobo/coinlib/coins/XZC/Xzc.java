@@ -25,6 +25,7 @@ import com.cobo.coinlib.interfaces.Coin;
 import com.cobo.coinlib.utils.Coins;
 
 import org.bitcoinj.core.Base58;
+import org.bitcoinj.core.Utils;
 import org.bitcoinj.crypto.DeterministicKey;
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -72,12 +73,17 @@ public class Xzc extends AbsCoin implements Coin {
         @Override
         public String derive(String xPubKey, int changeIndex, int addrIndex) {
             DeterministicKey address = getAddrDeterministicKey(xPubKey, changeIndex, addrIndex);
-            return Base58.encodeChecked(0x52, address.getPubKeyHash());
+            return encodeAddress(address.getPubKey());
         }
 
         @Override
         public String derive(String xPubKey) {
-            return Base58.encodeChecked(0x52, getDeterministicKey(xPubKey).getPubKeyHash());
+            return encodeAddress(getDeterministicKey(xPubKey).getPubKey());
+        }
+
+        @Override
+        public String encodeAddress(byte[] publicKey) {
+            return Base58.encodeChecked(0x52, Utils.sha256hash160(publicKey));
         }
     }
 }
@@ -82,16 +82,19 @@ public class Ksm extends Dot {
         protected byte prefix = 2;
         @Override
         public String derive(String xPubKey, int changeIndex, int addrIndex) {
-            byte[] bytes = new B58().decode(xPubKey);
-            byte[] pubKey = Arrays.copyOfRange(bytes,bytes.length - 4 - 32,bytes.length - 4);
-            return AddressCodec.encodeAddress(pubKey, prefix);
+            return derive(xPubKey);
         }
 
         @Override
         public String derive(String xPubKey) {
             byte[] bytes = new B58().decode(xPubKey);
             byte[] pubKey = Arrays.copyOfRange(bytes,bytes.length - 4 - 32,bytes.length - 4);
-            return AddressCodec.encodeAddress(pubKey, prefix);
+            return encodeAddress(pubKey);
+        }
+
+        @Override
+        public String encodeAddress(byte[] publicKey) {
+            return AddressCodec.encodeAddress(publicKey, prefix);
         }
     }
 }
@@ -1,35 +1,30 @@
 package com.cobo.coinlib.coins.polkadot;
 
-import org.bouncycastle.util.encoders.Hex;
-
-import java.io.ByteArrayOutputStream;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 
 public class ScaleCodecReader extends com.cobo.coinlib.coins.polkadot.scale.ScaleCodecReader {
     public ScaleCodecReader(byte[] source) {
         super(source);
     }
 
+    public ScaleCodecReader(ByteBuffer source) {
+        super(source);
+    }
+
     public BigInteger readCompact() {
-        return COMPACT_BIGINT.read(this);
+        return readCompactBigInt();
     }
 
     public String readString(int length) {
-        byte[] bytes = readByteArray(length);
-        return Hex.toHexString(bytes);
+        return readHex(length);
     }
 
     public byte[] readRestBytes() {
-        ByteArrayOutputStream bo = new ByteArrayOutputStream();
-        while (hasNext()) {
-            bo.write(readByte());
-        }
-        return bo.toByteArray();
+        return readByteArray(remaining());
     }
 
-    ;
-
     public String readRestString() {
-        return Hex.toHexString(readRestBytes());
+        return toHexString(readRestSlice());
     }
 }
@@ -26,10 +26,9 @@ import com.cobo.coinlib.coins.polkadot.scale.ScaleCodecWriter;
 
 import org.bouncycastle.util.encoders.Hex;
 
-import java.io.ByteArrayOutputStream;
-import java.math.BigInteger;
-
 public class TransactionEncoder {
+    private static final int PAYLOAD_CAPACITY = 192;
+
     private final ChainProperty chainProperty;
     private final String from;
     public long amount;
@@ -92,15 +91,15 @@ public class TransactionEncoder {
     }
 
     public byte[] constructTransaction() throws Exception {
-        ScaleCodecWriter codecWriter = new ScaleCodecWriter(new ByteArrayOutputStream());
-        codecWriter.writeByteArray(int16ToBytes(chainProperty.callId.transferKeepAlive));
+        ScaleCodecWriter codecWriter = new ScaleCodecWriter(PAYLOAD_CAPACITY);
+        codecWriter.writeUint16BE(chainProperty.callId.transferKeepAlive);
         byte[] publicKey = AddressCodec.decodeAddress(dest);
         codecWriter.writeByteArray(publicKey);
-        codecWriter.writeBIntCompact(BigInteger.valueOf(amount));
+        codecWriter.writeCompact(amount);
         byte[] mortalEra = constructEra(blockNumber, validityPeriod);
         codecWriter.writeByteArray(mortalEra);
-        codecWriter.writeLIntCompact(nonce);
-        codecWriter.writeLIntCompact(tip);
+        codecWriter.writeCompact(nonce);
+        codecWriter.writeCompact(tip);
         codecWriter.writeUint32(specVersion);
         codecWriter.writeUint32(transactionVersion);
         codecWriter.writeByteArray(Hex.decode(chainProperty.genesisHash));
@@ -109,23 +108,22 @@ public class TransactionEncoder {
     }
 
     public byte[] constructSignedTransaction() throws Exception {
-        ScaleCodecWriter scaleCodecWriter = new ScaleCodecWriter(new ByteArrayOutputStream());
+        ScaleCodecWriter scaleCodecWriter = new ScaleCodecWriter(PAYLOAD_CAPACITY);
         scaleCodecWriter.writeByte(chainProperty.payloadVersion);
         scaleCodecWriter.writeByteArray(AddressCodec.decodeAddress(from));
         scaleCodecWriter.writeByte(0x01);
         scaleCodecWriter.writeByteArray(Hex.decode(signature));
         byte[] mortalEra = constructEra(blockNumber, validityPeriod);
         scaleCodecWriter.writeByteArray(mortalEra);
-        scaleCodecWriter.writeLIntCompact(nonce);
-        scaleCodecWriter.writeLIntCompact(tip);
-        scaleCodecWriter.writeByteArray(int16ToBytes(chainProperty.callId.transferKeepAlive));
+        scaleCodecWriter.writeCompact(nonce);
+        scaleCodecWriter.writeCompact(tip);
+        scaleCodecWriter.writeUint16BE(chainProperty.callId.transferKeepAlive);
         byte[] destPublicKey = AddressCodec.decodeAddress(dest);
         scaleCodecWriter.writeByteArray(destPublicKey);
-        scaleCodecWriter.writeBIntCompact(BigInteger.valueOf(amount));
-        byte[] txContent = scaleCodecWriter.toByteArray();
-        ScaleCodecWriter finalWriter = new ScaleCodecWriter(new ByteArrayOutputStream());
-        finalWriter.writeCompact(txContent.length);
-        finalWriter.writeByteArray(txContent);
+        scaleCodecWriter.writeCompact(amount);
+        ScaleCodecWriter finalWriter = new ScaleCodecWriter(scaleCodecWriter.size() + 4);
+        finalWriter.writeCompact(scaleCodecWriter.size());
+        finalWriter.writeByteBuffer(scaleCodecWriter.toByteBuffer());
         return finalWriter.toByteArray();
     }
 
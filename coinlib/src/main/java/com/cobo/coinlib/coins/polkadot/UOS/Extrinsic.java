@@ -29,13 +29,13 @@ public class Extrinsic {
     private void read() {
         ScaleCodecReader scr = new ScaleCodecReader(rawSigningPayload);
         palletParameter = PalletFactory.readPallet(scr, network).read(scr);
-        era = scr.readString(2);
+        era = scr.readHex(2);
         nonce = scr.readCompact();
         tip = scr.readCompact();
         specVersion = scr.readUint32();
         transactionVersion = scr.readUint32();
-        genesisHash = scr.readString(32);
-        blockHash = scr.readString(32);
+        genesisHash = scr.readHex(32);
+        blockHash = scr.readHex(32);
     }
 
     public String getEra() {
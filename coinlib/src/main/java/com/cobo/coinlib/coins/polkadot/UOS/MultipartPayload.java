@@ -2,8 +2,16 @@ package com.cobo.coinlib.coins.polkadot.UOS;
 
 import com.cobo.coinlib.exception.InvalidUOSException;
 
+import org.bouncycastle.util.encoders.Hex;
+
+import java.nio.ByteBuffer;
+
 public class MultipartPayload {
-    private final String rawData;
+    private static final int FRAME_INFO_LENGTH = 5;
+    private static final byte MULTIPART = 0x00;
+    private static final byte SUBSTRATE = 0x53;
+
+    private final ByteBuffer rawData;
 
     public int frameCount;
     public boolean isMultiPart;
@@ -12,25 +20,34 @@ public class MultipartPayload {
     public SubstratePayload substratePayload;
 
     public MultipartPayload(String rawData, boolean multipartComplete) throws InvalidUOSException {
-        this.rawData = rawData;
+        this(ByteBuffer.wrap(Hex.decode(rawData)), multipartComplete);
+    }
+
+    /**
+     * @param rawData the UOS frame, read from its position to its limit
+     */
+    public MultipartPayload(ByteBuffer rawData, boolean multipartComplete) throws InvalidUOSException {
+        this.rawData = rawData.slice();
         read(multipartComplete);
     }
 
     private void read(boolean multipartComplete) throws InvalidUOSException {
-        String frameInfo = rawData.substring(0, 10);
-        frameCount = Utils.tryParseInt(frameInfo.substring(2, 6));
+        if (rawData.remaining() < FRAME_INFO_LENGTH) {
+            throw new InvalidUOSException("UOS frame is too short");
+        }
+        frameCount = rawData.getShort(1) & 0xffff;
         isMultiPart = frameCount > 1;
-        if(frameCount > 50) {
-            throw new InvalidUOSException("Frames number is too big, the QR seems not to be a recognized extrinsic raw data");
+        currentFrame = rawData.getShort(3) & 0xffff;
+        // the size of a multipart payload is bounded by UOSFrameAssembler, not the frame count
+        if (rawData.get(0) != MULTIPART || frameCount == 0 || currentFrame >= frameCount) {
+            throw new InvalidUOSException("the QR seems not to be a recognized extrinsic raw data");
         }
-        currentFrame = Utils.tryParseInt(frameInfo.substring(6, 10));
         if(isMultiPart  && !multipartComplete) {
             return;
         }
-        String uosAfterFrame = rawData.substring(10);
-        String zerothByte = uosAfterFrame.substring(0, 2);
-        if ("53".equals(zerothByte)) {
-            substratePayload = new SubstratePayload(uosAfterFrame.substring(2));
+        if (rawData.remaining() > FRAME_INFO_LENGTH && rawData.get(FRAME_INFO_LENGTH) == SUBSTRATE) {
+            rawData.position(FRAME_INFO_LENGTH + 1);
+            substratePayload = new SubstratePayload(rawData.slice());
             return;
         }
         throw new InvalidUOSException("current not support ethereum and legacy ethereum payload");
@@ -5,11 +5,13 @@ import com.cobo.coinlib.exception.InvalidUOSException;
 
 import org.bouncycastle.util.encoders.Hex;
 
-import java.util.Arrays;
-import java.util.List;
+import java.nio.ByteBuffer;
 
 public class SubstratePayload {
-    private final String rawData;
+    private static final int GENESIS_HASH_LENGTH = 32;
+    private static final int OVERSIZE = 256;
+
+    private final ByteBuffer rawData;
 
     public String curve;
     public byte[] accountPublicKey;
@@ -22,49 +24,63 @@ public class SubstratePayload {
     public Network network;
 
     public SubstratePayload(String rawData) throws InvalidUOSException {
+        this(ByteBuffer.wrap(Hex.decode(rawData)));
+    }
+
+    /**
+     * @param rawData the payload after the substrate prefix, read from its position to its limit
+     */
+    public SubstratePayload(ByteBuffer rawData) throws InvalidUOSException {
         this.rawData = rawData;
         read();
     }
 
     private void read() throws InvalidUOSException {
-        ScaleCodecReader scaleCodecReader = new ScaleCodecReader(Hex.decode(rawData));
-        byte firstByte = scaleCodecReader.readByte();
-        byte secondByte = scaleCodecReader.readByte();
-        switch (firstByte) {
-            case 0x00:
-                curve = "ed25519";
-                break;
-            case 0x01:
-                curve = "sr25519";
-                break;
-            default:
-                throw new InvalidUOSException("invalid curve bytes");
-        }
-        accountPublicKey = scaleCodecReader.readByteArray(32);
-        String restString = scaleCodecReader.readRestString();
-        String rawPayload = restString.substring(0, restString.length() - 64);
-        isOversize = restString.length() > 512;
-        genesisHash = restString.substring(restString.length() - 64);
-        network = Network.of(genesisHash);
-
-        switch (secondByte){
-            case 0x00:
-            case 0x02: {
-                isHash = false;
-                ScaleCodecReader tempReader = new ScaleCodecReader(Hex.decode(rawPayload));
-                tempReader.readCompact();
-                rawSigningData = tempReader.readRestBytes();
-                extrinsic = new Extrinsic(rawSigningData, network);
-                break;
-            }
-            case 0x01: {
-                isHash = true;
-                rawSigningData = Hex.decode(rawPayload);
-                break;
+        ScaleCodecReader scaleCodecReader = new ScaleCodecReader(rawData);
+        try {
+            byte firstByte = scaleCodecReader.readByte();
+            byte secondByte = scaleCodecReader.readByte();
+            switch (firstByte) {
+                case 0x00:
+                    curve = "ed25519";
+                    break;
+                case 0x01:
+                    curve = "sr25519";
+                    break;
+                default:
+                    throw new InvalidUOSException("invalid curve bytes");
             }
-            default: {
-                throw new InvalidUOSException("invalid data type byte");
+            accountPublicKey = scaleCodecReader.readByteArray(32);
+            int restLength = scaleCodecReader.remaining();
+            ByteBuffer rawPayload = scaleCodecReader.readSlice(restLength - GENESIS_HASH_LENGTH);
+            isOversize = restLength > OVERSIZE;
+            genesisHash = scaleCodecReader.readHex(GENESIS_HASH_LENGTH);
+            network = Network.of(genesisHash);
+
+            switch (secondByte) {
+                case 0x00:
+                case 0x02: {
+                    isHash = false;
+                    ScaleCodecReader tempReader = new ScaleCodecReader(rawPayload);
+                    tempReader.readCompact();
+                    rawSigningData = tempReader.readRestBytes();
+                    extrinsic = new Extrinsic(rawSigningData, network);
+                    break;
+                }
+                case 0x01: {
+                    isHash = true;
+                    rawSigningData = new ScaleCodecReader(rawPayload).readRestBytes();
+                    break;
+                }
+                default: {
+                    throw new InvalidUOSException("invalid data type byte");
+                }
             }
+        } catch (IndexOutOfBoundsException e) {
+            throw new InvalidUOSException("substrate payload is truncated");
+        } catch (IllegalStateException e) {
+            // unknown call index or enum value
+            throw new InvalidUOSException(e.getMessage());
         }
     }
 }
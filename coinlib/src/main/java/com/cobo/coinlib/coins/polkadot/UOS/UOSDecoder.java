@@ -2,15 +2,47 @@ package com.cobo.coinlib.coins.polkadot.UOS;
 
 import com.cobo.coinlib.exception.InvalidUOSException;
 
-import java.util.Arrays;
-import java.util.List;
+import org.bouncycastle.util.encoders.DecoderException;
+import org.bouncycastle.util.encoders.Hex;
+
+import java.nio.ByteBuffer;
 
 public class UOSDecoder {
 
+    private static final int MODE_BYTE = 0x4;
+    private static final byte PADDING_FIRST = (byte) 0xec;
+    private static final byte PADDING_SECOND = 0x11;
+
     public static Result decode(String rawData, boolean multipartComplete)
             throws InvalidUOSException {
-        String UOSRawData = extractUOSRawData(rawData);
-        MultipartPayload mp = new MultipartPayload(UOSRawData, multipartComplete);
+        if (rawData.length() == 0) {
+            throw new InvalidUOSException("QRCode raw data is none");
+        }
+        try {
+            return decode(Hex.decode(rawData), multipartComplete);
+        } catch (DecoderException e) {
+            throw new InvalidUOSException("QRCode raw data is invalid");
+        }
+    }
+
+    /**
+     * @param rawBytes the raw bytes of a byte mode QR code segment, mode and length included,
+     *                 or a UOS frame as built by {@link UOSFrameAssembler#assemble()}
+     */
+    public static Result decode(byte[] rawBytes, boolean multipartComplete)
+            throws InvalidUOSException {
+        // a segment starts with the byte mode indicator, a UOS frame with 0x00
+        ByteBuffer UOSRawData = rawBytes.length > 0 && rawBytes[0] == 0
+                ? ByteBuffer.wrap(rawBytes) : extractUOSRawData(rawBytes);
+        return decodeFrame(UOSRawData, multipartComplete);
+    }
+
+    /**
+     * @param frame one UOS frame, read from its position to its limit
+     */
+    public static Result decodeFrame(ByteBuffer frame, boolean multipartComplete)
+            throws InvalidUOSException {
+        MultipartPayload mp = new MultipartPayload(frame, multipartComplete);
         SubstratePayload sp = mp.substratePayload;
 
         Result result = new Result();
@@ -18,6 +50,9 @@ public class UOSDecoder {
         result.setFrameCount(mp.frameCount);
         result.setCurrentFrame(mp.currentFrame);
         result.setMultiPart(mp.isMultiPart);
+        if (sp == null) {
+            return result;
+        }
 
         result.setIsHash(sp.isHash);
         result.setAccountPublicKey(sp.accountPublicKey);
@@ -30,29 +65,41 @@ public class UOSDecoder {
         return result;
     }
 
-    private static String extractUOSRawData(String QRRawData) throws InvalidUOSException {
-        if (QRRawData.length() == 0) {
+    /**
+     * The segment starts with the 4 bit byte mode indicator and an 8 or 16 bit length, so
+     * the data is off by half a byte. It ends with a 4 bit terminator and the padding.
+     */
+    static ByteBuffer extractUOSRawData(byte[] raw) throws InvalidUOSException {
+        int end = raw.length;
+        if (end == 0) {
             throw new InvalidUOSException("QRCode raw data is none");
         }
-        if (QRRawData.endsWith("ec")) {
-            QRRawData = QRRawData.substring(0, QRRawData.length() - 2);
+        if (raw[end - 1] == PADDING_FIRST) {
+            end--;
         }
-        while (QRRawData.endsWith("ec11")) {
-            QRRawData = QRRawData.substring(0, QRRawData.length() - 4);
+        while (end >= 2 && raw[end - 2] == PADDING_FIRST && raw[end - 1] == PADDING_SECOND) {
+            end -= 2;
         }
-        if (!QRRawData.startsWith("4") || !QRRawData.endsWith("0")) {
+        if (end < 2 || (raw[0] & 0xf0) >> 4 != MODE_BYTE || (raw[end - 1] & 0x0f) != 0) {
             throw new InvalidUOSException("QRCode raw data is invalid");
         }
-        QRRawData = QRRawData.substring(1, QRRawData.length() - 1);
-        int length8 = Utils.tryParseInt(QRRawData.substring(0, 2));
-        int length16 = Utils.tryParseInt(QRRawData.substring(0, 4));
-        if (length8 * 2 + 2 == QRRawData.length()) {
-            QRRawData = QRRawData.substring(2);
-        } else if (length16 * 2 + 4 == QRRawData.length()) {
-            QRRawData = QRRawData.substring(4);
+        int length8 = (raw[0] & 0x0f) << 4 | (raw[1] & 0xf0) >> 4;
+        int length16 = end > 2 ? length8 << 8 | (raw[1] & 0x0f) << 4 | (raw[2] & 0xf0) >> 4 : -1;
+        int offset;
+        int length;
+        if (length8 + 2 == end) {
+            offset = 1;
+            length = length8;
+        } else if (length16 + 3 == end) {
+            offset = 2;
+            length = length16;
         } else {
             throw new InvalidUOSException("QRCode raw data is invalid");
         }
-        return QRRawData;
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) ((raw[offset + i] & 0x0f) << 4 | (raw[offset + i + 1] & 0xf0) >> 4);
+        }
+        return ByteBuffer.wrap(data);
     }
 }
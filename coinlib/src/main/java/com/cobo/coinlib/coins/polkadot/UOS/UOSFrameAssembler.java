@@ -0,0 +1,132 @@
+package com.cobo.coinlib.coins.polkadot.UOS;
+
+import com.cobo.coinlib.exception.InvalidUOSException;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
+/**
+ * Collects the frames of a multipart UOS as they are scanned, in any order and with
+ * repeats. Only the frame bodies are kept, they are joined once when the last one arrives.
+ */
+public class UOSFrameAssembler {
+    public static final int DEFAULT_MAX_PAYLOAD_SIZE = 1024 * 1024;
+
+    private static final int FRAME_INFO_LENGTH = 5;
+    private static final byte MULTIPART = 0x00;
+
+    private final int maxPayloadSize;
+    private final BitSet received = new BitSet();
+    private byte[][] frames;
+    private int frameCount;
+    private int payloadSize;
+    private byte[] assembled;
+
+    public UOSFrameAssembler() {
+        this(DEFAULT_MAX_PAYLOAD_SIZE);
+    }
+
+    /**
+     * @param maxPayloadSize the most bytes of frame bodies kept before the payload is rejected
+     */
+    public UOSFrameAssembler(int maxPayloadSize) {
+        this.maxPayloadSize = maxPayloadSize;
+    }
+
+    /**
+     * @param rawBytes the raw bytes of a byte mode QR code segment
+     * @return true if the payload is complete
+     * @throws InvalidUOSException if the QR code is not a UOS frame or the payload is too large
+     */
+    public boolean add(byte[] rawBytes) throws InvalidUOSException {
+        return addFrame(UOSDecoder.extractUOSRawData(rawBytes));
+    }
+
+    /**
+     * A frame with another frame count starts a new payload.
+     *
+     * @param frame one UOS frame, read from its position to its limit
+     * @return true if the payload is complete
+     */
+    public boolean addFrame(ByteBuffer frame) throws InvalidUOSException {
+        frame = frame.slice();
+        if (frame.remaining() <= FRAME_INFO_LENGTH || frame.get(0) != MULTIPART) {
+            throw new InvalidUOSException("the QR seems not to be a recognized extrinsic raw data");
+        }
+        int count = frame.getShort(1) & 0xffff;
+        int index = frame.getShort(3) & 0xffff;
+        if (count == 0 || index >= count) {
+            throw new InvalidUOSException("UOS frame " + index + " of " + count + " is invalid");
+        }
+        if (count != frameCount) {
+            reset();
+            // every frame carries at least one byte
+            if (count > maxPayloadSize) {
+                throw new InvalidUOSException("UOS payload is over " + maxPayloadSize + " bytes");
+            }
+            frameCount = count;
+            frames = new byte[count][];
+        }
+        if (received.get(index)) {
+            return isComplete();
+        }
+
+        int size = frame.remaining() - FRAME_INFO_LENGTH;
+        if (size > maxPayloadSize - payloadSize) {
+            reset();
+            throw new InvalidUOSException("UOS payload is over " + maxPayloadSize + " bytes");
+        }
+        byte[] body = new byte[size];
+        frame.position(FRAME_INFO_LENGTH);
+        frame.get(body);
+        frames[index] = body;
+        received.set(index);
+        payloadSize += size;
+        return isComplete();
+    }
+
+    public boolean isComplete() {
+        return frameCount > 0 && received.cardinality() == frameCount;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public int getReceivedCount() {
+        return received.cardinality();
+    }
+
+    /**
+     * The frame bodies are released once they are joined.
+     *
+     * @return the payload as a single UOS frame, see {@link UOSDecoder#decode(byte[], boolean)}
+     */
+    public byte[] assemble() {
+        if (!isComplete()) {
+            throw new IllegalStateException("received " + getReceivedCount() + " of " + frameCount + " frames");
+        }
+        if (assembled == null) {
+            ByteBuffer buffer = ByteBuffer.allocate(FRAME_INFO_LENGTH + payloadSize);
+            buffer.put(MULTIPART).putShort((short) 1).putShort((short) 0);
+            for (byte[] body : frames) {
+                buffer.put(body);
+            }
+            assembled = buffer.array();
+            frames = null;
+        }
+        return assembled;
+    }
+
+    public Result decode() throws InvalidUOSException {
+        return UOSDecoder.decodeFrame(ByteBuffer.wrap(assemble()), true);
+    }
+
+    public void reset() {
+        received.clear();
+        frames = null;
+        frameCount = 0;
+        payloadSize = 0;
+        assembled = null;
+    }
+}
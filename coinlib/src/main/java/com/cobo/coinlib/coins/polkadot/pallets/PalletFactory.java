@@ -5,18 +5,38 @@ import com.cobo.coinlib.coins.polkadot.KSM.Ksm;
 import com.cobo.coinlib.coins.polkadot.ScaleCodecReader;
 import com.cobo.coinlib.coins.polkadot.UOS.Network;
 
+import java.util.Map;
+
 public class PalletFactory {
-    public static Pallet getPallet(int code, Network network) {
-        try {
-            if (network.name.equals("Polkadot")) {
-                return Dot.pallets.get(code);
-            } else {
-                return Ksm.pallets.get(code);
+    private static final Pallet[][] POLKADOT_CALLS = index(Dot.pallets);
+    private static final Pallet[][] KUSAMA_CALLS = index(Ksm.pallets);
+
+    /**
+     * call index to pallet, the module index picks a row and the call index a slot in it,
+     * rows are only allocated for modules that have registered calls
+     */
+    private static Pallet[][] index(Map<Integer, Pallet> pallets) {
+        Pallet[][] table = new Pallet[256][];
+        for (Map.Entry<Integer, Pallet> entry : pallets.entrySet()) {
+            int code = entry.getKey();
+            Pallet[] calls = table[code >>> 8];
+            if (calls == null) {
+                calls = new Pallet[256];
+                table[code >>> 8] = calls;
             }
+            calls[code & 0xff] = entry.getValue();
         }
-        catch (Exception e) {
-            throw new Error("unknown pallet code");
+        return table;
+    }
+
+    public static Pallet getPallet(int code, Network network) {
+        Pallet[][] table = network.name.equals("Polkadot") ? POLKADOT_CALLS : KUSAMA_CALLS;
+        Pallet[] calls = table[(code >>> 8) & 0xff];
+        Pallet pallet = calls != null ? calls[code & 0xff] : null;
+        if (pallet == null) {
+            throw new IllegalStateException(String.format("unknown pallet code 0x%04x", code & 0xffff));
         }
+        return pallet;
     }
 
     public static Pallet readPallet(ScaleCodecReader scr, Network network) {
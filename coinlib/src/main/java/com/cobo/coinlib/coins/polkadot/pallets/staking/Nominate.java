@@ -4,7 +4,7 @@ import com.cobo.coinlib.coins.polkadot.UOS.Network;
 import com.cobo.coinlib.coins.polkadot.pallets.Pallet;
 import com.cobo.coinlib.coins.polkadot.ScaleCodecReader;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 
 public class Nominate extends Pallet {
@@ -14,8 +14,8 @@ public class Nominate extends Pallet {
 
     @Override
     public NominateParameter read(ScaleCodecReader scr) {
-        List<byte[]> publicKeys = Arrays.asList();
-        int length = scr.readUByte();
+        int length = scr.readCompactInt();
+        List<byte[]> publicKeys = new ArrayList<>(Math.min(length, scr.remaining() / 32));
         for (int i = 0; i< length; i++) {
             publicKeys.add(scr.readByteArray(32));
         }
@@ -4,12 +4,11 @@ import com.cobo.coinlib.coins.polkadot.AddressCodec;
 import com.cobo.coinlib.coins.polkadot.UOS.Network;
 import com.cobo.coinlib.coins.polkadot.pallets.Parameter;
 
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.List;
-import java.util.stream.Collector;
-import java.util.stream.Collectors;
 
 public class NominateParameter extends Parameter {
     private final int length;
@@ -25,7 +24,11 @@ public class NominateParameter extends Parameter {
     public JSONObject toJSON() throws JSONException {
         JSONObject object =  super.toJSON();
         object.put("length", length);
-        object.put("nominateAccounts", publicKeys.stream().map(publicKey -> AddressCodec.encodeAddress(publicKey, network.SS58Prefix)).collect(Collectors.toList()));
+        JSONArray accounts = new JSONArray();
+        for (byte[] publicKey : publicKeys) {
+            accounts.put(AddressCodec.encodeAddress(publicKey, network.SS58Prefix));
+        }
+        object.put("nominateAccounts", accounts);
         return object;
     }
 }
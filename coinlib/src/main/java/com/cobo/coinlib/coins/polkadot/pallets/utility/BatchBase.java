@@ -6,26 +6,58 @@ import com.cobo.coinlib.coins.polkadot.pallets.Pallet;
 import com.cobo.coinlib.coins.polkadot.ScaleCodecReader;
 import com.cobo.coinlib.coins.polkadot.pallets.Parameter;
 
-import java.util.Arrays;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 
 public class BatchBase extends Pallet {
+    // every call starts with its 2 bytes index
+    private static final int MIN_CALL_SIZE = 2;
 
     public BatchBase(String name, Network network) {
         super(name, network);
     }
 
+    /**
+     * nested batches are pushed on a stack instead of read recursively,
+     * the depth is only bounded by the payload
+     */
     @Override
     public BatchParameter read(ScaleCodecReader scr) {
-        List<Parameter> parameters = Arrays.asList();
-        int length = scr.readCompactInt();
-        for (int i = 0; i < length; i++) {
-            int code = scr.readUint16();
-            Pallet pallet = PalletFactory.getPallet(code, network);
-            Parameter parameter = pallet.read(scr);
-            parameters.add(parameter);
+        Deque<Frame> frames = new ArrayDeque<>();
+        frames.push(new Frame(this, scr));
+        while (true) {
+            Frame frame = frames.peek();
+            if (frame.parameters.size() == frame.length) {
+                frames.pop();
+                BatchParameter batch = new BatchParameter(network, frame.batch.name,
+                        frame.length, frame.parameters);
+                if (frames.isEmpty()) {
+                    return batch;
+                }
+                frames.peek().parameters.add(batch);
+                continue;
+            }
+            Pallet pallet = PalletFactory.readPallet(scr, network);
+            if (pallet instanceof BatchBase) {
+                frames.push(new Frame((BatchBase) pallet, scr));
+            } else {
+                frame.parameters.add(pallet.read(scr));
+            }
         }
+    }
+
+    private static class Frame {
+        private final BatchBase batch;
+        private final int length;
+        private final List<Parameter> parameters;
 
-        return new BatchParameter(network, name, length, parameters);
+        Frame(BatchBase batch, ScaleCodecReader scr) {
+            this.batch = batch;
+            this.length = scr.readCompactInt();
+            // the length is untrusted, no more calls than bytes left can follow
+            this.parameters = new ArrayList<>(Math.min(length, scr.remaining() / MIN_CALL_SIZE));
+        }
     }
 }
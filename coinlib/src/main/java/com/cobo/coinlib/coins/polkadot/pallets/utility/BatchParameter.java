@@ -3,9 +3,11 @@ package com.cobo.coinlib.coins.polkadot.pallets.utility;
 import com.cobo.coinlib.coins.polkadot.UOS.Network;
 import com.cobo.coinlib.coins.polkadot.pallets.Parameter;
 
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.Collections;
 import java.util.List;
 
 public class BatchParameter extends Parameter {
@@ -18,11 +20,23 @@ public class BatchParameter extends Parameter {
         this.parameters = parameters;
     }
 
+    public int getLength() {
+        return length;
+    }
+
+    public List<Parameter> getCalls() {
+        return Collections.unmodifiableList(parameters);
+    }
+
     @Override
     public JSONObject toJSON() throws JSONException {
         JSONObject object = super.toJSON();
         object.put("length", length);
-        object.put("pallets", parameters);
+        JSONArray pallets = new JSONArray();
+        for (Parameter parameter : parameters) {
+            pallets.put(parameter.toJSON());
+        }
+        object.put("pallets", pallets);
         return object;
     }
 }
@@ -2,11 +2,17 @@ package com.cobo.coinlib.coins.polkadot.scale;
 
 import com.cobo.coinlib.coins.polkadot.scale.reader.*;
 
+import org.bouncycastle.util.encoders.Hex;
+
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Optional;
 
 /**
- * SCALE codec reader
+ * SCALE codec reader over a little endian {@link ByteBuffer}. Positions are relative
+ * to the start of the source, slices are views on the same bytes, nothing is copied
+ * unless a byte array is asked for.
  */
 public class ScaleCodecReader {
 
@@ -21,11 +27,17 @@ public class ScaleCodecReader {
     public static final BoolOptionalReader BOOL_OPTIONAL = new BoolOptionalReader();
     public static final StringReader STRING = new StringReader();
 
-    private byte[] source;
-    private int pos = 0;
+    private final ByteBuffer source;
 
     public ScaleCodecReader(byte[] source) {
-        this.source = source;
+        this(ByteBuffer.wrap(source));
+    }
+
+    /**
+     * @param source read from its position to its limit, the buffer itself is not moved
+     */
+    public ScaleCodecReader(ByteBuffer source) {
+        this.source = source.slice().order(ByteOrder.LITTLE_ENDIAN);
     }
 
     /**
@@ -33,7 +45,21 @@ public class ScaleCodecReader {
      * @return true if has more elements
      */
     public boolean hasNext() {
-        return pos < source.length;
+        return source.hasRemaining();
+    }
+
+    /**
+     * @return amount of bytes left to read
+     */
+    public int remaining() {
+        return source.remaining();
+    }
+
+    /**
+     * @return current position
+     */
+    public int position() {
+        return source.position();
     }
 
     /**
@@ -41,10 +67,11 @@ public class ScaleCodecReader {
      * @param len amount to bytes to skip
      */
     public void skip(int len) {
+        int pos = source.position();
         if (len < 0 && Math.abs(len) > pos) {
             throw new IllegalArgumentException("Position cannot be negative: " + pos + " " + len);
         }
-        pos += len;
+        source.position(pos + len);
     }
 
     /**
@@ -54,21 +81,25 @@ public class ScaleCodecReader {
     public void seek(int pos) {
         if (pos < 0) {
             throw new IllegalArgumentException("Position cannot be negative: " + pos);
-        } else if (pos >= source.length) {
-            throw new IllegalArgumentException("Position " + pos + " must be strictly smaller than source length: " + source.length);
+        } else if (pos >= source.limit()) {
+            throw new IllegalArgumentException("Position " + pos + " must be strictly smaller than source length: " + source.limit());
         }
 
-        this.pos = pos;
+        source.position(pos);
+    }
+
+    private void require(int len) {
+        if (len < 0 || source.remaining() < len) {
+            throw new IndexOutOfBoundsException("Cannot read " + len + " bytes at " + source.position() + " of " + source.limit());
+        }
     }
 
     /**
      * @return a next single byte from reader
      */
     public byte readByte() {
-        if (!hasNext()) {
-            throw new IndexOutOfBoundsException("Cannot read " + pos + " of " + source.length);
-        }
-        return source[pos++];
+        require(1);
+        return source.get();
     }
 
     /**
@@ -85,19 +116,22 @@ public class ScaleCodecReader {
     }
 
     public int readUByte() {
-        return UBYTE.read(this);
+        return readByte() & 0xff;
     }
 
     public int readUint16() {
-        return UINT16.read(this);
+        require(2);
+        return source.getShort() & 0xffff;
     }
 
     public int readUint16BE() {
-        return UINT16.readBE(this);
+        require(2);
+        return Short.reverseBytes(source.getShort()) & 0xffff;
     }
 
     public long readUint32() {
-        return UINT32.read(this);
+        require(4);
+        return source.getInt() & 0xffffffffL;
     }
 
     public BigInteger readUint128() {
@@ -105,7 +139,58 @@ public class ScaleCodecReader {
     }
 
     public int readCompactInt() {
-        return COMPACT_UINT.read(this);
+        int i = readUByte();
+        switch (i & 0b11) {
+            case 0b00:
+                return i >> 2;
+            case 0b01:
+                return (i | readUByte() << 8) >> 2;
+            case 0b10:
+                require(3);
+                return (i | readUByte() << 8 | readUint16() << 16) >>> 2;
+            default:
+                throw new UnsupportedOperationException("Mode " + CompactMode.BIGINT + " is not implemented");
+        }
+    }
+
+    /**
+     * Read a compact number that fits in a signed long, without going through BigInteger
+     *
+     * @return read value
+     * @throws ArithmeticException if the value does not fit, use {@link #COMPACT_BIGINT}
+     */
+    public long readCompactLong() {
+        int i = source.remaining() > 0 ? source.get(source.position()) & 0xff : 0;
+        if ((i & 0b11) != 0b11) {
+            return readCompactInt() & 0xffffffffL;
+        }
+        int len = (i >> 2) + 4;
+        if (len > 8) {
+            throw new ArithmeticException("Compact value of " + len + " bytes does not fit in a long");
+        }
+        require(1 + len);
+        source.get();
+        long value = 0;
+        for (int shift = 0; shift < len * 8; shift += 8) {
+            value |= (source.get() & 0xffL) << shift;
+        }
+        if (value < 0) {
+            skip(-1 - len);
+            throw new ArithmeticException("Compact value does not fit in a long");
+        }
+        return value;
+    }
+
+    /**
+     * @return the next compact number, the long fast path is taken whenever it fits
+     */
+    public BigInteger readCompactBigInt() {
+        require(1);
+        int i = source.get(source.position()) & 0xff;
+        if ((i & 0b11) != 0b11 || (i >> 2) < 4) {
+            return BigInteger.valueOf(readCompactLong());
+        }
+        return COMPACT_BIGINT.read(this);
     }
 
     public boolean readBoolean() {
@@ -141,12 +226,51 @@ public class ScaleCodecReader {
     }
 
     public byte[] readByteArray(int len) {
+        require(len);
         byte[] result = new byte[len];
-        System.arraycopy(source, pos, result, 0, result.length);
-        pos += len;
+        source.get(result);
         return result;
     }
 
+    /**
+     * @param len amount of bytes
+     * @return a little endian view on the next bytes, the reader moves past them
+     */
+    public ByteBuffer readSlice(int len) {
+        require(len);
+        ByteBuffer slice = source.duplicate();
+        slice.limit(slice.position() + len);
+        source.position(source.position() + len);
+        return slice.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @return a view on all bytes left, the reader is at the end afterwards
+     */
+    public ByteBuffer readRestSlice() {
+        return readSlice(source.remaining());
+    }
+
+    /**
+     * @param len amount of bytes
+     * @return the next bytes in lower case hex
+     */
+    public String readHex(int len) {
+        return toHexString(readSlice(len));
+    }
+
+    /**
+     * @return the remaining bytes of the buffer in lower case hex, the buffer is not moved
+     */
+    public static String toHexString(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return Hex.toHexString(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return Hex.toHexString(bytes);
+    }
+
     /**
      * Read string, encoded as UTF-8 bytes
      * @return string value
@@ -6,8 +6,14 @@ import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Optional;
 
+/**
+ * SCALE codec writer into a growing little endian {@link ByteBuffer}. Compact numbers
+ * that fit in a long are encoded without BigInteger.
+ */
 public class ScaleCodecWriter implements Closeable {
 
     public static final CompactUIntWriter COMPACT_UINT = new CompactUIntWriter();
@@ -19,22 +25,91 @@ public class ScaleCodecWriter implements Closeable {
     public static final BoolWriter BOOL = new BoolWriter();
     public static final BoolOptionalWriter BOOL_OPT = new BoolOptionalWriter();
 
-    private final ByteArrayOutputStream out;
+    private static final int DEFAULT_CAPACITY = 256;
 
+    private ByteBuffer out;
+    // the stream of the deprecated constructor, every write is copied into it
+    private final ByteArrayOutputStream sink;
+    private int mirrored;
+
+    public ScaleCodecWriter() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param out receives every byte as it is written
+     * @deprecated the bytes are copied into the stream after every write, use
+     * {@link #ScaleCodecWriter(int)} and {@link #toByteArray()} instead
+     */
+    @Deprecated
     public ScaleCodecWriter(ByteArrayOutputStream out) {
-        this.out = out;
+        this(DEFAULT_CAPACITY, out);
+    }
+
+    /**
+     * @param capacity expected size of the output, the buffer grows past it if needed
+     */
+    public ScaleCodecWriter(int capacity) {
+        this(capacity, null);
+    }
+
+    private ScaleCodecWriter(int capacity, ByteArrayOutputStream sink) {
+        this.out = ByteBuffer.allocate(Math.max(capacity, 16)).order(ByteOrder.LITTLE_ENDIAN);
+        this.sink = sink;
+    }
+
+    private void ensure(int len) {
+        if (out.remaining() < len) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + len))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            out.flip();
+            grown.put(out);
+            out = grown;
+        }
+    }
+
+    private void mirror() {
+        if (sink != null) {
+            sink.write(out.array(), out.arrayOffset() + mirrored, out.position() - mirrored);
+            mirrored = out.position();
+        }
+    }
+
+    /**
+     * @return amount of bytes written
+     */
+    public int size() {
+        return out.position();
     }
-    
+
     public byte[] toByteArray() {
-        return out.toByteArray();
+        if (sink != null) {
+            return sink.toByteArray();
+        }
+        byte[] result = new byte[out.position()];
+        System.arraycopy(out.array(), out.arrayOffset(), result, 0, result.length);
+        return result;
+    }
+
+    /**
+     * @return a read only view on the bytes written so far, it is not updated by later writes
+     */
+    public ByteBuffer toByteBuffer() {
+        ByteBuffer view = out.duplicate();
+        view.flip();
+        return view.slice().asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
     }
 
     public void writeBIntCompact(BigInteger value) throws IOException {
-        COMPACT_BIGINT.write(this, value);
+        if (value.signum() >= 0 && value.bitLength() < Long.SIZE) {
+            writeCompact(value.longValue());
+        } else {
+            COMPACT_BIGINT.write(this, value);
+        }
     }
 
     public void writeLIntCompact(Long value) throws IOException {
-        this.writeBIntCompact(BigInteger.valueOf(value));
+        writeCompact(value.longValue());
     }
 
     public void writeUint256(byte[] value) throws IOException {
@@ -45,12 +120,23 @@ public class ScaleCodecWriter implements Closeable {
     }
 
     public void writeByteArray(byte[] value) throws IOException {
-        out.write(value, 0, value.length);
+        directWrite(value, 0, value.length);
+    }
+
+    /**
+     * Write the remaining bytes of the buffer as-is, the buffer is not moved
+     *
+     * @param value bytes to write
+     */
+    public void writeByteBuffer(ByteBuffer value) {
+        ensure(value.remaining());
+        out.put(value.duplicate());
+        mirror();
     }
 
     public void writeAsList(byte[] value) throws IOException {
         writeCompact(value.length);
-        out.write(value, 0, value.length);
+        directWrite(value, 0, value.length);
     }
 
     /**
@@ -60,7 +146,9 @@ public class ScaleCodecWriter implements Closeable {
      * @throws IOException if failed to write
      */
     public void directWrite(int b) throws IOException {
-        out.write(b);
+        ensure(1);
+        out.put((byte) b);
+        mirror();
     }
 
     /**
@@ -72,16 +160,16 @@ public class ScaleCodecWriter implements Closeable {
      * @throws IOException if failed to write
      */
     public void directWrite(byte[] b, int off, int len) throws IOException {
-        out.write(b, off, len);
+        ensure(len);
+        out.put(b, off, len);
+        mirror();
     }
 
     public void flush() throws IOException {
-        out.flush();
     }
 
     @Override
     public void close() throws IOException {
-        out.close();
     }
 
     public <T> void write(ScaleWriter<T> writer, T value) throws IOException {
@@ -97,15 +185,36 @@ public class ScaleCodecWriter implements Closeable {
     }
 
     public void writeUint16(int value) throws IOException {
-        UINT16.write(this, value);
+        ensure(2);
+        out.putShort((short) value);
+        mirror();
+    }
+
+    public void writeUint16BE(int value) throws IOException {
+        ensure(2);
+        out.putShort(Short.reverseBytes((short) value));
+        mirror();
     }
 
     public void writeUint32(int value) throws IOException {
-        UINT32.write(this, value);
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values are not supported: " + value);
+        }
+        ensure(4);
+        out.putInt(value);
+        mirror();
     }
 
     public void writeUint32(long value) throws IOException {
-        ULONG32.write(this, value);
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values are not supported: " + value);
+        }
+        if (value > 0xff_ff_ff_ffL) {
+            throw new IllegalArgumentException("Value is too high: " + value);
+        }
+        ensure(4);
+        out.putInt((int) value);
+        mirror();
     }
 
     public void writeUint128(BigInteger value) throws IOException {
@@ -113,7 +222,37 @@ public class ScaleCodecWriter implements Closeable {
     }
 
     public void writeCompact(int value) throws IOException {
-        COMPACT_UINT.write(this, value);
+        writeCompact((long) value);
+    }
+
+    /**
+     * Write a compact number, values past 2^30 take the fewest bytes that hold them
+     *
+     * @param value non negative number
+     * @throws IOException if failed to write
+     */
+    public void writeCompact(long value) throws IOException {
+        ensure(9);
+        switch (CompactMode.forNumber(value)) {
+            case SINGLE:
+                out.put((byte) (value << 2));
+                break;
+            case TWO:
+                out.putShort((short) ((value << 2) | CompactMode.TWO.getValue()));
+                break;
+            case FOUR:
+                out.putInt((int) ((value << 2) | CompactMode.FOUR.getValue()));
+                break;
+            default: {
+                int len = Math.max(4, (Long.SIZE - Long.numberOfLeadingZeros(value) + 7) / 8);
+                out.put((byte) (((len - 4) << 2) | CompactMode.BIGINT.getValue()));
+                for (int i = 0; i < len; i++) {
+                    out.put((byte) value);
+                    value >>>= 8;
+                }
+            }
+        }
+        mirror();
     }
 
     @SuppressWarnings("unchecked")
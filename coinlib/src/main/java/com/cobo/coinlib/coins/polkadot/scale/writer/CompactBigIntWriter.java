@@ -9,23 +9,19 @@ import java.math.BigInteger;
 
 public class CompactBigIntWriter implements ScaleWriter<BigInteger> {
 
-    private static final CompactULongWriter LONG_WRITER = new CompactULongWriter();
-
     @Override
     public void write(ScaleCodecWriter wrt, BigInteger value) throws IOException {
         CompactMode mode = CompactMode.forNumber(value);
-
-        byte[] data = value.toByteArray();
-        int pos = data.length-1;
-        int limit = 0;
-
-        if (mode != CompactMode.BIGINT) {
-            LONG_WRITER.write(wrt, value.longValue());
+        if (value.bitLength() < Long.SIZE) {
+            wrt.writeCompact(value.longValue());
             return;
         }
-
-        wrt.directWrite(((data.length - 4) << 2) + mode.getValue());
-        while (pos >= 0) {
+        byte[] data = value.toByteArray();
+        // skip the sign byte, the encoding must take the fewest bytes
+        int start = data[0] == 0 ? 1 : 0;
+        int pos = data.length - 1;
+        wrt.directWrite(((data.length - start - 4) << 2) + mode.getValue());
+        while (pos >= start) {
             wrt.directWrite(data[pos]);
             pos--;
         }
@@ -0,0 +1,30 @@
+
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ */
+
+package com.cobo.coinlib.interfaces;
+
+import androidx.annotation.NonNull;
+
+public interface BatchSigner {
+
+    /**
+     * sign hexes[i] with signers[i], requests may be sent to the signing device together
+     *
+     * @return signed results in the same order, null if any of them failed
+     */
+    String[] signBatch(@NonNull Signer[] signers, @NonNull String[] hexes);
+}
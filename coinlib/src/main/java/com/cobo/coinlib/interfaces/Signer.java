@@ -35,6 +35,14 @@ public abstract class Signer {
 
     public abstract String sign(String hex);
 
+    /**
+     * @return a BatchSigner which can sign for this signer together with others, or null
+     */
+    @Nullable
+    public BatchSigner batchSigner() {
+        return null;
+    }
+
     public static boolean shouldProvidePublicKey(@NonNull String coinCode) {
         switch (coinCode) {
             case "BTC":
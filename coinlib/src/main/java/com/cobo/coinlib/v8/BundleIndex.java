@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.coinlib.v8;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * coinCode to bundle file name, parsed once from bundleMap.json
+ */
+final class BundleIndex {
+
+    private final Map<String, String> bundles;
+
+    private BundleIndex(Map<String, String> bundles) {
+        this.bundles = Collections.unmodifiableMap(bundles);
+    }
+
+    static BundleIndex parse(String bundleMapJson) {
+        Map<String, String> bundles = new HashMap<>();
+        try {
+            JSONObject bundleMap = new JSONObject(bundleMapJson);
+            Iterator<String> keys = bundleMap.keys();
+            while (keys.hasNext()) {
+                String coinCode = keys.next();
+                bundles.put(coinCode, bundleMap.getString(coinCode));
+            }
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+        return new BundleIndex(bundles);
+    }
+
+    String bundleOf(String coinCode) {
+        return bundles.get(coinCode);
+    }
+
+    int size() {
+        return bundles.size();
+    }
+}
@@ -41,39 +41,22 @@ import java.util.stream.Stream;
 
 public class CoinImpl implements Coin {
 
+    private static final String TAG = "Vault.CoinImpl";
     private static final String FUNCTION_SIGN = "sign";
 
     private final String coinCode;
-    private final V8 v8;
-    private final V8Object coin;
-    private V8Function signTxFunction;
-    private V8Function signMessageFunction;
-    private V8Function generateAddressFunction;
+    private final V8RuntimePool pool;
 
     public CoinImpl(String coinCode) {
         super();
         this.coinCode = coinCode;
-
-        if (coinCode.equals(Coins.XTN.coinCode())) {
-            this.v8 = ScriptLoader.sInstance.loadByCoinCode(Coins.BTC.coinCode());
-            this.coin = v8.executeObjectScript("new " + Coins.BTC.coinCode() + "(\"testNet\")");
-        } else if(coinCode.equals("DOT")){
-            this.v8 = ScriptLoader.sInstance.loadByCoinCode(coinCode);
-            this.coin = v8.executeObjectScript("new DOT()");
-        } else if(coinCode.equals("KSM")){
-            this.v8 = ScriptLoader.sInstance.loadByCoinCode("DOT");
-            this.coin = v8.executeObjectScript("new DOT(\"Kusama\")");
-        } else {
-            this.v8 = ScriptLoader.sInstance.loadByCoinCode(coinCode);
-            this.coin = v8.executeObjectScript("new " + coinCode + "()");
-        }
-
-        v8.registerResource(coin);
+        this.pool = V8RuntimePool.getInstance();
     }
 
     public SignTxResult signTxImpl(String signFunc, Signer... signers) {
-        return this.signTxImpl(null,signFunc,signers);
+        return this.signTxImpl(null, signFunc, signers);
     }
+
     /**
      * sign a tx
      *
@@ -81,53 +64,69 @@ public class CoinImpl implements Coin {
      * @param signers signers,utxo coins transaction may need multi for 1 transaction
      * @return SignTxResult
      */
-    public SignTxResult signTxImpl(V8Object txData, String signFunc, Signer... signers) {
-        if (this.signTxFunction == null) {
-            this.signTxFunction = (V8Function) coin.get(signFunc);
-        }
-
-        v8.registerResource(txData);
-        V8Array params = new V8Array(v8);
-        v8.registerResource(params);
-        params.push(txData);
-
-        if (signers.length > 1) {
-            V8Array signProviders = new V8Array(v8);
-            v8.registerResource(signProviders);
-            Stream.of(signers).forEach(signer -> signProviders.push(createSignerProvider(signer)));
-            params.push(signProviders);
-        } else if (signers.length == 1) {
-            if (Coins.supportMultiSigner(coinCode)) {
-                V8Array signProviders = new V8Array(v8);
-                signProviders.push(createSignerProvider(signers[0]));
-                params.push(signProviders);
-            } else {
-                V8Object signProvider = createSignerProvider(signers[0]);
-                params.push(signProvider);
+    public SignTxResult signTxImpl(JSONObject txData, String signFunc, Signer... signers) {
+        PresignSession session = Coins.supportMultiSigner(coinCode) ? PresignSession.of(signers) : null;
+        if (session != null) {
+            long start = System.currentTimeMillis();
+            if (callSignTx(txData, signFunc, session.collectors()) != null) {
+                long collected = System.currentTimeMillis();
+                if (!session.signCollected()) {
+                    return null;
+                }
+                long signed = System.currentTimeMillis();
+                SignTxResult result = callSignTx(txData, signFunc, session.presigned());
+                long built = System.currentTimeMillis();
+                SignStats stats = SignStats.of(coinCode);
+                stats.record(session.size(), collected - start, signed - collected, built - signed);
+                Log.i(TAG, String.format("two phase sign %d inputs, collect %dms, sign %dms, build %dms",
+                        session.size(), collected - start, signed - collected, built - signed));
+                if (session.matchesCollected()) {
+                    return result;
+                }
+                // the SE already signed every collected hash, signing again would double its work
+                stats.countMismatch();
+                Log.w(TAG, "sighashes changed between phases, tx dropped");
+                return null;
             }
+        }
+        return callSignTx(txData, signFunc, signers);
+    }
 
-        } else {
+    private SignTxResult callSignTx(JSONObject txData, String signFunc, Signer... signers) {
+        if (signers.length == 0) {
             return null;
         }
-        if (Coins.BTC.coinCode().equals(coinCode)) {
-            params.push(false);
-        } else {
-            V8Object option = new V8Object(v8);
-            v8.registerResource(option);
-            params.push(option);
-        }
-        SignTxResult result;
-        try {
-            V8Object res = (V8Object) signTxFunction.call(coin, params);
-            result = new SignTxResult(res.getString("txId"), res.getString("txHex"));
-            v8.registerResource(res);
-        } catch (V8ScriptExecutionException e) {
-            e.printStackTrace();
-            return null;
-        } finally {
-            v8.release(false);
+        try (V8Scope scope = V8Scope.open(pool, coinCode, "signTx")) {
+            try {
+                V8Function signTxFunction = scope.function(signFunc);
+                V8Array params = scope.newArray();
+                if (txData != null) {
+                    params.push(constructTxData(scope, txData));
+                } else {
+                    params.pushNull();
+                }
+
+                if (signers.length > 1 || Coins.supportMultiSigner(coinCode)) {
+                    V8Array signProviders = scope.newArray();
+                    Stream.of(signers).forEach(signer ->
+                            signProviders.push(createSignerProvider(scope, signer)));
+                    params.push(signProviders);
+                } else {
+                    params.push(createSignerProvider(scope, signers[0]));
+                }
+                if (Coins.BTC.coinCode().equals(coinCode)) {
+                    params.push(false);
+                } else {
+                    params.push(scope.newObject());
+                }
+                V8Object res = scope.track((V8Object) signTxFunction.call(scope.coin(), params));
+                return new SignTxResult(res.getString("txId"), res.getString("txHex"));
+            } catch (V8ScriptExecutionException e) {
+                e.printStackTrace();
+                scope.invalidate();
+                return null;
+            }
         }
-        return result;
     }
 
     /**
@@ -138,23 +137,24 @@ public class CoinImpl implements Coin {
      * @return signed message in format R + S + recId (if has)
      */
     private String signMessageImpl(String msg, Signer signer) {
-        if (this.signMessageFunction == null) {
-            this.signMessageFunction = (V8Function) coin.get("signMessageSync");
+        try (V8Scope scope = V8Scope.open(pool, coinCode, "signMessage")) {
+            try {
+                V8Function signMessageFunction = scope.function("signMessageSync");
+                V8Array params = scope.newArray();
+                params.push(msg).push(createSignerProvider(scope, signer));
+                return (String) signMessageFunction.call(scope.coin(), params);
+            } catch (V8ScriptExecutionException e) {
+                e.printStackTrace();
+                scope.invalidate();
+                return null;
+            }
         }
-
-        V8Object signProvider = createSignerProvider(signer);
-
-        V8Array params = new V8Array(v8);
-        params.push(msg).push(signProvider);
-
-        return (String) signMessageFunction.call(coin, params);
     }
 
-    private V8Object createSignerProvider(Signer signer) {
-        V8Object signProvider = new V8Object(v8);
-        v8.registerResource(signProvider);
-        V8Function sign = new V8Function(v8, new SignProviderCallback(signer));
-        v8.registerResource(sign);
+    private V8Object createSignerProvider(V8Scope scope, Signer signer) {
+        V8Object signProvider = scope.newObject();
+        V8Function sign = scope.track(new V8Function(scope.runtime(),
+                new SignProviderCallback(scope.runtime(), signer)));
         signProvider.add(FUNCTION_SIGN, sign);
         if (signer.getPublicKey() != null) {
             signProvider.add("publicKey", signer.getPublicKey());
@@ -169,14 +169,19 @@ public class CoinImpl implements Coin {
      * @return address
      */
     private String generateAddressImpl(String publicKey) {
-        if (this.generateAddressFunction == null) {
-            this.generateAddressFunction = (V8Function) coin.get("generateAddress");
+        try (V8Scope scope = V8Scope.open(pool, coinCode, "generateAddress")) {
+            try {
+                V8Function generateAddressFunction = scope.function("generateAddress");
+                V8Array params = scope.newArray();
+                params.push(publicKey);
+                addOption(params);
+                return (String) generateAddressFunction.call(scope.coin(), params);
+            } catch (V8ScriptExecutionException e) {
+                e.printStackTrace();
+                scope.invalidate();
+                return null;
+            }
         }
-
-        V8Array params = new V8Array(v8);
-        params.push(publicKey);
-        addOption(params);
-        return (String) generateAddressFunction.call(coin, params);
     }
 
     private void addOption(V8Array params) {
@@ -189,11 +194,13 @@ public class CoinImpl implements Coin {
         }
     }
 
-    class SignProviderCallback implements JavaCallback {
+    static class SignProviderCallback implements JavaCallback {
 
+        private final V8 v8;
         private final Signer signer;
 
-        private SignProviderCallback(Signer signer) {
+        private SignProviderCallback(V8 v8, Signer signer) {
+            this.v8 = v8;
             this.signer = signer;
         }
 
@@ -203,6 +210,7 @@ public class CoinImpl implements Coin {
 
             String signedStr = signer.sign(data);
 
+            // the returned object is released by J2V8 once it is handed to js
             V8Object res = new V8Object(v8);
             if (TextUtils.isEmpty(signedStr)) {
                 return res;
@@ -226,12 +234,10 @@ public class CoinImpl implements Coin {
      * @param object metaData
      * @return V8Object
      */
-    protected V8Object constructTxData(JSONObject object) {
-        V8Array parameters = new V8Array(v8).push(object.toString());
-        V8Object json = v8.getObject("JSON");
-        v8.registerResource(parameters);
-        v8.registerResource(json);
-        return json.executeObjectFunction("parse", parameters);
+    private V8Object constructTxData(V8Scope scope, JSONObject object) {
+        V8Array parameters = scope.newArray().push(object.toString());
+        V8Object json = scope.track(scope.runtime().getObject("JSON"));
+        return scope.track(json.executeObjectFunction("parse", parameters));
     }
 
     @Override
@@ -242,8 +248,7 @@ public class CoinImpl implements Coin {
     @Override
     public void generateTransaction(@NonNull AbsTx tx, SignCallback callback, Signer... signers) {
         Log.w("Vault.generateTransaction","txData = " + tx.getMetaData());
-        V8Object txData = constructTxData(tx.getMetaData());
-        SignTxResult res = signTxImpl(txData, "generateTransactionSync", signers);
+        SignTxResult res = signTxImpl(tx.getMetaData(), "generateTransactionSync", signers);
         if (res != null && res.isValid()) {
             callback.onSuccess(res.txId, res.txHex);
         } else {
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.coinlib.v8;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.cobo.coinlib.interfaces.BatchSigner;
+import com.cobo.coinlib.interfaces.Signer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Two phase signing for utxo transactions.
+ * <p>
+ * In the collect phase the js side is driven with signers that only record the
+ * sighash of every input and answer with a placeholder signature. The recorded
+ * hashes are then signed in one batch, and the sign phase drives the js side
+ * again with signers answering from the batch result.
+ * <p>
+ * This relies on the bundle not reading the placeholder signatures back. The sign
+ * phase is the real flow with real signatures, so {@link #matchesCollected()} only
+ * accepts its result when it asked for exactly the collected hashes in the same order.
+ */
+class PresignSession {
+
+    // r = 1, s = 1, a well formed signature that is never broadcast
+    private static final String PLACEHOLDER =
+            "0000000000000000000000000000000000000000000000000000000000000001"
+                    + "0000000000000000000000000000000000000000000000000000000000000001";
+
+    private final Signer[] signers;
+    private final BatchSigner batchSigner;
+    private final List<Signer> requestSigners = new ArrayList<>();
+    private final List<String> requestHexes = new ArrayList<>();
+    private final List<Map<String, String>> signed = new ArrayList<>();
+    private final List<Signer> replaySigners = new ArrayList<>();
+    private final List<String> replayHexes = new ArrayList<>();
+
+    private PresignSession(Signer[] signers, BatchSigner batchSigner) {
+        this.signers = signers;
+        this.batchSigner = batchSigner;
+    }
+
+    /**
+     * @return a session if every signer can be batched by the same BatchSigner, otherwise null
+     */
+    @Nullable
+    static PresignSession of(@NonNull Signer[] signers) {
+        if (signers.length == 0) {
+            return null;
+        }
+        BatchSigner batchSigner = signers[0].batchSigner();
+        if (batchSigner == null) {
+            return null;
+        }
+        for (Signer signer : signers) {
+            if (signer.batchSigner() != batchSigner) {
+                return null;
+            }
+        }
+        return new PresignSession(signers, batchSigner);
+    }
+
+    Signer[] collectors() {
+        Signer[] collectors = new Signer[signers.length];
+        for (int i = 0; i < signers.length; i++) {
+            final Signer signer = signers[i];
+            collectors[i] = new Signer(signer.getPublicKey()) {
+                @Override
+                public String sign(String hex) {
+                    requestSigners.add(signer);
+                    requestHexes.add(hex);
+                    return PLACEHOLDER;
+                }
+            };
+        }
+        return collectors;
+    }
+
+    int size() {
+        return requestHexes.size();
+    }
+
+    /**
+     * sign all collected hashes in one batch
+     *
+     * @return false if the batch failed
+     */
+    boolean signCollected() {
+        String[] results = batchSigner.signBatch(requestSigners.toArray(new Signer[0]),
+                requestHexes.toArray(new String[0]));
+        if (results == null || results.length != requestHexes.size()) {
+            return false;
+        }
+        for (Signer ignored : signers) {
+            signed.add(new HashMap<>());
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                return false;
+            }
+            signed.get(indexOf(requestSigners.get(i))).put(requestHexes.get(i), results[i]);
+        }
+        return true;
+    }
+
+    Signer[] presigned() {
+        Signer[] presigned = new Signer[signers.length];
+        for (int i = 0; i < signers.length; i++) {
+            final Signer signer = signers[i];
+            final Map<String, String> results = signed.get(i);
+            presigned[i] = new Signer(signer.getPublicKey()) {
+                @Override
+                public String sign(String hex) {
+                    replaySigners.add(signer);
+                    replayHexes.add(hex);
+                    String result = results.get(hex);
+                    // a hash the collect phase did not see is never sent to the SE,
+                    // the result is rejected by matchesCollected
+                    return result != null ? result : PLACEHOLDER;
+                }
+            };
+        }
+        return presigned;
+    }
+
+    /**
+     * @return true if the sign phase asked for exactly the hashes signed in the batch,
+     * otherwise its result must be dropped and the tx fails
+     */
+    boolean matchesCollected() {
+        return replaySigners.equals(requestSigners) && replayHexes.equals(requestHexes);
+    }
+
+    private int indexOf(Signer signer) {
+        for (int i = 0; i < signers.length; i++) {
+            if (signers[i] == signer) return i;
+        }
+        throw new IllegalStateException("unknown signer");
+    }
+}
@@ -25,19 +25,24 @@ import android.util.Log;
 
 import com.eclipsesource.v8.V8;
 
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ScriptLoader {
 
+    private static final String TAG = "Vault.ScriptLoader";
+    private static final String GLOBAL_ALIAS = "window";
+
     @SuppressLint("StaticFieldLeak")
     public static ScriptLoader sInstance;
     private final Context context;
+    private final Map<String, LoadStats> stats = new ConcurrentHashMap<>();
+    private volatile BundleIndex bundleIndex;
 
     private ScriptLoader(Context context) {
         this.context = context;
@@ -54,48 +59,116 @@ public class ScriptLoader {
     }
 
     public V8 loadByCoinCode(String coinCode) {
-        V8 v8 = V8.createV8Runtime("window");
-        String js = getJs(context, coinCode);
+        String bundleName = getBundleIndex().bundleOf(coinCode);
+        if (bundleName == null) {
+            return V8.createV8Runtime(GLOBAL_ALIAS);
+        }
+        LoadStats loadStats = new LoadStats(coinCode);
+        stats.put(coinCode, loadStats);
+        V8 v8 = V8.createV8Runtime(GLOBAL_ALIAS);
+        String js = readAsset(context.getAssets(), "script/" + bundleName, loadStats);
         if (!TextUtils.isEmpty(js) && !v8.isReleased()) {
+            long start = System.nanoTime();
             v8.executeVoidScript(js);
+            loadStats.executeMs = (System.nanoTime() - start) / 1000000;
         }
+        Log.i(TAG, loadStats.toString());
         return v8;
     }
 
     public V8 loadByFileName(String fileName) {
-        V8 v8 = V8.createV8Runtime("window");
-        String js = readAsset(context.getAssets(),fileName);
+        V8 v8 = V8.createV8Runtime(GLOBAL_ALIAS);
+        String js = readAsset(context.getAssets(), fileName);
         if (!TextUtils.isEmpty(js) && !v8.isReleased()) {
             v8.executeVoidScript(js);
         }
         return v8;
     }
 
-    private String getJs(Context context, String coinCode) {
-        AssetManager am = context.getAssets();
-        try {
-            JSONObject bundleMap = new JSONObject(readAsset(am, "bundleMap.json"));
-            return readAsset(am, "script/" + bundleMap.getString(coinCode));
-        } catch (JSONException e) {
-            e.printStackTrace();
+    /**
+     * @return the stats of the last load of every coin
+     */
+    public Map<String, LoadStats> getLoadStats() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    public LoadStats getLoadStats(String coinCode) {
+        return stats.get(coinCode);
+    }
+
+    private BundleIndex getBundleIndex() {
+        if (bundleIndex == null) {
+            synchronized (this) {
+                if (bundleIndex == null) {
+                    bundleIndex = BundleIndex.parse(readAsset(context.getAssets(), "bundleMap.json"));
+                }
+            }
         }
-        return null;
+        return bundleIndex;
     }
 
     public static String readAsset(AssetManager am, String fileName) {
-        StringBuilder stringBuilder = new StringBuilder();
-        try {
-            InputStream inputStream = am.open(fileName);
-            BufferedReader bf = new BufferedReader(new InputStreamReader(inputStream));
-            String line;
-            while ((line = bf.readLine()) != null) {
-                stringBuilder.append(line).append("\r\n");
+        return readAsset(am, fileName, null);
+    }
+
+    private static String readAsset(AssetManager am, String fileName, LoadStats loadStats) {
+        long start = System.nanoTime();
+        byte[] bytes;
+        int length;
+        try (InputStream inputStream = am.open(fileName, AssetManager.ACCESS_BUFFER)) {
+            bytes = new byte[Math.max(inputStream.available(), 1024)];
+            length = readFully(inputStream, bytes);
+            while (length == bytes.length) {
+                int next = inputStream.read();
+                if (next == -1) break;
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                bytes[length++] = (byte) next;
+                length += readFully(inputStream, bytes, length);
             }
-            bf.close();
-            inputStream.close();
         } catch (IOException e) {
             e.printStackTrace();
+            return "";
+        }
+        String content = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        if (loadStats != null) {
+            loadStats.bytes = length;
+            loadStats.decodeMs = (System.nanoTime() - start) / 1000000;
+        }
+        return content;
+    }
+
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+        return readFully(in, buffer, 0);
+    }
+
+    private static int readFully(InputStream in, byte[] buffer, int offset) throws IOException {
+        int total = 0;
+        int read;
+        while (offset + total < buffer.length
+                && (read = in.read(buffer, offset + total, buffer.length - offset - total)) != -1) {
+            total += read;
+        }
+        return total;
+    }
+
+    public static final class LoadStats {
+        public final String coinCode;
+        public long bytes;
+        public long decodeMs;
+        public long executeMs;
+
+        LoadStats(String coinCode) {
+            this.coinCode = coinCode;
+        }
+
+        @Override
+        public String toString() {
+            return "LoadStats{" +
+                    "coinCode='" + coinCode + '\'' +
+                    ", bytes=" + bytes +
+                    ", decodeMs=" + decodeMs +
+                    ", executeMs=" + executeMs +
+                    '}';
         }
-        return stringBuilder.toString();
     }
 }
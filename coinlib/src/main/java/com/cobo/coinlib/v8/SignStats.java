@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.coinlib.v8;
+
+import androidx.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Timings of the two phase sign flow per coin, accumulated since the app started.
+ * Collect and build are js time, sign is the SE batch.
+ */
+public final class SignStats {
+
+    private static final Map<String, SignStats> STATS = new ConcurrentHashMap<>();
+
+    public final String coinCode;
+    private long runs;
+    private long inputs;
+    private long collectMs;
+    private long signMs;
+    private long buildMs;
+    private long mismatches;
+
+    private SignStats(String coinCode) {
+        this.coinCode = coinCode;
+    }
+
+    static SignStats of(@NonNull String coinCode) {
+        return STATS.computeIfAbsent(coinCode, SignStats::new);
+    }
+
+    /**
+     * @return coinCode to the stats of every coin signed in two phases
+     */
+    public static Map<String, SignStats> getAll() {
+        return Collections.unmodifiableMap(STATS);
+    }
+
+    synchronized void record(int inputs, long collectMs, long signMs, long buildMs) {
+        this.runs++;
+        this.inputs += inputs;
+        this.collectMs += collectMs;
+        this.signMs += signMs;
+        this.buildMs += buildMs;
+    }
+
+    synchronized void countMismatch() {
+        mismatches++;
+    }
+
+    public synchronized long getRuns() {
+        return runs;
+    }
+
+    public synchronized long getMismatches() {
+        return mismatches;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SignStats{" +
+                "coinCode='" + coinCode + '\'' +
+                ", runs=" + runs +
+                ", inputs=" + inputs +
+                ", collectMs=" + collectMs +
+                ", signMs=" + signMs +
+                ", buildMs=" + buildMs +
+                ", mismatches=" + mismatches +
+                '}';
+    }
+}
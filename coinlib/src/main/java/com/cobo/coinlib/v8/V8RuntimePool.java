@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.coinlib.v8;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.cobo.coinlib.utils.Coins;
+import com.eclipsesource.v8.V8;
+import com.eclipsesource.v8.V8Object;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps one warmed V8 runtime per coin bundle, with the bundle already executed
+ * and the coin objects constructed, so only the first sign of a bundle pays for
+ * script evaluation. Coins sharing a bundle (BTC/XTN, DOT/KSM) share the runtime
+ * and only construct their own coin object in it.
+ * <p>
+ * Runtimes are handed out through {@link #lease(String)} and must be returned
+ * with {@link #giveBack(Lease)}. Idle runtimes are bounded and evicted in LRU order.
+ */
+public class V8RuntimePool {
+
+    private static final String TAG = "Vault.V8RuntimePool";
+    private static final int DEFAULT_MAX_IDLE = 4;
+
+    private static volatile V8RuntimePool sInstance;
+
+    private final int maxIdle;
+    private final LinkedHashMap<String, Lease> idle = new LinkedHashMap<>(16, 0.75f, true);
+    private final ExecutorService warmUpExecutor = Executors.newSingleThreadExecutor();
+
+    V8RuntimePool(int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    public static V8RuntimePool getInstance() {
+        if (sInstance == null) {
+            synchronized (V8RuntimePool.class) {
+                if (sInstance == null) {
+                    sInstance = new V8RuntimePool(DEFAULT_MAX_IDLE);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * take a runtime for coinCode, the runtime is locked to the calling thread
+     * until it is returned
+     */
+    public Lease lease(@NonNull String coinCode) {
+        Lease lease;
+        synchronized (this) {
+            lease = idle.remove(bundleOf(coinCode));
+        }
+        if (lease == null) {
+            lease = create(coinCode);
+        } else {
+            lease.v8.getLocker().acquire();
+            lease.select(coinCode);
+        }
+        return lease;
+    }
+
+    public void giveBack(@NonNull Lease lease) {
+        if (lease.v8.isReleased()) {
+            return;
+        }
+        if (!lease.reusable) {
+            lease.dispose();
+            return;
+        }
+        lease.v8.getLocker().release();
+        List<Lease> evicted = new ArrayList<>();
+        synchronized (this) {
+            if (idle.containsKey(lease.bundle)) {
+                evicted.add(lease);
+            } else {
+                idle.put(lease.bundle, lease);
+            }
+            Iterator<Map.Entry<String, Lease>> it = idle.entrySet().iterator();
+            while (idle.size() > maxIdle && it.hasNext()) {
+                evicted.add(it.next().getValue());
+                it.remove();
+            }
+        }
+        for (Lease l : evicted) {
+            l.v8.getLocker().acquire();
+            l.dispose();
+        }
+    }
+
+    /**
+     * build runtimes for the given coins in background, at most maxIdle of them are kept
+     */
+    public void preWarm(@NonNull Collection<String> coinCodes) {
+        List<String> candidates = new ArrayList<>();
+        for (String coinCode : coinCodes) {
+            if (candidates.size() >= maxIdle) break;
+            // DOT/KSM sign and derive natively (DotImpl, Dot.Deriver), a warm runtime would only hold an idle slot
+            if (!Coins.isPolkadotFamily(coinCode) && !candidates.contains(bundleOf(coinCode))) {
+                candidates.add(bundleOf(coinCode));
+            }
+        }
+        warmUpExecutor.execute(() -> {
+            for (String coinCode : candidates) {
+                synchronized (this) {
+                    if (idle.containsKey(coinCode)) continue;
+                }
+                try {
+                    giveBack(create(coinCode));
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "pre-warm " + coinCode + " failed", e);
+                }
+            }
+        });
+    }
+
+    public void clear() {
+        List<Lease> all;
+        synchronized (this) {
+            all = new ArrayList<>(idle.values());
+            idle.clear();
+        }
+        for (Lease l : all) {
+            l.v8.getLocker().acquire();
+            l.dispose();
+        }
+    }
+
+    private Lease create(String coinCode) {
+        String bundle = bundleOf(coinCode);
+        Lease lease = new Lease(bundle, ScriptLoader.sInstance.loadByCoinCode(bundle));
+        lease.select(coinCode);
+        return lease;
+    }
+
+    /**
+     * coins sharing a js bundle are served by the runtime of the bundle's own coin
+     */
+    static String bundleOf(String coinCode) {
+        if (coinCode.equals(Coins.XTN.coinCode())) {
+            return Coins.BTC.coinCode();
+        } else if (coinCode.equals(Coins.KSM.coinCode())) {
+            return Coins.DOT.coinCode();
+        }
+        return coinCode;
+    }
+
+    static String constructorOf(String coinCode) {
+        if (coinCode.equals(Coins.XTN.coinCode())) {
+            return "new " + Coins.BTC.coinCode() + "(\"testNet\")";
+        } else if (coinCode.equals(Coins.KSM.coinCode())) {
+            return "new DOT(\"Kusama\")";
+        }
+        return "new " + coinCode + "()";
+    }
+
+    public static final class Lease {
+        private final String bundle;
+        private final V8 v8;
+        private final Map<String, V8Object> coins = new HashMap<>();
+        private V8Object coin;
+        private boolean reusable = true;
+
+        private Lease(String bundle, V8 v8) {
+            this.bundle = bundle;
+            this.v8 = v8;
+        }
+
+        private void select(String coinCode) {
+            coin = coins.get(coinCode);
+            if (coin == null) {
+                coin = v8.executeObjectScript(constructorOf(coinCode));
+                coins.put(coinCode, coin);
+            }
+        }
+
+        V8 runtime() {
+            return v8;
+        }
+
+        V8Object coin() {
+            return coin;
+        }
+
+        /**
+         * the runtime state can not be trusted any more, drop it instead of pooling
+         */
+        void invalidate() {
+            reusable = false;
+        }
+
+        private void dispose() {
+            for (V8Object c : coins.values()) {
+                c.release();
+            }
+            coins.clear();
+            v8.release(false);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.coinlib.v8;
+
+import android.util.Log;
+
+import com.eclipsesource.v8.Releasable;
+import com.eclipsesource.v8.V8;
+import com.eclipsesource.v8.V8Array;
+import com.eclipsesource.v8.V8Function;
+import com.eclipsesource.v8.V8Object;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One operation on a pooled runtime. Every handle created in the scope must be
+ * tracked, they are released in reverse order on close and the runtime goes back
+ * to the pool, so a runtime can serve any number of operations.
+ *
+ * <pre>
+ * try (V8Scope scope = V8Scope.open(pool, coinCode, "signMessage")) {
+ *     V8Array params = scope.newArray();
+ *     ...
+ * }
+ * </pre>
+ */
+public final class V8Scope implements AutoCloseable {
+
+    private static final String TAG = "Vault.V8Scope";
+
+    private static volatile boolean leakDetection;
+    private static final Map<String, AtomicLong> LEAKS = new ConcurrentHashMap<>();
+
+    private final V8RuntimePool pool;
+    private final V8RuntimePool.Lease lease;
+    private final String operation;
+    private final List<Releasable> handles = new ArrayList<>();
+    private final long referencesAtOpen;
+
+    private V8Scope(V8RuntimePool pool, V8RuntimePool.Lease lease, String operation) {
+        this.pool = pool;
+        this.lease = lease;
+        this.operation = operation;
+        this.referencesAtOpen = leakDetection ? lease.runtime().getObjectReferenceCount() : 0;
+    }
+
+    static V8Scope open(V8RuntimePool pool, String coinCode, String operation) {
+        return new V8Scope(pool, pool.lease(coinCode), operation);
+    }
+
+    /**
+     * count the handles left alive by each operation, meant for debug builds
+     */
+    public static void setLeakDetection(boolean enabled) {
+        leakDetection = enabled;
+    }
+
+    /**
+     * @return operation name to the total handles it leaked since leak detection was enabled
+     */
+    public static Map<String, Long> getLeakReport() {
+        Map<String, Long> report = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> entry : LEAKS.entrySet()) {
+            report.put(entry.getKey(), entry.getValue().get());
+        }
+        return report;
+    }
+
+    V8 runtime() {
+        return lease.runtime();
+    }
+
+    V8Object coin() {
+        return lease.coin();
+    }
+
+    <T extends Releasable> T track(T handle) {
+        if (handle != null) {
+            handles.add(handle);
+        }
+        return handle;
+    }
+
+    V8Array newArray() {
+        return track(new V8Array(lease.runtime()));
+    }
+
+    V8Object newObject() {
+        return track(new V8Object(lease.runtime()));
+    }
+
+    V8Function function(String name) {
+        return track((V8Function) lease.coin().get(name));
+    }
+
+    /**
+     * the runtime state can not be trusted after this operation, do not pool it
+     */
+    void invalidate() {
+        lease.invalidate();
+    }
+
+    @Override
+    public void close() {
+        for (int i = handles.size() - 1; i >= 0; i--) {
+            handles.get(i).release();
+        }
+        handles.clear();
+        if (leakDetection) {
+            long leaked = lease.runtime().getObjectReferenceCount() - referencesAtOpen;
+            if (leaked > 0) {
+                LEAKS.computeIfAbsent(operation, k -> new AtomicLong()).addAndGet(leaked);
+                Log.w(TAG, operation + " leaked " + leaked + " handles");
+            }
+        }
+        pool.giveBack(lease);
+    }
+}
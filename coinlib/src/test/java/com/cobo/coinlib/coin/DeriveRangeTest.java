@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.coinlib.coin;
+
+import com.cobo.coinlib.coins.AbsDeriver;
+import com.cobo.coinlib.coins.BTC.Btc;
+import com.cobo.coinlib.coins.LTC.Ltc;
+import com.cobo.coinlib.coins.XRP.Xrp;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+@SuppressWarnings("ALL")
+public class DeriveRangeTest {
+
+    private static final String BTC_XPUB = "xpub6D3i46Y43SFfjEBYheBK3btYMRm9Cfb8Tt4M5Bv16tArNBw5ATNyJWjdcMyLxoCdHWTvm3ak7j2BWacq5Lw478aYUeARoYm4dvaQgJBAGsb";
+    private static final String LTC_XPUB = "xpub6CKt97v4gEsG4FG9E4hEotEUtjmW8rAvVcUJ4jsmdrB437WBZnK8gs8ktzaFQHe9i7NqzcAUkc5SeNXsVoYfVNxd1AwDgbw2up8UdMWq91B";
+    private static final String XRP_XPUB = "xpub6C438jHkPCDoEy5jAH4a9hBtYrcprSwGvEA8L5HNhqDyJa1WZPpZXj9DNNtsRjcHxzsuZJq18sMSkbmqYKqpDacP8aMSK63ExzX2bPoMdAo";
+
+    @Test
+    public void rangeMatchesSingleDerive() {
+        AbsDeriver deriver = new Btc.Deriver();
+        List<String> range = deriver.deriveRange(BTC_XPUB, 0, 5, 6);
+        assertEquals(6, range.size());
+        assertEquals("3EWeeC2wPyTAsPG7rTRbczbFjvZ8nW41AZ", range.get(0));
+        assertEquals("3CAgK3r8nDiMcdnqBUL3Yy7JMFDjvkXqHn", range.get(5));
+        for (int i = 0; i < range.size(); i++) {
+            assertEquals(deriver.derive(BTC_XPUB, 0, i + 5), range.get(i));
+        }
+    }
+
+    @Test
+    public void changeAddressesDoNotShareCache() {
+        AbsDeriver deriver = new Btc.Deriver();
+        String receive = deriver.derive(BTC_XPUB, 0, 0);
+        String change = deriver.derive(BTC_XPUB, 1, 0);
+        assertEquals("3Kd5rjiLtvpHv5nhYQNTTeRLgrz4om32PJ", receive);
+        assertEquals(change, deriver.deriveRange(BTC_XPUB, 1, 0, 1).get(0));
+        assertNotEquals(receive, change);
+    }
+
+    @Test
+    public void derive1000Addresses() {
+        bench("BTC", new Btc.Deriver(), BTC_XPUB);
+        bench("LTC", new Ltc.Deriver(), LTC_XPUB);
+        bench("XRP", new Xrp.Deriver(), XRP_XPUB);
+    }
+
+    private void bench(String coinCode, AbsDeriver deriver, String xpub) {
+        // warm up
+        deriver.deriveRange(xpub, 0, 0, 100);
+        long start = System.nanoTime();
+        List<String> addresses = deriver.deriveRange(xpub, 0, 0, 1000);
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        assertEquals(1000, addresses.size());
+        System.out.println(coinCode + " derive 1000 addresses: " + elapsed + "ms");
+    }
+}
@@ -0,0 +1,168 @@
+
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ */
+
+package com.cobo.coinlib.coin;
+
+import com.cobo.coinlib.Util;
+import com.cobo.coinlib.coins.AbsCoin;
+import com.cobo.coinlib.coins.AbsDeriver;
+import com.cobo.coinlib.coins.polkadot.DOT.Dot;
+import com.cobo.coinlib.coins.polkadot.DOT.DotImpl;
+import com.cobo.coinlib.coins.polkadot.KSM.Ksm;
+import com.cobo.coinlib.utils.Coins;
+
+import org.bitcoinj.core.ECKey;
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+@SuppressWarnings("ALL")
+public class EncodeAddressTest {
+
+    private static final String BTC_XPUB = "xpub6D3i46Y43SFfjEBYheBK3btYMRm9Cfb8Tt4M5Bv16tArNBw5ATNyJWjdcMyLxoCdHWTvm3ak7j2BWacq5Lw478aYUeARoYm4dvaQgJBAGsb";
+    private static final String ETH_XPUB = "xpub6CNhtuXAHDs84AhZj5ALZB6ii4sP5LnDXaKDSjiy6kcBbiysq89cDrLG29poKvZtX9z4FchZKTjTyiPuDeiFMUd1H4g5zViQxt4tpkronJr";
+    private static final String XRP_XPUB = "xpub6C438jHkPCDoEy5jAH4a9hBtYrcprSwGvEA8L5HNhqDyJa1WZPpZXj9DNNtsRjcHxzsuZJq18sMSkbmqYKqpDacP8aMSK63ExzX2bPoMdAo";
+    private static final String TRON_XPUB = "xpub6BmQYH48mM1hm8B2TDXg7oDfa7dZfHVgi7pWFMsmSuJ3rVwi2YEgjZMN1cBFQtieHPgmoY3YQx5G85XyxMvppPxJToxmWjo64gaNutTn6iw";
+    private static final String LTC_XPUB = "xpub6CKt97v4gEsG4FG9E4hEotEUtjmW8rAvVcUJ4jsmdrB437WBZnK8gs8ktzaFQHe9i7NqzcAUkc5SeNXsVoYfVNxd1AwDgbw2up8UdMWq91B";
+
+    // first address and sha256 of the newline joined addresses of CROSS_CHECK_KEYS keys,
+    // from generateAddress of the coin's js bundle in app/src/main/assets/script with the
+    // options CoinImpl passes. The eth and etc bundles take the key with a 0x prefix and
+    // the cfx bundle takes the 64 byte uncompressed key.
+    private static final int CROSS_CHECK_KEYS = 2000;
+    private static final Map<String, String[]> JS_ADDRESSES = new HashMap<>();
+
+    static {
+        JS_ADDRESSES.put("BTC", new String[]{"3N2UWv8PzPWNoX5w4bxmfHeCjTPhwjj4NP",
+                "9d96c25a004cf961a8081006f4a0c64066b3d3c7e61e9ec2f019b91099bc65e0"});
+        JS_ADDRESSES.put("ETC", new String[]{"0x6CF4e129d78792a8Ff9F7E6d82FA6483c1dD2766",
+                "68f70cfd654786727c06eec531c5def9046c17a4cc31e9a9f120d44416d9204e"});
+        JS_ADDRESSES.put("ETH", new String[]{"0x6CF4e129d78792a8Ff9F7E6d82FA6483c1dD2766",
+                "68f70cfd654786727c06eec531c5def9046c17a4cc31e9a9f120d44416d9204e"});
+        JS_ADDRESSES.put("BCH", new String[]{"1K2D8S5BimMqMNGMpUA4MvUjGehf84v6gr",
+                "94984f0110610b300525cad70b54811d8fe849c50071b33c0606240bbaf1d955"});
+        JS_ADDRESSES.put("DASH", new String[]{"Xti3xgj5gUaRWJrwgMUHDTAX6zHM8yY5q2",
+                "2d82b560041fbb5c7cbb1a068c994090e4876ad7f8f57b860b68a179a54acc43"});
+        JS_ADDRESSES.put("LTC", new String[]{"MUEcpoYMwWMoc2MqAUx7Uvtc49z9u2ej1m",
+                "ad5a1c06a66e2139fcc0d74b400e479f7dcee1e080ed37b71a8fe0fe59eb6fb0"});
+        JS_ADDRESSES.put("TRON", new String[]{"TKuKLJgkMwtsxanjz8NmQr4Ebi4auk5hAa",
+                "683626c5b351c928675365d0dd5064cf3aed6f10a3b032549334f1f0145cc213"});
+        JS_ADDRESSES.put("DCR", new String[]{"DsaAz4rr1pnwRz6BtaDnbgd5pp5VAGDAgUF",
+                "27b9dcdf6871b3167b027395d07d7bc9bb5c8db8cf014c7c0bb2296721111e63"});
+        JS_ADDRESSES.put("XZC", new String[]{"aJjfsLWowZMgQuhTpsUC8CoEt1q1TnFPye",
+                "46a57ef7aa098a1ab8fe3c3cd102c804cc218fdf981a282631ce37cf232bbd6b"});
+        JS_ADDRESSES.put("XRP", new String[]{"rKpD3SnB5mMqM4GMF7whMv7jGe6C3hvagi",
+                "eb3a2928571c620a3584b1ce543363d56f8259e5f1cf52f5b032b3879a5ab579"});
+        JS_ADDRESSES.put("IOST", new String[]{"CV3Qc16A4Mosx824VD6ggHKuyzGGymVHtff8bjH52Zad",
+                "bfa3fc0eee0da3776a9599f74a265d8f029f2412b900fbfe23c9e0635f084ace"});
+        JS_ADDRESSES.put("EOS", new String[]{"EOS8FUiTwPbgFNSGwxhNLpKfX5dKER69h1FWrRGid5jNFodqdqxDc",
+                "cc85f4599370227891ad2f3518f8074327f4e65399c5900df21be3c33698bb4e"});
+        JS_ADDRESSES.put("DOT", new String[]{"14riXxhJKT7pAtRPwArLkudaNMwcifFsq88SbER6HAM9e7Hk",
+                "93d26bb13f06b53c11c2d959903a48344a382008284b742e616bdf72e6d41062"});
+        JS_ADDRESSES.put("KSM", new String[]{"GS33wn762sGV1EKkEcPWiARfLECq2WvD1EhpbhhCsY8CWZn",
+                "858710c56d2db02026950940828dae7c9a7aeaf4bada5974319ae84b65ba72c2"});
+        JS_ADDRESSES.put("CFX", new String[]{"0x1cf4e129d78792a8ff9f7e6d82fa6483c1dd2766",
+                "3fcaab0b58e0da8022eb0f94abcb1f411fe1bfdd4a711c4f3ff5d943192f29d0"});
+    }
+
+    @Test
+    public void encodeKnownKeys() {
+        assertEquals("3Kd5rjiLtvpHv5nhYQNTTeRLgrz4om32PJ", encode("BTC", BTC_XPUB, 0));
+        assertEquals("0xE410157345be56688F43FF0D9e4B2B38Ea8F7828", encode("ETH", ETH_XPUB, 0));
+        assertEquals("rndm7RphBZG6CpZvKcG9AjoFbSvcKhwLCx", encode("XRP", XRP_XPUB, 0));
+        assertEquals("TYgXziK4zH4T5dchXFBseTFUpZ8kty6oQy", encode("TRON", TRON_XPUB, 0));
+        assertEquals("MKkaG1dzsRykP2S3SB1Mk8KLb2f9hS7xyb", encode("LTC", LTC_XPUB, 0));
+    }
+
+    @Test
+    public void generateAddressAcceptsHexPrefix() {
+        String pubKey = Util.getPublicKeyHex(ETH_XPUB, 0, 0);
+        assertEquals("0xE410157345be56688F43FF0D9e4B2B38Ea8F7828",
+                AbsCoin.newInstance("ETH").generateAddress("0x" + pubKey));
+    }
+
+    @Test
+    public void encodeMatchesDerive() {
+        Random random = new Random(20201018);
+        for (Coins.Coin coin : Coins.SUPPORTED_COINS) {
+            if (coin.curve() != Coins.CURVE.SECP256K1) continue;
+            AbsDeriver deriver = AbsDeriver.newInstance(coin.coinCode());
+            assertNotNull(coin.coinCode(), deriver);
+            for (int i = 0; i < 50; i++) {
+                // eos always derives the first key of the account
+                int index = "EOS".equals(coin.coinCode()) ? 0 : random.nextInt(Integer.MAX_VALUE);
+                String pubKey = Util.getPublicKeyHex(BTC_XPUB, 0, index);
+                assertEquals(coin.coinCode(), deriver.derive(BTC_XPUB, 0, index),
+                        deriver.encodeAddress(Hex.decode(pubKey)));
+            }
+        }
+    }
+
+    @Test
+    public void encodeMatchesJs() throws NoSuchAlgorithmException {
+        for (Coins.Coin coin : Coins.SUPPORTED_COINS) {
+            String[] expected = JS_ADDRESSES.get(coin.coinCode());
+            assertNotNull(coin.coinCode(), expected);
+            AbsCoin absCoin = newCoin(coin.coinCode());
+            StringBuilder addresses = new StringBuilder();
+            for (int i = 0; i < CROSS_CHECK_KEYS; i++) {
+                String address = absCoin.generateAddress(Hex.toHexString(crossCheckKey(coin, i)));
+                if (i == 0) {
+                    assertEquals(coin.coinCode(), expected[0], address);
+                } else {
+                    addresses.append('\n');
+                }
+                addresses.append(address);
+            }
+            assertEquals(coin.coinCode(), expected[1], Hex.toHexString(sha256(addresses.toString())));
+        }
+    }
+
+    private static AbsCoin newCoin(String coinCode) {
+        if (Coins.DOT.coinCode().equals(coinCode)) return new Dot(new DotImpl(coinCode));
+        if (Coins.KSM.coinCode().equals(coinCode)) return new Ksm(new DotImpl(coinCode));
+        return AbsCoin.newInstance(coinCode);
+    }
+
+    // the seed is sha256("address-crosscheck/" + index). secp256k1 coins use the compressed
+    // public key of the seed as private key, ed25519 and sr25519 coins use the seed as public key
+    private static byte[] crossCheckKey(Coins.Coin coin, int index) throws NoSuchAlgorithmException {
+        byte[] seed = sha256("address-crosscheck/" + index);
+        if (coin.curve() != Coins.CURVE.SECP256K1) {
+            return seed;
+        }
+        return ECKey.fromPrivate(seed).getPubKey();
+    }
+
+    private static byte[] sha256(String data) throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256").digest(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String encode(String coinCode, String xpub, int index) {
+        return AbsDeriver.newInstance(coinCode)
+                .encodeAddress(Hex.decode(Util.getPublicKeyHex(xpub, 0, index)));
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.coinlib.coin;
+
+import com.cobo.coinlib.coins.AbsDeriver;
+import com.cobo.coinlib.coins.BTC.Btc;
+import com.cobo.coinlib.coins.ParallelDeriver;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelDeriverTest {
+
+    private static final String BTC_XPUB = "xpub6D3i46Y43SFfjEBYheBK3btYMRm9Cfb8Tt4M5Bv16tArNBw5ATNyJWjdcMyLxoCdHWTvm3ak7j2BWacq5Lw478aYUeARoYm4dvaQgJBAGsb";
+
+    @Test
+    public void keepsIndexOrder() {
+        AbsDeriver deriver = new Btc.Deriver();
+        List<String> parallel = ParallelDeriver.deriveRange(deriver, BTC_XPUB, 0, 3, 250);
+        assertEquals(deriver.deriveRange(BTC_XPUB, 0, 3, 250), parallel);
+    }
+
+    @Test
+    public void streamsOrderedChunks() {
+        AbsDeriver deriver = new Btc.Deriver();
+        List<Integer> counts = new ArrayList<>();
+        List<String> streamed = new ArrayList<>();
+        List<String> result = ParallelDeriver.deriveRange(deriver, BTC_XPUB, 1, 0, 95,
+                (derived, chunk) -> {
+                    counts.add(derived);
+                    streamed.addAll(chunk);
+                    assertEquals(derived, streamed.size());
+                });
+
+        assertEquals(Arrays.asList(20, 40, 60, 80, 95), counts);
+        assertEquals(result, streamed);
+    }
+}
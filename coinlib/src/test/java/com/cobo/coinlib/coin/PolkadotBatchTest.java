@@ -0,0 +1,240 @@
+/*
+ *
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.cobo.coinlib.coin;
+
+import com.cobo.coinlib.coins.polkadot.ScaleCodecReader;
+import com.cobo.coinlib.coins.polkadot.UOS.Extrinsic;
+import com.cobo.coinlib.coins.polkadot.UOS.Network;
+import com.cobo.coinlib.coins.polkadot.UOS.SubstratePayload;
+import com.cobo.coinlib.coins.polkadot.pallets.PalletFactory;
+import com.cobo.coinlib.coins.polkadot.pallets.Parameter;
+import com.cobo.coinlib.coins.polkadot.pallets.staking.BondParameter;
+import com.cobo.coinlib.coins.polkadot.pallets.staking.Nominate;
+import com.cobo.coinlib.coins.polkadot.pallets.utility.BatchAll;
+import com.cobo.coinlib.coins.polkadot.pallets.utility.BatchParameter;
+import com.cobo.coinlib.coins.polkadot.scale.ScaleCodecWriter;
+import com.cobo.coinlib.exception.InvalidUOSException;
+
+import org.bouncycastle.util.encoders.Hex;
+import org.json.JSONException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Decoding of large staking batches through the call index table.
+ */
+public class PolkadotBatchTest {
+
+    private static final int CALLS = 500;
+    private static final int NOMINATIONS = 16;
+    private static final int ROUNDS = 200;
+    private static final String GENESIS_HASH = "91b171bb158e2d3848fa23a9f1c25182fb8e20313b2c1eb49219da7a70ce90c3";
+
+    private static byte[] account(int seed) {
+        byte[] publicKey = new byte[32];
+        Arrays.fill(publicKey, (byte) seed);
+        return publicKey;
+    }
+
+    /**
+     * bond, nominate, validate and set_controller in turn
+     */
+    private static void writeStakingCall(ScaleCodecWriter writer, int i) throws IOException {
+        switch (i % 4) {
+            case 0:
+                writer.writeUint16BE(0x0700);
+                writer.writeByteArray(account(i));
+                writer.writeCompact(10_000_000_000L * (i + 1));
+                if (i % 8 == 0) {
+                    writer.writeByte(0x03);
+                    writer.writeByteArray(account(i + 1));
+                } else {
+                    writer.writeByte(0x00);
+                }
+                break;
+            case 1:
+                writer.writeUint16BE(0x0705);
+                writer.writeCompact(NOMINATIONS);
+                for (int j = 0; j < NOMINATIONS; j++) {
+                    writer.writeByteArray(account(i + j));
+                }
+                break;
+            case 2:
+                writer.writeUint16BE(0x0704);
+                writer.writeCompact(i * 1000);
+                break;
+            default:
+                writer.writeUint16BE(0x0708);
+                writer.writeByteArray(account(i));
+        }
+    }
+
+    private static void writeTail(ScaleCodecWriter writer) throws IOException {
+        writer.writeByteArray(Hex.decode("d500"));
+        writer.writeCompact(9);
+        writer.writeCompact(0);
+        writer.writeUint32(25);
+        writer.writeUint32(5);
+        writer.writeByteArray(Hex.decode(GENESIS_HASH));
+        writer.writeByteArray(new byte[32]);
+    }
+
+    private static byte[] stakingBatch(int calls) throws IOException {
+        ScaleCodecWriter writer = new ScaleCodecWriter();
+        writer.writeUint16BE(0x1a02);
+        writer.writeCompact(calls);
+        for (int i = 0; i < calls; i++) {
+            writeStakingCall(writer, i);
+        }
+        writeTail(writer);
+        return writer.toByteArray();
+    }
+
+    @Test
+    public void callIndexTable() {
+        assertTrue(PalletFactory.getPallet(0x0705, Network.POLKADOT) instanceof Nominate);
+        assertTrue(PalletFactory.getPallet(0x1802, Network.KUSAMA) instanceof BatchAll);
+        assertSame(PalletFactory.getPallet(0x0700, Network.POLKADOT),
+                PalletFactory.getPallet(0x0700, Network.POLKADOT));
+        try {
+            PalletFactory.getPallet(0x0799, Network.POLKADOT);
+            throw new AssertionError("unknown call index must fail");
+        } catch (IllegalStateException e) {
+            assertEquals("unknown pallet code 0x0799", e.getMessage());
+        }
+    }
+
+    @Test
+    public void decodeStakingBatch() throws IOException, JSONException {
+        byte[] payload = stakingBatch(CALLS);
+        Extrinsic extrinsic = new Extrinsic(payload, Network.POLKADOT);
+        BatchParameter batch = (BatchParameter) extrinsic.palletParameter;
+        assertEquals("utility.batchAll", batch.name);
+        assertEquals(CALLS, batch.getLength());
+        assertEquals(CALLS, batch.getCalls().size());
+        assertEquals("staking.bond", batch.getCalls().get(0).name);
+        assertEquals("staking.nominate", batch.getCalls().get(1).name);
+        assertEquals("staking.validate", batch.getCalls().get(2).name);
+        assertEquals("staking.setController", batch.getCalls().get(CALLS - 1).name);
+        assertEquals("1", ((BondParameter) batch.getCalls().get(0)).getAmount());
+        assertEquals("Account", ((BondParameter) batch.getCalls().get(8)).getRewardType());
+        assertEquals("Staked", ((BondParameter) batch.getCalls().get(4)).getRewardType());
+        assertEquals(NOMINATIONS, batch.getCalls().get(1).toJSON().getJSONArray("nominateAccounts").length());
+        assertEquals(GENESIS_HASH, extrinsic.getGenesisHash());
+        assertEquals("9", extrinsic.getNonce());
+
+        assertEquals(CALLS, batch.toJSON().getJSONArray("pallets").length());
+
+        // warm up the jit
+        for (int i = 0; i < ROUNDS; i++) {
+            new Extrinsic(payload, Network.POLKADOT);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            batch = (BatchParameter) new Extrinsic(payload, Network.POLKADOT).palletParameter;
+        }
+        long decode = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            batch.toJSON();
+        }
+        long rendered = System.nanoTime() - start;
+
+        System.out.println(String.format("%d staking calls, %d bytes: decode %d us, all calls rendered %d us",
+                CALLS, payload.length, decode / ROUNDS / 1000, rendered / ROUNDS / 1000));
+    }
+
+    @Test
+    public void decodeDeeplyNestedBatch() throws IOException {
+        int depth = 20_000;
+        ScaleCodecWriter writer = new ScaleCodecWriter();
+        for (int i = 0; i < depth; i++) {
+            writer.writeUint16BE(i % 2 == 0 ? 0x1a00 : 0x1a02);
+            writer.writeCompact(i == depth - 1 ? 2 : 1);
+        }
+        writeStakingCall(writer, 0);
+        writeStakingCall(writer, 1);
+        writer.writeByte(0x2a);
+
+        ScaleCodecReader reader = new ScaleCodecReader(writer.toByteArray());
+        Parameter parameter = PalletFactory.readPallet(reader, Network.POLKADOT).read(reader);
+        for (int i = 0; i < depth - 1; i++) {
+            BatchParameter batch = (BatchParameter) parameter;
+            assertEquals(i % 2 == 0 ? "utility.batch" : "utility.batchAll", batch.name);
+            assertEquals(1, batch.getLength());
+            parameter = batch.getCalls().get(0);
+        }
+        BatchParameter innermost = (BatchParameter) parameter;
+        assertEquals(2, innermost.getLength());
+        assertEquals("staking.nominate", innermost.getCalls().get(1).name);
+        assertEquals(0x2a, reader.readUByte());
+        assertTrue(!reader.hasNext());
+    }
+
+    @Test
+    public void batchLengthIsNotTrusted() throws IOException {
+        ScaleCodecWriter writer = new ScaleCodecWriter();
+        writer.writeUint16BE(0x1a00);
+        writer.writeCompact((1 << 30) - 1);
+        writeStakingCall(writer, 2);
+
+        ScaleCodecReader reader = new ScaleCodecReader(writer.toByteArray());
+        try {
+            PalletFactory.readPallet(reader, Network.POLKADOT).read(reader);
+            throw new AssertionError("truncated batch must fail");
+        } catch (IndexOutOfBoundsException expected) {
+            assertTrue(!reader.hasNext());
+        }
+    }
+
+    @Test
+    public void unknownCallInBatchIsInvalidUOS() throws IOException {
+        ScaleCodecWriter call = new ScaleCodecWriter();
+        call.writeUint16BE(0x1a00);
+        call.writeCompact(2);
+        writeStakingCall(call, 2);
+        call.writeUint16BE(0x0799);
+        call.writeCompact(1);
+        writeTail(call);
+
+        ScaleCodecWriter writer = new ScaleCodecWriter();
+        writer.writeByte(0x01);
+        writer.writeByte(0x02);
+        writer.writeByteArray(account(1));
+        writer.writeCompact(call.size());
+        writer.writeByteArray(call.toByteArray());
+        writer.writeByteArray(Hex.decode(GENESIS_HASH));
+
+        try {
+            new SubstratePayload(writer.toByteBuffer());
+            throw new AssertionError("unknown call index must fail");
+        } catch (InvalidUOSException e) {
+            assertEquals("unknown pallet code 0x0799", e.getMessage());
+        }
+    }
+}
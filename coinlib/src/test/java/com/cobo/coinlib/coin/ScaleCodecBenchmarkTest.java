@@ -0,0 +1,243 @@
+/*
+ *
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.cobo.coinlib.coin;
+
+import com.cobo.coinlib.coins.polkadot.ScaleCodecReader;
+import com.cobo.coinlib.coins.polkadot.UOS.Result;
+import com.cobo.coinlib.coins.polkadot.UOS.UOSDecoder;
+import com.cobo.coinlib.coins.polkadot.scale.ScaleCodecWriter;
+import com.cobo.coinlib.exception.InvalidUOSException;
+
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Round trips of the SCALE codec and the decoding of large utility.batch payloads,
+ * compared with the hex string pipeline the UOS decoder used before.
+ */
+public class ScaleCodecBenchmarkTest {
+
+    private static final int CALLS = 500;
+    private static final int ROUNDS = 200;
+    private static final String GENESIS_HASH = "91b171bb158e2d3848fa23a9f1c25182fb8e20313b2c1eb49219da7a70ce90c3";
+
+    /**
+     * the decoding before the ByteBuffer codec, hex in and out of every step
+     */
+    private static class LegacyEnvelope {
+        static byte[] decode(String raw) {
+            raw = raw.substring(0, raw.length() - 2);
+            while (raw.endsWith("ec11")) {
+                raw = raw.substring(0, raw.length() - 4);
+            }
+            raw = raw.substring(1, raw.length() - 1).substring(4);
+            String payload = raw.substring(12);
+            ScaleCodecReader reader = new ScaleCodecReader(Hex.decode(payload));
+            reader.readByte();
+            reader.readByte();
+            reader.readByteArray(32);
+            ByteArrayOutputStream bo = new ByteArrayOutputStream();
+            while (reader.hasNext()) {
+                bo.write(reader.readByte());
+            }
+            String rest = Hex.toHexString(bo.toByteArray());
+            String genesisHash = rest.substring(rest.length() - 64);
+            assertEquals(GENESIS_HASH, genesisHash);
+            return Hex.decode(rest.substring(0, rest.length() - 64));
+        }
+    }
+
+    private static byte[] batchPayload(int calls) throws IOException {
+        ScaleCodecWriter writer = new ScaleCodecWriter();
+        writer.writeUint16BE(0x1a00);
+        writer.writeCompact(calls);
+        for (int i = 0; i < calls; i++) {
+            writer.writeUint16BE(0x0503);
+            byte[] dest = new byte[32];
+            Arrays.fill(dest, (byte) i);
+            writer.writeByteArray(dest);
+            writer.writeCompact(10_000_000_000L * (i + 1));
+        }
+        writer.writeByteArray(Hex.decode("d500"));
+        writer.writeCompact(9);
+        writer.writeCompact(100_000_000L);
+        writer.writeUint32(25);
+        writer.writeUint32(5);
+        writer.writeByteArray(Hex.decode(GENESIS_HASH));
+        writer.writeByteArray(new byte[32]);
+        return writer.toByteArray();
+    }
+
+    /**
+     * a single frame UOS with the payload as data type 0x01, framed as a byte mode QR segment
+     */
+    private static byte[] qrSegment(byte[] payload) throws IOException {
+        ScaleCodecWriter uos = new ScaleCodecWriter(payload.length + 128);
+        uos.writeByte(0x00);
+        uos.writeUint16BE(1);
+        uos.writeUint16BE(0);
+        uos.writeByte(0x53);
+        uos.writeByte(0x01);
+        uos.writeByte(0x01);
+        uos.writeByteArray(new byte[32]);
+        uos.writeByteArray(payload);
+        uos.writeByteArray(Hex.decode(GENESIS_HASH));
+        byte[] data = uos.toByteArray();
+
+        // 4 bit mode, 16 bit length, the data and a 4 bit terminator
+        byte[] segment = new byte[data.length + 3 + 3];
+        segment[0] = (byte) (0x40 | (data.length >> 12) & 0x0f);
+        segment[1] = (byte) (data.length >> 4);
+        segment[2] = (byte) ((data.length & 0x0f) << 4);
+        for (int i = 0; i < data.length; i++) {
+            segment[2 + i] |= (byte) ((data[i] & 0xf0) >> 4);
+            segment[3 + i] = (byte) ((data[i] & 0x0f) << 4);
+        }
+        segment[segment.length - 3] = (byte) 0xec;
+        segment[segment.length - 2] = 0x11;
+        segment[segment.length - 1] = (byte) 0xec;
+        return segment;
+    }
+
+    @Test
+    public void compactRoundTrip() throws IOException {
+        long[] values = {0, 1, 63, 64, 16383, 16384, (1 << 30) - 1, 1 << 30,
+                0x7fffffffL, 0x80000000L, 0xffffffffL, 0x100000000L, 0x8000000000L,
+                Long.MAX_VALUE};
+        int[] sizes = {1, 1, 1, 2, 2, 4, 4, 5, 5, 5, 5, 6, 6, 9};
+        for (int i = 0; i < values.length; i++) {
+            ScaleCodecWriter writer = new ScaleCodecWriter(1);
+            writer.writeCompact(values[i]);
+            writer.writeBIntCompact(BigInteger.valueOf(values[i]));
+            byte[] encoded = writer.toByteArray();
+            assertEquals("size of " + values[i], sizes[i] * 2, encoded.length);
+
+            ScaleCodecReader reader = new ScaleCodecReader(encoded);
+            assertEquals(values[i], reader.readCompactLong());
+            assertEquals(BigInteger.valueOf(values[i]), reader.readCompact());
+            assertTrue(!reader.hasNext());
+        }
+
+        BigInteger big = BigInteger.ONE.shiftLeft(100).add(BigInteger.TEN);
+        ScaleCodecWriter writer = new ScaleCodecWriter();
+        writer.writeBIntCompact(big);
+        byte[] encoded = writer.toByteArray();
+        assertEquals(1 + 13, encoded.length);
+        assertEquals(big, new ScaleCodecReader(encoded).readCompact());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void streamWriterSeesEveryWrite() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ScaleCodecWriter writer = new ScaleCodecWriter(out);
+        writer.writeByte(1);
+        writer.writeUint16(0x0302);
+        writer.writeCompact(1 << 30);
+        writer.writeUint32(0x07060504);
+        assertEquals("010203030000004004050607", Hex.toHexString(out.toByteArray()));
+
+        writer.writeAsList(new byte[300]);
+        assertEquals(12 + 2 + 300, out.size());
+        assertArrayEquals(out.toByteArray(), writer.toByteArray());
+    }
+
+    @Test
+    public void slicesShareTheSource() {
+        byte[] source = Hex.decode("0102030405060708");
+        ScaleCodecReader reader = new ScaleCodecReader(ByteBuffer.wrap(source, 1, 6));
+        assertEquals(0x0302, reader.readUint16());
+        ByteBuffer slice = reader.readSlice(3);
+        assertEquals("040506", ScaleCodecReader.toHexString(slice));
+        assertEquals(1, reader.remaining());
+        source[4] = 0x55;
+        assertEquals(0x55, slice.get(1));
+        assertEquals("07", reader.readRestString());
+    }
+
+    @Test
+    public void decodeLargeBatchPayload() throws IOException, InvalidUOSException {
+        byte[] payload = batchPayload(CALLS);
+        byte[] segment = qrSegment(payload);
+        String hex = Hex.toHexString(segment);
+
+        assertArrayEquals(payload, LegacyEnvelope.decode(hex));
+        Result result = UOSDecoder.decode(segment, false);
+        assertArrayEquals(payload, result.getSigningPayload());
+        assertTrue(result.isHash);
+        assertTrue(result.isOversize);
+        assertArrayEquals(payload, UOSDecoder.decode(hex, false).getSigningPayload());
+
+        // warm up the jit on both paths
+        for (int i = 0; i < ROUNDS; i++) {
+            LegacyEnvelope.decode(hex);
+            UOSDecoder.decode(segment, false);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            LegacyEnvelope.decode(hex);
+        }
+        long legacy = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            UOSDecoder.decode(segment, false);
+        }
+        long buffered = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long sum = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            ScaleCodecReader reader = new ScaleCodecReader(payload);
+            reader.readUint16BE();
+            int calls = reader.readCompactInt();
+            for (int j = 0; j < calls; j++) {
+                reader.readUint16BE();
+                reader.readSlice(32);
+                sum += reader.readCompactLong();
+            }
+        }
+        long calls = System.nanoTime() - start;
+        assertTrue(sum > 0);
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            batchPayload(CALLS);
+        }
+        long encode = System.nanoTime() - start;
+
+        System.out.println(String.format("payload of %d calls: %d bytes", CALLS, payload.length));
+        System.out.println(String.format("hex envelope:    %.1f us", legacy / 1e3 / ROUNDS));
+        System.out.println(String.format("buffer envelope: %.1f us", buffered / 1e3 / ROUNDS));
+        System.out.println(String.format("read calls:      %.1f us", calls / 1e3 / ROUNDS));
+        System.out.println(String.format("encode calls:    %.1f us", encode / 1e3 / ROUNDS));
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ *
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.cobo.coinlib.coin;
+
+import com.cobo.coinlib.coins.polkadot.UOS.Result;
+import com.cobo.coinlib.coins.polkadot.UOS.UOSDecoder;
+import com.cobo.coinlib.coins.polkadot.UOS.UOSFrameAssembler;
+import com.cobo.coinlib.coins.polkadot.pallets.utility.BatchParameter;
+import com.cobo.coinlib.coins.polkadot.scale.ScaleCodecWriter;
+import com.cobo.coinlib.exception.InvalidUOSException;
+
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Multipart UOS payloads well over the 50 frames the decoder used to accept.
+ */
+public class UOSFrameAssemblerTest {
+
+    private static final int CALLS = 500;
+    private static final int FRAME_BODY_SIZE = 200;
+    private static final int ROUNDS = 200;
+    private static final String GENESIS_HASH = "91b171bb158e2d3848fa23a9f1c25182fb8e20313b2c1eb49219da7a70ce90c3";
+
+    /**
+     * the substrate payload of a utility.batch of transfers, as a mortal extrinsic to sign
+     */
+    private static byte[] substratePayload(int calls) throws IOException {
+        ScaleCodecWriter call = new ScaleCodecWriter();
+        call.writeUint16BE(0x1a00);
+        call.writeCompact(calls);
+        for (int i = 0; i < calls; i++) {
+            call.writeUint16BE(0x0503);
+            byte[] dest = new byte[32];
+            Arrays.fill(dest, (byte) i);
+            call.writeByteArray(dest);
+            call.writeCompact(10_000_000_000L * (i + 1));
+        }
+        call.writeByteArray(Hex.decode("d500"));
+        call.writeCompact(9);
+        call.writeCompact(0);
+        call.writeUint32(25);
+        call.writeUint32(5);
+        call.writeByteArray(Hex.decode(GENESIS_HASH));
+        call.writeByteArray(new byte[32]);
+
+        ScaleCodecWriter writer = new ScaleCodecWriter();
+        writer.writeByte(0x53);
+        writer.writeByte(0x01);
+        writer.writeByte(0x00);
+        writer.writeByteArray(new byte[32]);
+        writer.writeCompact(call.size());
+        writer.writeByteBuffer(call.toByteBuffer());
+        writer.writeByteArray(Hex.decode(GENESIS_HASH));
+        return writer.toByteArray();
+    }
+
+    /**
+     * the payload split into UOS frames, each framed as a byte mode QR segment
+     */
+    private static List<byte[]> qrFrames(byte[] payload, int bodySize) throws IOException {
+        int count = (payload.length + bodySize - 1) / bodySize;
+        List<byte[]> frames = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            int offset = index * bodySize;
+            int length = Math.min(bodySize, payload.length - offset);
+            ScaleCodecWriter frame = new ScaleCodecWriter(length + 5);
+            frame.writeByte(0x00);
+            frame.writeUint16BE(count);
+            frame.writeUint16BE(index);
+            frame.writeByteArray(Arrays.copyOfRange(payload, offset, offset + length));
+            frames.add(qrSegment(frame.toByteArray()));
+        }
+        return frames;
+    }
+
+    private static byte[] qrSegment(byte[] data) {
+        // 4 bit mode, 16 bit length, the data and a 4 bit terminator
+        byte[] segment = new byte[data.length + 3 + 1];
+        segment[0] = (byte) (0x40 | (data.length >> 12) & 0x0f);
+        segment[1] = (byte) (data.length >> 4);
+        segment[2] = (byte) ((data.length & 0x0f) << 4);
+        for (int i = 0; i < data.length; i++) {
+            segment[2 + i] |= (byte) ((data[i] & 0xf0) >> 4);
+            segment[3 + i] = (byte) ((data[i] & 0x0f) << 4);
+        }
+        segment[segment.length - 1] = (byte) 0xec;
+        return segment;
+    }
+
+    @Test
+    public void assembleFramesInAnyOrder() throws IOException, InvalidUOSException {
+        byte[] payload = substratePayload(CALLS);
+        List<byte[]> frames = qrFrames(payload, FRAME_BODY_SIZE);
+        assertTrue(frames.size() > 50);
+
+        List<byte[]> scanned = new ArrayList<>(frames);
+        scanned.addAll(frames.subList(0, frames.size() / 3));
+        Collections.shuffle(scanned, new Random(7));
+        // the camera sees the last missing frame at the end
+        byte[] last = frames.get(frames.size() / 2);
+        scanned.removeIf(frame -> frame == last);
+        scanned.add(last);
+
+        UOSFrameAssembler assembler = new UOSFrameAssembler();
+        for (int i = 0; i < scanned.size() - 1; i++) {
+            assertTrue(!assembler.add(scanned.get(i)));
+            assertEquals(frames.size(), assembler.getFrameCount());
+        }
+        assertEquals(frames.size() - 1, assembler.getReceivedCount());
+        assertTrue(assembler.add(last));
+        assertEquals(frames.size(), assembler.getReceivedCount());
+
+        Result result = assembler.decode();
+        assertTrue(!result.isHash);
+        assertTrue(result.isOversize);
+        BatchParameter batch = (BatchParameter) result.getExtrinsic().palletParameter;
+        assertEquals(CALLS, batch.getLength());
+        assertEquals(GENESIS_HASH, result.getExtrinsic().getGenesisHash());
+
+        // the hex handed to the confirm page decodes the same
+        Result decoded = UOSDecoder.decode(Hex.toHexString(assembler.assemble()), false);
+        assertArrayEquals(result.getSigningPayload(), decoded.getSigningPayload());
+
+        // a frame of the first payload is only decoded for its frame info
+        Result frame = UOSDecoder.decode(frames.get(3), false);
+        assertTrue(frame.isMultiPart);
+        assertEquals(frames.size(), frame.frameCount);
+        assertEquals(3, frame.currentFrame);
+    }
+
+    @Test
+    public void payloadOverTheCapIsRejected() throws IOException, InvalidUOSException {
+        byte[] payload = substratePayload(CALLS);
+        List<byte[]> frames = qrFrames(payload, FRAME_BODY_SIZE);
+        UOSFrameAssembler assembler = new UOSFrameAssembler(FRAME_BODY_SIZE * 10);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(!assembler.add(frames.get(i)));
+        }
+        try {
+            assembler.add(frames.get(10));
+            throw new AssertionError("the 11th frame is over the cap");
+        } catch (InvalidUOSException expected) {
+            assertEquals(0, assembler.getReceivedCount());
+        }
+    }
+
+    @Test
+    public void otherPayloadStartsOver() throws IOException, InvalidUOSException {
+        List<byte[]> large = qrFrames(substratePayload(CALLS), FRAME_BODY_SIZE);
+        List<byte[]> small = qrFrames(substratePayload(2), FRAME_BODY_SIZE);
+        UOSFrameAssembler assembler = new UOSFrameAssembler();
+        assembler.add(large.get(0));
+        assembler.add(large.get(1));
+        assertEquals(2, assembler.getReceivedCount());
+
+        assertTrue(!assembler.add(small.get(1)));
+        assertEquals(small.size(), assembler.getFrameCount());
+        assertEquals(1, assembler.getReceivedCount());
+        assertTrue(assembler.add(small.get(0)));
+        assertEquals(2, ((BatchParameter) assembler.decode().getExtrinsic().palletParameter).getLength());
+
+        try {
+            assembler.add(qrSegment("{\"type\":\"x\"}".getBytes()));
+            throw new AssertionError("not a UOS frame");
+        } catch (InvalidUOSException expected) {
+            assertTrue(assembler.isComplete());
+        }
+    }
+
+    @Test
+    public void assembleTiming() throws IOException, InvalidUOSException {
+        byte[] payload = substratePayload(CALLS);
+        List<byte[]> frames = qrFrames(payload, FRAME_BODY_SIZE);
+
+        // warm up the jit on both paths
+        for (int i = 0; i < ROUNDS; i++) {
+            for (byte[] frame : frames) {
+                UOSDecoder.decode(Hex.toHexString(frame), false);
+            }
+            UOSFrameAssembler assembler = new UOSFrameAssembler();
+            for (byte[] frame : frames) {
+                assembler.add(frame);
+            }
+            assembler.assemble();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            for (byte[] frame : frames) {
+                UOSDecoder.decode(Hex.toHexString(frame), false);
+            }
+        }
+        long perFrameDecode = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            UOSFrameAssembler assembler = new UOSFrameAssembler();
+            for (byte[] frame : frames) {
+                assembler.add(frame);
+            }
+            assembler.assemble();
+        }
+        long assembled = System.nanoTime() - start;
+
+        System.out.println(String.format("%d frames, %d bytes: hex decode per frame %d us, assembler %d us",
+                frames.size(), payload.length, perFrameDecode / ROUNDS / 1000, assembled / ROUNDS / 1000));
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.coinlib.coin;
+
+import com.cobo.coinlib.coins.XRP.Schemas;
+import com.cobo.coinlib.coins.XRP.SupportTransactions;
+import com.cobo.coinlib.coins.XRP.XrpTransaction;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SpecVersion;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Validates 1k mixed XRP transactions with the cached schemas and with the
+ * compile-per-call validation they replaced.
+ */
+public class XrpSchemaBenchmarkTest {
+
+    private static final int TRANSACTIONS = 1000;
+
+    private static final String[] SAMPLES = new String[]{
+            "{\"TransactionType\":\"Payment\",\"Account\":\"rf1BiGeXwwQoi8Z2ueFYTEXSwuJYfV2Jpn\"," +
+                    "\"Destination\":\"ra5nK24KXen9AHvsdFTKHSANinZseWnPcX\",\"Amount\":{\"currency\":" +
+                    "\"0000534F534F0000000000000000000000000000\",\"value\":\"1\",\"issuer\":" +
+                    "\"rf1BiGeXwwQoi8Z2ueFYTEXSwuJYfV2Jpn\"},\"Fee\":\"12\",\"Flags\":2147549185,\"Sequence\":2}",
+            "{\"TransactionType\":\"TrustSet\",\"Account\":\"ra5nK24KXen9AHvsdFTKHSANinZseWnPcX\"," +
+                    "\"Fee\":\"12\",\"Flags\":262144,\"LastLedgerSequence\":8007750,\"LimitAmount\":{\"currency\":" +
+                    "\"USD\",\"issuer\":\"rsP3mgGb2tcYUrxiLFiHJiQXhsziegtwBc\",\"value\":\"100\"},\"Sequence\":12}",
+            "{\"Flags\":0,\"TransactionType\":\"SetRegularKey\",\"Account\":\"rf1BiGeXwwQoi8Z2ueFYTEXSwuJYfV2Jpn\"," +
+                    "\"Fee\":\"12\",\"RegularKey\":\"rAR8rR8sUkBoCZFawhkWzY4Y5YoyuznwD\"}",
+            "{\"Account\":\"rf1BiGeXwwQoi8Z2ueFYTEXSwuJYfV2Jpn\",\"TransactionType\":\"PaymentChannelFund\"," +
+                    "\"Channel\":\"C1AE6DDDEEC05CF2978C0BAD6FE302948E9533691DC749DCDD3B9E5992CA6198\"," +
+                    "\"Amount\":\"200000\",\"Expiration\":543171558}",
+            "{\"Flags\":0,\"TransactionType\":\"SignerListSet\",\"Account\":\"rf1BiGeXwwQoi8Z2ueFYTEXSwuJYfV2Jpn\"," +
+                    "\"Fee\":\"12\",\"SignerQuorum\":3,\"SignerEntries\":[" +
+                    "{\"SignerEntry\":{\"Account\":\"rsA2LpzuawewSBQXkiju3YQTMzW13pAAdW\",\"SignerWeight\":2}}," +
+                    "{\"SignerEntry\":{\"Account\":\"rUpy3eEg8rqjqfUoLeBnZkscbKbFsKXC3v\",\"SignerWeight\":1}}]}",
+            "{\"Account\":\"rf1BiGeXwwQoi8Z2ueFYTEXSwuJYfV2Jpn\",\"TransactionType\":\"PaymentChannelCreate\"," +
+                    "\"Amount\":\"10000\",\"Destination\":\"rsA2LpzuawewSBQXkiju3YQTMzW13pAAdW\"," +
+                    "\"SettleDelay\":86400,\"PublicKey\":" +
+                    "\"32D2471DB72B27E3310F355BB33E339BF26F8392D5A93D3BC0FC3B566612DA0F0A\"," +
+                    "\"CancelAfter\":533171558,\"DestinationTag\":23480,\"SourceTag\":11747}",
+    };
+
+    private static final String[] SAMPLE_SCHEMAS = new String[]{
+            Schemas.Payment,
+            Schemas.TrustSet,
+            Schemas.SetRegularKey,
+            Schemas.PaymentChannelFund,
+            Schemas.SignerListSet,
+            Schemas.PaymentChannelCreate,
+    };
+
+    /**
+     * the validation before the schema cache, a new factory, schema and tree per call
+     */
+    private static boolean validateUncached(ObjectMapper mapper, String schema, JSONObject tx) throws Exception {
+        JsonSchema compiled = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V4).getSchema(schema);
+        JsonNode node = mapper.readTree(tx.toString());
+        return compiled.validate(node).isEmpty();
+    }
+
+    @Test
+    public void jsonNodeAndJsonObjectAgree() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        for (String sample : SAMPLES) {
+            JSONObject tx = new JSONObject(sample);
+            XrpTransaction xrpTransaction = SupportTransactions.get(tx.getString("TransactionType"));
+            assertNotNull(xrpTransaction);
+            assertTrue(xrpTransaction.isValid(tx));
+            assertTrue(xrpTransaction.isValid(mapper.readTree(sample)));
+        }
+
+        JSONObject invalid = new JSONObject(SAMPLES[0]);
+        invalid.put("Sequence", "2");
+        XrpTransaction payment = SupportTransactions.get("Payment");
+        assertFalse(payment.isValid(invalid));
+        assertFalse(payment.isValid(mapper.readTree(invalid.toString())));
+        assertFalse(payment.isValid(mapper.readTree(SAMPLES[1])));
+    }
+
+    @Test
+    public void validateMixedTransactions() throws Exception {
+        List<JSONObject> txs = new ArrayList<>(TRANSACTIONS);
+        List<String> schemas = new ArrayList<>(TRANSACTIONS);
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            txs.add(new JSONObject(SAMPLES[i % SAMPLES.length]));
+            schemas.add(SAMPLE_SCHEMAS[i % SAMPLES.length]);
+        }
+        ObjectMapper mapper = new ObjectMapper();
+
+        long start = System.nanoTime();
+        SupportTransactions.warmUp();
+        long warmUp = System.nanoTime() - start;
+
+        // warm up the jit on both paths
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            assertTrue(validateUncached(mapper, schemas.get(i), txs.get(i)));
+            JSONObject tx = txs.get(i);
+            assertTrue(SupportTransactions.get(tx.getString("TransactionType")).isValid(tx));
+        }
+
+        start = System.nanoTime();
+        int valid = 0;
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            if (validateUncached(mapper, schemas.get(i), txs.get(i))) {
+                valid++;
+            }
+        }
+        long uncached = System.nanoTime() - start;
+        assertEquals(TRANSACTIONS, valid);
+
+        start = System.nanoTime();
+        valid = 0;
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            JSONObject tx = txs.get(i);
+            if (SupportTransactions.get(tx.getString("TransactionType")).isValid(tx)) {
+                valid++;
+            }
+        }
+        long cached = System.nanoTime() - start;
+        assertEquals(TRANSACTIONS, valid);
+
+        System.out.println(String.format("warm up %d schemas: %.2f ms", 18, warmUp / 1e6));
+        System.out.println(String.format("uncached: %.1f us/tx", uncached / 1e3 / TRANSACTIONS));
+        System.out.println(String.format("cached:   %.1f us/tx", cached / 1e3 / TRANSACTIONS));
+    }
+}
@@ -43,7 +43,10 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.Test;
 
+import java.util.EnumSet;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 @SuppressWarnings("ALL")
@@ -77,6 +80,20 @@ public class XrpTest {
         System.out.println(new TrustSet().formatCurrency("USD"));
     }
 
+    @Test
+    public void testTransactionFlagSet() {
+        assertEquals(EnumSet.of(TransactionFlagMap.Flag.NoRippleDirect, TransactionFlagMap.Flag.LimitQuality),
+                TransactionFlagMap.getFlags(0x80050000L, "Payment"));
+        assertEquals("NoRippleDirect, LimitQuality", TransactionFlagMap.getString(0x80050000L, "Payment"));
+        assertEquals("SetAuth, SetFreeze", TransactionFlagMap.getString(0x00110000L, "TrustSet"));
+        assertTrue(TransactionFlagMap.getFlags(0x80000000L, "TrustSet").isEmpty());
+        assertNull(TransactionFlagMap.getString(0x80000000L, "TrustSet"));
+        assertNull(TransactionFlagMap.getString(0x00010000L, "SetRegularKey"));
+        assertEquals(TransactionFlagMap.Flag.asfAccountTxnID,
+                TransactionFlagMap.getAccountSetFlag(5, "AccountSetFlag"));
+        assertNull(TransactionFlagMap.getAccountSetFlagsString(10, "AccountSetFlag"));
+    }
+
     @Test
     public void testAccountSet() throws JSONException {
         JSONObject tx = new JSONObject("{\n" +
@@ -0,0 +1,45 @@
+
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ */
+
+package com.cobo.coinlib.v8;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BundleIndexTest {
+
+    @Test
+    public void parse() {
+        BundleIndex index = BundleIndex.parse("{\n" +
+                "  \"BTC\": \"BTC.bundle_0748f18.js\",\n" +
+                "  \"DASH\": \"DASH.bundle.js\"\n" +
+                "}");
+        assertEquals(2, index.size());
+        assertEquals("BTC.bundle_0748f18.js", index.bundleOf("BTC"));
+        assertEquals("DASH.bundle.js", index.bundleOf("DASH"));
+        assertNull(index.bundleOf("XTN"));
+    }
+
+    @Test
+    public void parseInvalid() {
+        BundleIndex index = BundleIndex.parse("not json");
+        assertEquals(0, index.size());
+        assertNull(index.bundleOf("BTC"));
+    }
+}
@@ -0,0 +1,131 @@
+
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ */
+
+package com.cobo.coinlib.v8;
+
+import com.cobo.coinlib.interfaces.BatchSigner;
+import com.cobo.coinlib.interfaces.Signer;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PresignSessionTest {
+
+    private final AtomicInteger batchCalls = new AtomicInteger();
+
+    private final BatchSigner batchSigner = (signers, hexes) -> {
+        batchCalls.incrementAndGet();
+        String[] results = new String[hexes.length];
+        for (int i = 0; i < hexes.length; i++) {
+            results[i] = signers[i].getPublicKey() + ":" + hexes[i];
+        }
+        return results;
+    };
+
+    private class TestSigner extends Signer {
+        private final BatchSigner batch;
+
+        TestSigner(String publicKey, BatchSigner batch) {
+            super(publicKey);
+            this.batch = batch;
+        }
+
+        @Override
+        public String sign(String hex) {
+            return "single:" + hex;
+        }
+
+        @Override
+        public BatchSigner batchSigner() {
+            return batch;
+        }
+    }
+
+    @Test
+    public void notBatchable() {
+        assertNull(PresignSession.of(new Signer[0]));
+        assertNull(PresignSession.of(new Signer[]{new TestSigner("a", null)}));
+        assertNull(PresignSession.of(new Signer[]{
+                new TestSigner("a", batchSigner),
+                new TestSigner("b", (signers, hexes) -> null)}));
+    }
+
+    @Test
+    public void collectThenSign() {
+        Signer[] signers = {new TestSigner("a", batchSigner), new TestSigner("b", batchSigner)};
+        PresignSession session = PresignSession.of(signers);
+
+        Signer[] collectors = session.collectors();
+        assertEquals(128, collectors[0].sign("01").length());
+        collectors[1].sign("02");
+        collectors[0].sign("03");
+        assertEquals(3, session.size());
+
+        assertTrue(session.signCollected());
+        assertEquals(1, batchCalls.get());
+
+        Signer[] presigned = session.presigned();
+        assertEquals("a:01", presigned[0].sign("01"));
+        assertEquals("b:02", presigned[1].sign("02"));
+        assertEquals("a:03", presigned[0].sign("03"));
+        assertEquals("a", presigned[0].getPublicKey());
+        assertTrue(session.matchesCollected());
+    }
+
+    @Test
+    public void signPhaseAsksForOtherHashes() {
+        Signer[] signers = {new TestSigner("a", batchSigner), new TestSigner("b", batchSigner)};
+        PresignSession session = PresignSession.of(signers);
+        Signer[] collectors = session.collectors();
+        collectors[0].sign("01");
+        collectors[1].sign("02");
+        assertTrue(session.signCollected());
+
+        Signer[] presigned = session.presigned();
+        assertEquals("a:01", presigned[0].sign("01"));
+        // a hash derived from the placeholder signatures is never signed
+        assertEquals(128, presigned[1].sign("04").length());
+        assertFalse(session.matchesCollected());
+    }
+
+    @Test
+    public void signPhaseSkipsHashes() {
+        Signer[] signers = {new TestSigner("a", batchSigner), new TestSigner("b", batchSigner)};
+        PresignSession session = PresignSession.of(signers);
+        Signer[] collectors = session.collectors();
+        collectors[0].sign("01");
+        collectors[1].sign("02");
+        assertTrue(session.signCollected());
+
+        session.presigned()[0].sign("01");
+        assertFalse(session.matchesCollected());
+    }
+
+    @Test
+    public void batchFailed() {
+        BatchSigner failing = (signers, hexes) -> new String[]{null};
+        PresignSession session = PresignSession.of(new Signer[]{new TestSigner("a", failing)});
+        session.collectors()[0].sign("01");
+        assertFalse(session.signCollected());
+    }
+}
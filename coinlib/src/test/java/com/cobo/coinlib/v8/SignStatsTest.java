@@ -0,0 +1,42 @@
+
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ */
+
+package com.cobo.coinlib.v8;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class SignStatsTest {
+
+    @Test
+    public void accumulatesPerCoin() {
+        SignStats stats = SignStats.of("SignStatsTest");
+        assertSame(stats, SignStats.of("SignStatsTest"));
+        assertSame(stats, SignStats.getAll().get("SignStatsTest"));
+
+        stats.record(3, 10, 20, 30);
+        stats.record(1, 1, 2, 3);
+        stats.countMismatch();
+
+        assertEquals(2, stats.getRuns());
+        assertEquals(1, stats.getMismatches());
+        assertEquals("SignStats{coinCode='SignStatsTest', runs=2, inputs=4, collectMs=11, "
+                + "signMs=22, buildMs=33, mismatches=1}", stats.toString());
+    }
+}
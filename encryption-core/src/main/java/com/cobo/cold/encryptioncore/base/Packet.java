@@ -26,10 +26,6 @@ import androidx.collection.SparseArrayCompat;
 import com.cobo.cold.encryptioncore.utils.ByteFormatter;
 import com.cobo.cold.encryptioncore.utils.Preconditions;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
 public class Packet {
     private final int id;
     private final int retryTimes;
@@ -73,33 +69,24 @@ public class Packet {
     @NonNull
     @Override
     public String toString() {
-        final JSONObject object = new JSONObject();
-
-        try {
-            object.put("id", ByteFormatter.addHexPrefix(id));
-
-            final JSONArray array = new JSONArray();
-            for (int i = 0, size = payloads.size(); i < size; ++i) {
-                final int tag = payloads.keyAt(i);
-                final Payload payload = payloads.valueAt(i);
-                if (payload == null) {
-                    continue;
-                }
-
-
-                final JSONObject payloadObj = new JSONObject();
-                payloadObj.put("tag", "0x" + String.format("%04x", tag));
-                payloadObj.put("value", ByteFormatter.bytes2hex(payload.getValue()));
-
-                array.put(payloadObj);
+        final StringBuilder builder = new StringBuilder("Packet{id=")
+                .append(ByteFormatter.addHexPrefix(id))
+                .append(", payloads=[");
+
+        for (int i = 0, size = payloads.size(); i < size; ++i) {
+            final Payload payload = payloads.valueAt(i);
+            if (payload == null) {
+                continue;
             }
-
-            object.put("payloads", array);
-            return object.toString(4);
-        } catch (JSONException e) {
-            e.printStackTrace();
+            if (builder.charAt(builder.length() - 1) != '[') {
+                builder.append(", ");
+            }
+            builder.append(String.format("0x%04x", payloads.keyAt(i)))
+                    .append('=')
+                    .append(payload.toHex());
         }
-        return object.toString();
+
+        return builder.append("]}").toString();
     }
 
     public static class Builder {
@@ -160,6 +147,13 @@ public class Packet {
             return this;
         }
 
+        public Builder addPayload(int payloadId, @NonNull Payload payload) {
+            Preconditions.checkNotNull(payload);
+            payloads.append(payloadId, payload);
+
+            return this;
+        }
+
         public Builder addTextPayload(int payloadId, @NonNull String text) {
             Preconditions.checkNotNull(text);
             final byte[] value = ByteFormatter.utf82bytes(text);
@@ -23,42 +23,95 @@ import com.cobo.cold.encryptioncore.exception.ByteFormatException;
 import com.cobo.cold.encryptioncore.utils.ByteFormatter;
 import com.cobo.cold.encryptioncore.utils.Preconditions;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
 public class Payload {
-    private final byte[] value;
+    private final byte[] array;
+    private final int offset;
+    private final int length;
 
     public Payload(@NonNull byte[] value) {
-        this.value = Preconditions.checkNotNull(value);
+        this(Preconditions.checkNotNull(value), 0, value.length);
+    }
+
+    /**
+     * A view on a range of the array, nothing is copied. Decoded payloads share
+     * the received frame, the array must not be changed afterwards.
+     */
+    public Payload(@NonNull byte[] array, int offset, int length) {
+        this.array = Preconditions.checkNotNull(array);
+        if (offset < 0 || length < 0 || offset + length > array.length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length
+                    + " out of " + array.length);
+        }
+        this.offset = offset;
+        this.length = length;
     }
 
     @NonNull
     public byte[] getValue() {
-        return value.clone();
+        return Arrays.copyOfRange(array, offset, offset + length);
+    }
+
+    /**
+     * @return a read only view of the value, nothing is copied
+     */
+    @NonNull
+    public ByteBuffer asReadOnlyBuffer() {
+        return ByteBuffer.wrap(array, offset, length).slice().asReadOnlyBuffer();
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * put the value at the position of the buffer
+     */
+    public void writeTo(@NonNull ByteBuffer buffer) {
+        buffer.put(array, offset, length);
     }
 
     public int toInt() {
-        if (value.length == 1) {
-            return value[0] & 0xFF;
-        } else if (value.length == 2) {
-            return ByteFormatter.bytes2short(value);
-        } else if (value.length == 4) {
-            return ByteFormatter.bytes2int(value);
+        if (length == 1) {
+            return array[offset] & 0xFF;
+        } else if (length == 2) {
+            return ((array[offset] & 0xFF) << 8)
+                    | (array[offset + 1] & 0xFF);
+        } else if (length == 4) {
+            return ((array[offset] & 0xFF) << 24)
+                    | ((array[offset + 1] & 0xFF) << 16)
+                    | ((array[offset + 2] & 0xFF) << 8)
+                    | (array[offset + 3] & 0xFF);
         } else {
             throw new ByteFormatException("the length of values must be [one, two, four]");
         }
     }
 
     public String toHex() {
-        return ByteFormatter.bytes2hex(value);
+        return ByteFormatter.bytes2hex(array, offset, length);
     }
 
     public String toUtf8() {
-        return ByteFormatter.bytes2utf8(value);
+        return new String(array, offset, length, StandardCharsets.UTF_8);
     }
 
     @Override
     public boolean equals(Object obj) {
-        return obj instanceof Payload && Arrays.equals(this.value, ((Payload) obj).value);
+        if (!(obj instanceof Payload)) {
+            return false;
+        }
+        final Payload other = (Payload) obj;
+        if (length != other.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (array[offset + i] != other.array[other.offset + i]) {
+                return false;
+            }
+        }
+        return true;
     }
 }
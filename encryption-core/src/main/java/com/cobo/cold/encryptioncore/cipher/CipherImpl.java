@@ -22,9 +22,19 @@ import androidx.annotation.NonNull;
 import com.cobo.cold.encryptioncore.interfaces.Cipher;
 import com.cobo.cold.encryptioncore.utils.Preconditions;
 
+import java.security.Key;
+
+/**
+ * Triple des in cbc mode. The key is derived once and every thread keeps its own
+ * initialized cipher, which is back at the iv after each doFinal, so a frame
+ * costs a single doFinal.
+ */
 public class CipherImpl implements Cipher {
     private final byte[] mKey;
     private final byte[] mKeyIv;
+    private final ThreadLocal<javax.crypto.Cipher> mEncryptor = new ThreadLocal<>();
+    private final ThreadLocal<javax.crypto.Cipher> mDecryptor = new ThreadLocal<>();
+    private volatile Key mSecretKey;
 
     public CipherImpl(@NonNull byte[] key, @NonNull byte[] keyIv) {
         mKey = Preconditions.checkNotNull(key);
@@ -34,12 +44,65 @@ public class CipherImpl implements Cipher {
     @Override
     public byte[] encrypt(@NonNull byte[] data) throws Exception {
         Preconditions.checkNotNull(data);
-        return DES.encrypt(mKey, mKeyIv, data);
+        final javax.crypto.Cipher cipher = cipher(mEncryptor, javax.crypto.Cipher.ENCRYPT_MODE);
+        try {
+            return cipher.doFinal(data);
+        } catch (Exception e) {
+            mEncryptor.remove();
+            throw e;
+        }
     }
 
     @Override
     public byte[] decrypt(@NonNull byte[] encrypted) throws Exception {
         Preconditions.checkNotNull(encrypted);
-        return DES.decrypt(mKey, mKeyIv, encrypted);
+        final javax.crypto.Cipher cipher = cipher(mDecryptor, javax.crypto.Cipher.DECRYPT_MODE);
+        try {
+            return cipher.doFinal(encrypted);
+        } catch (Exception e) {
+            mDecryptor.remove();
+            throw e;
+        }
+    }
+
+    @Override
+    public int encrypt(@NonNull byte[] input, int offset, int length,
+                       @NonNull byte[] output, int outputOffset) throws Exception {
+        final javax.crypto.Cipher cipher = cipher(mEncryptor, javax.crypto.Cipher.ENCRYPT_MODE);
+        try {
+            return cipher.doFinal(input, offset, length, output, outputOffset);
+        } catch (Exception e) {
+            mEncryptor.remove();
+            throw e;
+        }
+    }
+
+    @Override
+    public int decrypt(@NonNull byte[] input, int offset, int length,
+                       @NonNull byte[] output, int outputOffset) throws Exception {
+        final javax.crypto.Cipher cipher = cipher(mDecryptor, javax.crypto.Cipher.DECRYPT_MODE);
+        try {
+            return cipher.doFinal(input, offset, length, output, outputOffset);
+        } catch (Exception e) {
+            mDecryptor.remove();
+            throw e;
+        }
+    }
+
+    /**
+     * a failed doFinal leaves the cipher in an unknown state, it is dropped and made again
+     */
+    @NonNull
+    private javax.crypto.Cipher cipher(@NonNull ThreadLocal<javax.crypto.Cipher> local, int mode)
+            throws Exception {
+        javax.crypto.Cipher cipher = local.get();
+        if (cipher == null) {
+            if (mSecretKey == null) {
+                mSecretKey = DES.newKey(mKey);
+            }
+            cipher = DES.newCipher(mode, mSecretKey, mKeyIv);
+            local.set(cipher);
+        }
+        return cipher;
     }
 }
@@ -47,14 +47,7 @@ class DES {
         Preconditions.checkNotNull(keyIv);
         Preconditions.checkNotNull(data);
 
-        final DESedeKeySpec spec = new DESedeKeySpec(keyBytes);
-        final Key desKey = SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec);
-
-        final Cipher cipher = Cipher.getInstance(ALGORITHM + PADDING);
-        final IvParameterSpec ips = new IvParameterSpec(keyIv);
-        cipher.init(Cipher.ENCRYPT_MODE, desKey, ips);
-
-        return cipher.doFinal(data);
+        return newCipher(Cipher.ENCRYPT_MODE, newKey(keyBytes), keyIv).doFinal(data);
     }
 
     public static byte[] decrypt(@NonNull byte[] keyBytes, @NonNull byte[] keyIv, byte[] encrypted)
@@ -65,13 +58,27 @@ class DES {
         Preconditions.checkNotNull(keyIv);
         Preconditions.checkNotNull(encrypted);
 
+        return newCipher(Cipher.DECRYPT_MODE, newKey(keyBytes), keyIv).doFinal(encrypted);
+    }
+
+    @NonNull
+    static Key newKey(@NonNull byte[] keyBytes) throws InvalidKeyException, NoSuchAlgorithmException,
+            InvalidKeySpecException {
         final DESedeKeySpec spec = new DESedeKeySpec(keyBytes);
-        final Key desKey = SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec);
+        return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec);
+    }
 
+    /**
+     * the cipher goes back to the iv after every doFinal, it can be reused for the next frame
+     */
+    @NonNull
+    static Cipher newCipher(int mode, @NonNull Key key, @NonNull byte[] keyIv)
+            throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidKeyException,
+            InvalidAlgorithmParameterException {
         final Cipher cipher = Cipher.getInstance(ALGORITHM + PADDING);
         final IvParameterSpec ips = new IvParameterSpec(keyIv);
-        cipher.init(Cipher.DECRYPT_MODE, desKey, ips);
+        cipher.init(mode, key, ips);
 
-        return cipher.doFinal(encrypted);
+        return cipher;
     }
 }
\ No newline at end of file
@@ -25,4 +25,12 @@ public interface Callback {
     void onSuccess(@NonNull Packet packet);
 
     void onFail(@NonNull Exception exception);
+
+    /**
+     * a cancelled request is failed with a CancellationException instead of being sent,
+     * a request already on the link still runs to the end
+     */
+    default boolean isCancelled() {
+        return false;
+    }
 }
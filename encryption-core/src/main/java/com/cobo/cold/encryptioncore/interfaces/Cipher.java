@@ -19,8 +19,35 @@ package com.cobo.cold.encryptioncore.interfaces;
 
 import androidx.annotation.NonNull;
 
+import java.util.Arrays;
+
 public interface Cipher {
     byte[] encrypt(@NonNull byte[] data) throws Exception;
 
     byte[] decrypt(@NonNull byte[] encrypted) throws Exception;
+
+    /**
+     * Encrypt a range into the output. The output may be the input array at the
+     * same offset, it must have room for the padding of the cipher.
+     *
+     * @return the number of bytes written
+     */
+    default int encrypt(@NonNull byte[] input, int offset, int length,
+                        @NonNull byte[] output, int outputOffset) throws Exception {
+        final byte[] encrypted = encrypt(Arrays.copyOfRange(input, offset, offset + length));
+        System.arraycopy(encrypted, 0, output, outputOffset, encrypted.length);
+        return encrypted.length;
+    }
+
+    /**
+     * Decrypt a range into the output, which may be the input array at the same offset.
+     *
+     * @return the number of bytes written
+     */
+    default int decrypt(@NonNull byte[] input, int offset, int length,
+                        @NonNull byte[] output, int outputOffset) throws Exception {
+        final byte[] decrypted = decrypt(Arrays.copyOfRange(input, offset, offset + length));
+        System.arraycopy(decrypted, 0, output, outputOffset, decrypted.length);
+        return decrypted.length;
+    }
 }
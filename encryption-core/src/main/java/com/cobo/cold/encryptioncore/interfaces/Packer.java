@@ -22,8 +22,18 @@ import androidx.annotation.NonNull;
 
 import com.cobo.cold.encryptioncore.base.Packet;
 
+import java.nio.ByteBuffer;
+
 public interface Packer {
     byte[] serialize(@NonNull Packet packet) throws Exception;
 
+    /**
+     * @return the frame between position 0 and the limit, it may be reused by the next call
+     */
+    @NonNull
+    default ByteBuffer encode(@NonNull Packet packet) throws Exception {
+        return ByteBuffer.wrap(serialize(packet));
+    }
+
     Packet deserialize(@NonNull byte[] bytes) throws Exception;
 }
\ No newline at end of file
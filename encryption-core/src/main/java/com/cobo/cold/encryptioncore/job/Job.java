@@ -18,91 +18,94 @@
 package com.cobo.cold.encryptioncore.job;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.VisibleForTesting;
 
 import com.cobo.cold.encryptioncore.base.Packet;
 import com.cobo.cold.encryptioncore.interfaces.Callback;
 import com.cobo.cold.encryptioncore.interfaces.Packer;
-import com.cobo.cold.encryptioncore.interfaces.SerialManagerProxy;
-import com.cobo.cold.encryptioncore.interfaces.SerialPortProxy;
-import com.cobo.cold.encryptioncore.utils.Preconditions;
+import com.cobo.cold.encryptioncore.metrics.SeMetrics;
+import com.cobo.cold.encryptioncore.serial.SerialSession;
 
-import java.io.IOException;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 
 class Job implements Runnable {
-    private final SerialManagerProxy mManager;
+    private final SerialSession mSession;
     private final Packet mPacket;
     private final Callback mCallback;
     private final Packer mPacker;
+    private final long mQueuedAt;
 
-    Job(@NonNull SerialManagerProxy manager, @NonNull Packer packer,
+    Job(@NonNull SerialSession session, @NonNull Packer packer,
         @NonNull Packet packet, @NonNull Callback callback) {
-        mManager = manager;
+        this(session, packer, packet, callback, System.nanoTime());
+    }
+
+    /**
+     * @param queuedAt {@link System#nanoTime()} when the packet was offered
+     */
+    Job(@NonNull SerialSession session, @NonNull Packer packer,
+        @NonNull Packet packet, @NonNull Callback callback, long queuedAt) {
+        mSession = session;
         mPacker = packer;
         mPacket = packet;
         mCallback = callback;
-    }
-
-    @NonNull
-    @VisibleForTesting
-    static SerialPortProxy openPort(@NonNull SerialManagerProxy manager) throws IOException {
-        final String[] portNumbers = manager.getSerialPorts();
-        Preconditions.checkArgument(portNumbers != null && portNumbers.length > 0, "port not found");
-
-        final SerialPortProxy port = manager.openSerialPort(portNumbers[0]);
-        Preconditions.checkNotNull(port, String.format("can not open port %s", portNumbers[0]));
-
-        return port;
+        mQueuedAt = queuedAt;
     }
 
     @Override
     public void run() {
-        mManager.acquireWakeLock();
+        if (mCallback.isCancelled()) {
+            mCallback.onFail(new CancellationException("cancelled before sent"));
+            return;
+        }
+        final SeMetrics metrics = SeMetrics.getInstance();
+        final int methodId = mPacket.getId();
+        metrics.record(methodId, SeMetrics.Stage.QUEUE_WAIT, mQueuedAt);
+        metrics.count(methodId, SeMetrics.Counter.CALLS);
+        mSession.begin();
         final int maxRetryTimes = mPacket.getRetryTimes();
 
-        for (int i = 0; i <= maxRetryTimes; ++i) {
-            Packet result = null;
-            Exception error = null;
+        try {
+            for (int i = 0; i <= maxRetryTimes; ++i) {
+                if (i > 0) {
+                    if (mCallback.isCancelled()) {
+                        mCallback.onFail(new CancellationException("cancelled before retry"));
+                        return;
+                    }
+                    metrics.count(methodId, SeMetrics.Counter.RETRIES);
+                }
+                Packet result = null;
+                Exception error = null;
 
-            try {
-                result = portCommunicate();
-            } catch (Exception e) {
-                error = e;
-            }
+                try {
+                    result = portCommunicate();
+                } catch (Exception e) {
+                    error = e;
+                    mSession.invalidate();
+                }
 
-            if (result != null) {
-                mCallback.onSuccess(result);
-                mManager.releaseWakeLock();
-                return;
-            } else if (i == maxRetryTimes) {
-                mCallback.onFail(error);
-                mManager.releaseWakeLock();
-                return;
+                if (result != null) {
+                    metrics.record(methodId, SeMetrics.Stage.TOTAL, mQueuedAt);
+                    mCallback.onSuccess(result);
+                    return;
+                } else if (i == maxRetryTimes) {
+                    metrics.record(methodId, SeMetrics.Stage.TOTAL, mQueuedAt);
+                    metrics.count(methodId, SeMetrics.Counter.FAILURES);
+                    mCallback.onFail(error);
+                    return;
+                }
             }
+        } finally {
+            mSession.end();
         }
 
-        mManager.releaseWakeLock();
         throw new IllegalStateException("this line should not be executed");
     }
 
     @NonNull
     private Packet portCommunicate() throws Exception {
-        SerialPortProxy port = null;
-
-        try {
-            port = openPort(mManager);
-            final Callable<Packet> callable = new Workshop(port, mPacker, mPacket);
-            return callable.call();
-        } finally {
-            if (port != null) {
-                try {
-                    port.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
-        }
-
+        final Callable<Packet> callable = new Workshop(mSession.port(), mPacker, mPacket,
+                mSession.reader(), mSession.readBuffer());
+        return callable.call();
     }
 }
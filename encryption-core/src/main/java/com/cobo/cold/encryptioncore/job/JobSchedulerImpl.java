@@ -25,24 +25,35 @@ import com.cobo.cold.encryptioncore.interfaces.Callback;
 import com.cobo.cold.encryptioncore.interfaces.Cipher;
 import com.cobo.cold.encryptioncore.interfaces.JobScheduler;
 import com.cobo.cold.encryptioncore.interfaces.SerialManagerProxy;
+import com.cobo.cold.encryptioncore.serial.SerialSession;
 import com.cobo.cold.encryptioncore.utils.Preconditions;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 public class JobSchedulerImpl implements JobScheduler {
-    private final SerialManagerProxy mManager;
+    private final SerialSession mSession;
     private final ExecutorService mExecutor;
-    private final Cipher mCipher;
+    // encodes into its own buffer, only used on the executor thread
+    private final PackerImpl mPacker;
 
     public JobSchedulerImpl(@NonNull SerialManagerProxy manager, @Nullable Cipher cipher) {
-        mManager = Preconditions.checkNotNull(manager);
-        mCipher = cipher;
+        this(new SerialSession(Preconditions.checkNotNull(manager)), cipher);
+    }
+
+    public JobSchedulerImpl(@NonNull SerialSession session, @Nullable Cipher cipher) {
+        mSession = Preconditions.checkNotNull(session);
+        mPacker = new PackerImpl(cipher);
         mExecutor = Executors.newSingleThreadExecutor();
     }
 
     @Override
     public void offer(@NonNull Packet packet, @NonNull Callback callback) {
-        mExecutor.submit(new Job(mManager, new PackerImpl(mCipher), packet, callback));
+        mExecutor.submit(new Job(mSession, mPacker, packet, callback));
+    }
+
+    @NonNull
+    public SerialSession getSession() {
+        return mSession;
     }
 }
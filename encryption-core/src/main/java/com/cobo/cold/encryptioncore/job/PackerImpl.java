@@ -24,19 +24,22 @@ import androidx.collection.SparseArrayCompat;
 
 import com.cobo.cold.encryptioncore.base.Packet;
 import com.cobo.cold.encryptioncore.base.Payload;
+import com.cobo.cold.encryptioncore.exception.LrcException;
 import com.cobo.cold.encryptioncore.interfaces.CONSTANTS;
 import com.cobo.cold.encryptioncore.interfaces.Cipher;
 import com.cobo.cold.encryptioncore.interfaces.Packer;
 import com.cobo.cold.encryptioncore.utils.ByteFormatter;
 import com.cobo.cold.encryptioncore.utils.Preconditions;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.util.Arrays;
+import java.nio.ByteBuffer;
 
+/**
+ * Frames are encoded into a buffer owned by the packer, so a packer must only
+ * encode on one thread at a time.
+ */
 class PackerImpl implements Packer {
     private final Cipher mCipher;
+    private final TlvCodec mCodec = new TlvCodec();
 
     PackerImpl(@Nullable Cipher cipher) {
         mCipher = cipher;
@@ -44,36 +47,37 @@ class PackerImpl implements Packer {
 
     @Override
     public byte[] serialize(@NonNull Packet packet) throws Exception {
-        Preconditions.checkNotNull(packet);
-        byte[] body = serializeBody(packet);
-        body = mCipher != null ? mCipher.encrypt(body) : body;
+        final ByteBuffer frame = encode(packet);
+        final byte[] bytes = new byte[frame.remaining()];
+        frame.get(bytes);
 
-        if (body.length > CONSTANTS.MAX_BODY_SIZE) {
-            throw new IllegalArgumentException(String.format("the length of packet body [%s] is greater than %s",
-                    body.length, CONSTANTS.MAX_BODY_SIZE));
-        }
-
-        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        return bytes;
+    }
 
-        outputStream.write(CONSTANTS.STX);
-        outputStream.write(mCipher != null ?
-                CONSTANTS.ENCRYPTION_STATUS.ENABLED : CONSTANTS.ENCRYPTION_STATUS.DISABLED
-        );
-        outputStream.write(ByteFormatter.short2bytes(body.length));
-        outputStream.write(body);
-        outputStream.write(CONSTANTS.ETX);
+    @NonNull
+    @Override
+    public ByteBuffer encode(@NonNull Packet packet) throws Exception {
+        Preconditions.checkNotNull(packet);
+        encodeBody(packet);
+        if (mCipher != null) {
+            mCodec.encryptBody(mCipher);
+        }
 
-        final byte lrc = calculateLRC(outputStream.toByteArray());
-        outputStream.write(lrc);
+        return mCodec.finish(mCipher != null ?
+                CONSTANTS.ENCRYPTION_STATUS.ENABLED : CONSTANTS.ENCRYPTION_STATUS.DISABLED);
+    }
 
-        return outputStream.toByteArray();
+    private void encodeBody(@NonNull Packet packet) {
+        fitPayload(packet, CONSTANTS.TAGS.PACKET_ID, ByteFormatter.short2bytes(packet.getId()));
+        mCodec.begin();
+        mCodec.putPayloads(packet.getPayloads());
     }
 
     @NonNull
     @VisibleForTesting
-    byte[] serializeBody(@NonNull Packet packet) throws IOException {
-        fitPayload(packet, CONSTANTS.TAGS.PACKET_ID, ByteFormatter.short2bytes(packet.getId()));
-        return serializePayloads(packet.getPayloads());
+    byte[] serializeBody(@NonNull Packet packet) {
+        encodeBody(packet);
+        return mCodec.copyBody();
     }
 
     private void fitPayload(@NonNull Packet packet, int id, @NonNull byte[] bytes) {
@@ -84,35 +88,23 @@ class PackerImpl implements Packer {
 
     @NonNull
     @VisibleForTesting
-    byte[] serializePayloads(@NonNull SparseArrayCompat<Payload> payloads) throws
-            IOException {
-        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-
-        for (int i = 0, size = payloads.size(); i < size; ++i) {
-            final int tag = payloads.keyAt(i);
-            final Payload payload = payloads.valueAt(i);
-
-            if (payload == null) {
-                continue;
-            }
-
-            outputStream.write(serializeTLV(tag, payload.getValue()));
-        }
-
-        return outputStream.toByteArray();
+    byte[] serializePayloads(@NonNull SparseArrayCompat<Payload> payloads) {
+        mCodec.begin();
+        mCodec.putPayloads(payloads);
+        return mCodec.copyBody();
     }
 
     @NonNull
     @VisibleForTesting
     byte[] serializeTLV(int tag, @NonNull byte[] value) {
-        final byte[] bytes = new byte[2 + 2 + value.length];
-        System.arraycopy(ByteFormatter.short2bytes(tag), 0, bytes, 0, 2);
-        System.arraycopy(ByteFormatter.short2bytes(value.length), 0, bytes, 2, 2);
-        System.arraycopy(value, 0, bytes, 4, value.length);
-
-        return bytes;
+        mCodec.begin();
+        mCodec.putTlv(tag, new Payload(value));
+        return mCodec.copyBody();
     }
 
+    /**
+     * an encrypted body is decrypted in place, the bytes are changed
+     */
     @Override
     public Packet deserialize(@NonNull byte[] bytes) throws Exception {
         Preconditions.checkNotNull(bytes);
@@ -120,20 +112,29 @@ class PackerImpl implements Packer {
 
         final boolean encrypt = bytes[1] == CONSTANTS.ENCRYPTION_STATUS.ENABLED;
         Preconditions.checkState(!(encrypt && mCipher == null), "encrypt disabled but got encrypted data");
-        final int lenOfBody = ByteFormatter.bytes2short(new byte[]{bytes[2], bytes[3]});
-        byte[] body = Arrays.copyOfRange(bytes, 4, 4 + lenOfBody);
-        body = encrypt ? mCipher.decrypt(body) : body;
-
-        final Packet.Builder builder = deserializeBody(body);
+        final int lenOfBody = TlvCodec.readShort(bytes, 2);
+        Preconditions.checkArgument(TlvCodec.HEADER_SIZE + lenOfBody + 2 == bytes.length,
+                "the length of body does not match the frame");
+
+        final SparseArrayCompat<Payload> payloads;
+        if (encrypt) {
+            final int length = mCipher.decrypt(bytes, TlvCodec.HEADER_SIZE, lenOfBody, bytes, TlvCodec.HEADER_SIZE);
+            payloads = TlvCodec.readPayloads(bytes, TlvCodec.HEADER_SIZE, length);
+        } else {
+            payloads = TlvCodec.readPayloads(bytes, TlvCodec.HEADER_SIZE, lenOfBody);
+        }
 
-        return builder.build();
+        return toBuilder(payloads).build();
     }
 
     @NonNull
     @VisibleForTesting
     Packet.Builder deserializeBody(@NonNull byte[] bytes) {
-        final SparseArrayCompat<Payload> payloads = deserializePayloads(bytes);
+        return toBuilder(deserializePayloads(bytes));
+    }
 
+    @NonNull
+    private Packet.Builder toBuilder(@NonNull SparseArrayCompat<Payload> payloads) {
         Preconditions.checkState(payloads.indexOfKey(CONSTANTS.TAGS.PACKET_ID) >= 0,
                 "deserialize data has no id which tag is %s");
 
@@ -144,7 +145,7 @@ class PackerImpl implements Packer {
             final int tag = payloads.keyAt(i);
             final Payload payload = Preconditions.checkNotNull(payloads.valueAt(i));
 
-            builder.addBytesPayload(tag, payload.getValue());
+            builder.addPayload(tag, payload);
         }
 
         return builder;
@@ -153,69 +154,46 @@ class PackerImpl implements Packer {
     @NonNull
     @VisibleForTesting
     SparseArrayCompat<Payload> deserializePayloads(@NonNull byte[] bytes) {
-        final SparseArrayCompat<Payload> payloads = new SparseArrayCompat<>();
-        final ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
-        inputStream.reset();
-
-        int offset = 0;
-        int available = inputStream.available();
-
-        while (offset < available) {
-            final byte[] twoBytesBuffer = new byte[2];
-            inputStream.read(twoBytesBuffer, 0, 2);
-            offset += 2;
-            final int tag = ByteFormatter.bytes2short(twoBytesBuffer);
-
-            inputStream.read(twoBytesBuffer, 0, 2);
-            offset += 2;
-            final int lenOfVal = ByteFormatter.bytes2short(twoBytesBuffer);
-
-            final byte[] valueBuffer = new byte[lenOfVal];
-            inputStream.read(valueBuffer, 0, lenOfVal);
-            offset += lenOfVal;
-            payloads.put(tag, new Payload(valueBuffer));
-        }
-
-        Preconditions.checkState(offset == available, "illegal data");
-        return payloads;
+        return TlvCodec.readPayloads(bytes, 0, bytes.length);
     }
 
+    /**
+     * messages are only formatted on failure, this runs for every received frame
+     */
     @VisibleForTesting
     void checkSerializedData(@NonNull byte[] bytes) {
         Preconditions.checkNotNull(bytes);
-        Preconditions.checkArgument(bytes.length >= CONSTANTS.MIN_BUFFER_SIZE,
-                String.format("the length of bytes must be greater or equal to %s",
-                        CONSTANTS.MIN_BUFFER_SIZE));
-
-        Preconditions.checkArgument(bytes[0] == CONSTANTS.STX,
-                String.format("the first byte must be constant %s",
-                        ByteFormatter.addHexPrefix(CONSTANTS.STX)));
-
-        Preconditions.checkArgument(bytes[1] == CONSTANTS.ENCRYPTION_STATUS.DISABLED
-                        || bytes[1] == CONSTANTS.ENCRYPTION_STATUS.ENABLED,
-                String.format("the second byte must be one of [%s, %s]",
-                        ByteFormatter.addHexPrefix(CONSTANTS.ENCRYPTION_STATUS.DISABLED),
-                        ByteFormatter.addHexPrefix(CONSTANTS.ENCRYPTION_STATUS.ENABLED)));
-
-        Preconditions.checkArgument(bytes[bytes.length - 2] == CONSTANTS.ETX,
-                String.format("the second to last byte must be constant %s",
-                        ByteFormatter.addHexPrefix(CONSTANTS.ETX)));
-
-        Preconditions.checkArgument(bytes[bytes.length - 1] ==
-                        calculateLRC(Arrays.copyOf(bytes, bytes.length - 1)),
-                String.format("lrc is not the same, expected %s, but actual is %s",
-                        bytes[bytes.length - 1],
-                        calculateLRC(Arrays.copyOf(bytes, bytes.length - 1))));
-    }
+        if (bytes.length < CONSTANTS.MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException(String.format("the length of bytes must be greater or equal to %s",
+                    CONSTANTS.MIN_BUFFER_SIZE));
+        }
 
-    @VisibleForTesting
-    byte calculateLRC(@NonNull byte[] bytes) {
-        byte lrc = 0x0;
+        if (bytes[0] != CONSTANTS.STX) {
+            throw new IllegalArgumentException(String.format("the first byte must be constant %s",
+                    ByteFormatter.addHexPrefix(CONSTANTS.STX)));
+        }
+
+        if (bytes[1] != CONSTANTS.ENCRYPTION_STATUS.DISABLED
+                && bytes[1] != CONSTANTS.ENCRYPTION_STATUS.ENABLED) {
+            throw new IllegalArgumentException(String.format("the second byte must be one of [%s, %s]",
+                    ByteFormatter.addHexPrefix(CONSTANTS.ENCRYPTION_STATUS.DISABLED),
+                    ByteFormatter.addHexPrefix(CONSTANTS.ENCRYPTION_STATUS.ENABLED)));
+        }
 
-        for (byte b : bytes) {
-            lrc ^= b;
+        if (bytes[bytes.length - 2] != CONSTANTS.ETX) {
+            throw new IllegalArgumentException(String.format("the second to last byte must be constant %s",
+                    ByteFormatter.addHexPrefix(CONSTANTS.ETX)));
         }
 
-        return lrc;
+        final byte lrc = TlvCodec.lrc(bytes, 0, bytes.length - 1);
+        if (bytes[bytes.length - 1] != lrc) {
+            throw new LrcException(String.format("lrc is not the same, expected %s, but actual is %s",
+                    bytes[bytes.length - 1], lrc));
+        }
+    }
+
+    @VisibleForTesting
+    byte calculateLRC(@NonNull byte[] bytes) {
+        return TlvCodec.lrc(bytes, 0, bytes.length);
     }
 }
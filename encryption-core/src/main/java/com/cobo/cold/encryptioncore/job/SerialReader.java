@@ -33,15 +33,31 @@ import java.util.concurrent.Callable;
 
 import static com.cobo.cold.encryptioncore.interfaces.CONSTANTS.STX;
 
+/**
+ * Read one frame from the port. The frame is decoded in place by milestones on
+ * the given buffer, which is reused by every read of a session, so the only
+ * allocation per frame is the returned copy. Bytes read past the end of a frame
+ * are left at the front of the buffer with the buffer position after them, so the
+ * next reader on the same buffer starts from them instead of dropping them.
+ */
 class SerialReader implements Callable<byte[]> {
     private static final String TAG = "EncryptionCore.SerialReader";
     private final SerialPortProxy mPort;
+    private final ByteBuffer mBuffer;
+    private long mFirstByteAt;
 
     SerialReader(@NonNull SerialPortProxy port) {
+        this(port, ByteBuffer.allocateDirect(CONSTANTS.MAX_BUFFER_SIZE));
+    }
+
+    SerialReader(@NonNull SerialPortProxy port, @NonNull ByteBuffer buffer) {
         mPort = Preconditions.checkNotNull(port);
+        mBuffer = Preconditions.checkNotNull(buffer);
     }
 
     /**
+     * error messages are only formatted on failure, this runs for every received frame
+     *
      * @param buffer    readable byte buffer
      * @param milestone current milestone
      * @param position  current position
@@ -52,17 +68,20 @@ class SerialReader implements Callable<byte[]> {
     static int checkMilestone(@NonNull ByteBuffer buffer, int milestone, int position) {
         switch (milestone) {
             case 0: { // stx
-                Preconditions.checkArgument(buffer.get(position) == CONSTANTS.STX,
-                        String.format("stx must be constant %s", ByteFormatter.addHexPrefix(CONSTANTS.STX)));
+                if (buffer.get(position) != CONSTANTS.STX) {
+                    throw new IllegalArgumentException(String.format("stx must be constant %s",
+                            ByteFormatter.addHexPrefix(CONSTANTS.STX)));
+                }
                 return 1; // sizeOf(encryption)
             }
 
             case 1: { // encryption
                 final byte b = buffer.get(position);
-                Preconditions.checkArgument(b == CONSTANTS.ENCRYPTION_STATUS.DISABLED
-                        || b == CONSTANTS.ENCRYPTION_STATUS.ENABLED, String.format("encryption must be one of [%s, %s]",
-                        ByteFormatter.addHexPrefix(CONSTANTS.ENCRYPTION_STATUS.DISABLED),
-                        ByteFormatter.addHexPrefix(CONSTANTS.ENCRYPTION_STATUS.ENABLED)));
+                if (b != CONSTANTS.ENCRYPTION_STATUS.DISABLED && b != CONSTANTS.ENCRYPTION_STATUS.ENABLED) {
+                    throw new IllegalArgumentException(String.format("encryption must be one of [%s, %s]",
+                            ByteFormatter.addHexPrefix(CONSTANTS.ENCRYPTION_STATUS.DISABLED),
+                            ByteFormatter.addHexPrefix(CONSTANTS.ENCRYPTION_STATUS.ENABLED)));
+                }
                 return 2; // sizeOf(lenOfBody)
             }
 
@@ -78,8 +97,10 @@ class SerialReader implements Callable<byte[]> {
             }
 
             case 4: {
-                Preconditions.checkArgument(buffer.get(position) == CONSTANTS.ETX, String.format("etx must be constant %s",
-                        ByteFormatter.addHexPrefix(CONSTANTS.ETX)));
+                if (buffer.get(position) != CONSTANTS.ETX) {
+                    throw new IllegalArgumentException(String.format("etx must be constant %s",
+                            ByteFormatter.addHexPrefix(CONSTANTS.ETX)));
+                }
 
                 return 1; // sizeOf(lrc)
             }
@@ -93,9 +114,19 @@ class SerialReader implements Callable<byte[]> {
         }
     }
 
+    /**
+     * @return {@link System#nanoTime()} when the first byte of the last frame was read
+     */
+    long getFirstByteAt() {
+        return mFirstByteAt;
+    }
+
     @Override
     public byte[] call() throws Exception {
-        final ByteBuffer buffer = ByteBuffer.allocateDirect(CONSTANTS.MAX_BUFFER_SIZE);
+        final ByteBuffer buffer = mBuffer;
+        int carried = buffer.position();
+        buffer.clear();
+        buffer.position(carried);
 
         boolean looping = true;
         int position = 0;
@@ -103,19 +134,18 @@ class SerialReader implements Callable<byte[]> {
         int target = 1; // sizeOf(stx)
         int milestone = 0;
         int read;
+        mFirstByteAt = carried > 0 ? System.nanoTime() : 0;
 
         while (looping) {
-            read = mPort.read(buffer, limit);
-            if (read != 0) {
-                byte[] data = new byte[read];
-                int pos = buffer.position();
-                buffer.get(data);
-                buffer.position(pos);
-                if (buffer.get(0) != STX) {
-                    Log.w(TAG, "receive: " + ByteFormatter.bytes2utf8(data));
-                    buffer.position(0);
-                    continue;
-                }
+            read = carried > 0 ? carried : mPort.read(buffer, limit);
+            carried = 0;
+            if (read != 0 && buffer.get(0) != STX) {
+                logNoise(buffer, limit, read);
+                buffer.position(0);
+                continue;
+            }
+            if (read != 0 && mFirstByteAt == 0) {
+                mFirstByteAt = System.nanoTime();
             }
 
             limit += read;
@@ -133,11 +163,23 @@ class SerialReader implements Callable<byte[]> {
             }
         }
 
-        buffer.position(position);
-        buffer.flip();
         final byte[] bytes = new byte[position];
-        buffer.get(bytes);
+        buffer.position(0);
+        buffer.get(bytes, 0, position);
+
+        for (int i = position; i < limit; i++) {
+            buffer.put(i - position, buffer.get(i));
+        }
+        buffer.position(limit - position);
 
         return bytes;
     }
+
+    private static void logNoise(@NonNull ByteBuffer buffer, int offset, int length) {
+        final byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = buffer.get(offset + i);
+        }
+        Log.w(TAG, "receive: " + ByteFormatter.bytes2utf8(data));
+    }
 }
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.encryptioncore.job;
+
+import androidx.annotation.NonNull;
+import androidx.collection.SparseArrayCompat;
+
+import com.cobo.cold.encryptioncore.base.Payload;
+import com.cobo.cold.encryptioncore.interfaces.CONSTANTS;
+import com.cobo.cold.encryptioncore.interfaces.Cipher;
+import com.cobo.cold.encryptioncore.utils.Preconditions;
+
+import java.nio.ByteBuffer;
+
+/**
+ * TLV frames on byte buffers.
+ * <pre>
+ * frame: stx(1) | encryption(1) | len(2) | body | etx(1) | lrc(1)
+ * body:  tag(2) | len(2) | value, repeated
+ * </pre>
+ * Frames are encoded straight into one reused buffer with the lrc accumulated
+ * while writing. Decoded payloads are views on the received bytes, nothing is
+ * copied. An encoder is not thread safe.
+ */
+final class TlvCodec {
+    static final int HEADER_SIZE = 1 /*stx*/ + 1 /*encryption*/ + 2 /*length*/;
+    private static final int TLV_HEADER_SIZE = 2 /*tag*/ + 2 /*length*/;
+
+    // room for the des padding added to a full body
+    private static final int CIPHER_HEADROOM = 8;
+
+    private final ByteBuffer mFrame = ByteBuffer.allocate(CONSTANTS.MAX_BUFFER_SIZE + CIPHER_HEADROOM);
+    private byte mLrc;
+
+    /**
+     * start a new frame, the previous one is overwritten
+     */
+    void begin() {
+        mFrame.clear();
+        mFrame.position(HEADER_SIZE);
+        mLrc = 0;
+    }
+
+    void putPayloads(@NonNull SparseArrayCompat<Payload> payloads) {
+        for (int i = 0, size = payloads.size(); i < size; ++i) {
+            final Payload payload = payloads.valueAt(i);
+            if (payload != null) {
+                putTlv(payloads.keyAt(i), payload);
+            }
+        }
+    }
+
+    void putTlv(int tag, @NonNull Payload value) {
+        final int start = mFrame.position();
+        checkBodySize(start - HEADER_SIZE + TLV_HEADER_SIZE + value.length());
+        mFrame.putShort((short) tag);
+        mFrame.putShort((short) value.length());
+        value.writeTo(mFrame);
+        mLrc ^= lrc(mFrame.array(), start, mFrame.position());
+    }
+
+    int bodyLength() {
+        return mFrame.position() - HEADER_SIZE;
+    }
+
+    @NonNull
+    byte[] copyBody() {
+        final byte[] body = new byte[bodyLength()];
+        System.arraycopy(mFrame.array(), HEADER_SIZE, body, 0, body.length);
+        return body;
+    }
+
+    /**
+     * encrypt the body written so far in place
+     */
+    void encryptBody(@NonNull Cipher cipher) throws Exception {
+        final byte[] array = mFrame.array();
+        final int length = cipher.encrypt(array, HEADER_SIZE, bodyLength(), array, HEADER_SIZE);
+        checkBodySize(length);
+        mFrame.position(HEADER_SIZE + length);
+        mLrc = lrc(array, HEADER_SIZE, HEADER_SIZE + length);
+    }
+
+    /**
+     * @return the frame between position 0 and the limit, valid until the next {@link #begin()}
+     */
+    @NonNull
+    ByteBuffer finish(int encryption) {
+        final int bodyLength = bodyLength();
+        mFrame.put(0, CONSTANTS.STX);
+        mFrame.put(1, (byte) encryption);
+        mFrame.putShort(2, (short) bodyLength);
+        mFrame.put(CONSTANTS.ETX);
+
+        mLrc ^= lrc(mFrame.array(), 0, HEADER_SIZE);
+        mLrc ^= CONSTANTS.ETX;
+        mFrame.put(mLrc);
+
+        mFrame.flip();
+        return mFrame;
+    }
+
+    private static void checkBodySize(int size) {
+        if (size > CONSTANTS.MAX_BODY_SIZE) {
+            throw new IllegalArgumentException(String.format("the length of packet body [%s] is greater than %s",
+                    size, CONSTANTS.MAX_BODY_SIZE));
+        }
+    }
+
+    /**
+     * @param bytes  a whole frame
+     * @param offset where the body starts
+     * @param length the length of the body
+     * @return the payloads by tag, each one a view on the bytes
+     */
+    @NonNull
+    static SparseArrayCompat<Payload> readPayloads(@NonNull byte[] bytes, int offset, int length) {
+        final SparseArrayCompat<Payload> payloads = new SparseArrayCompat<>();
+        final int end = offset + length;
+        int position = offset;
+
+        while (position + TLV_HEADER_SIZE <= end) {
+            final int tag = readShort(bytes, position);
+            final int lenOfVal = readShort(bytes, position + 2);
+            position += TLV_HEADER_SIZE;
+            Preconditions.checkState(position + lenOfVal <= end, "illegal data");
+
+            payloads.put(tag, new Payload(bytes, position, lenOfVal));
+            position += lenOfVal;
+        }
+
+        Preconditions.checkState(position == end, "illegal data");
+        return payloads;
+    }
+
+    static int readShort(@NonNull byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+
+    static byte lrc(@NonNull byte[] bytes, int from, int to) {
+        byte lrc = 0x0;
+
+        for (int i = from; i < to; i++) {
+            lrc ^= bytes[i];
+        }
+
+        return lrc;
+    }
+}
@@ -23,8 +23,11 @@ import androidx.annotation.NonNull;
 
 import com.cobo.cold.encryptioncore.BuildConfig;
 import com.cobo.cold.encryptioncore.base.Packet;
+import com.cobo.cold.encryptioncore.exception.LrcException;
+import com.cobo.cold.encryptioncore.interfaces.CONSTANTS;
 import com.cobo.cold.encryptioncore.interfaces.Packer;
 import com.cobo.cold.encryptioncore.interfaces.SerialPortProxy;
+import com.cobo.cold.encryptioncore.metrics.SeMetrics;
 import com.cobo.cold.encryptioncore.utils.ByteFormatter;
 import com.cobo.cold.encryptioncore.utils.Preconditions;
 
@@ -34,19 +37,44 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 class Workshop implements Callable<Packet> {
     private static final String TAG = "EncryptionCore.Workshop";
     private static final int DEFAULT_TIMEOUT = 60;
+    private static ExecutorService sSharedReader;
     private final SerialPortProxy mPort;
-    private final ExecutorService sExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService mReader;
+    private final ByteBuffer mReadBuffer;
     private final Packet mPacket;
     private final Packer mPacker;
 
     Workshop(@NonNull SerialPortProxy port, @NonNull Packer packer, @NonNull Packet packet) {
+        this(port, packer, packet, sharedReader(), ByteBuffer.allocateDirect(CONSTANTS.MAX_BUFFER_SIZE));
+    }
+
+    /**
+     * @param reader     the reader thread of the session, reads never run concurrently on it
+     * @param readBuffer reused by every read on the reader thread
+     */
+    Workshop(@NonNull SerialPortProxy port, @NonNull Packer packer, @NonNull Packet packet,
+             @NonNull ExecutorService reader, @NonNull ByteBuffer readBuffer) {
         mPort = Preconditions.checkNotNull(port);
         mPacker = packer;
         mPacket = Preconditions.checkNotNull(packet);
+        mReader = Preconditions.checkNotNull(reader);
+        mReadBuffer = Preconditions.checkNotNull(readBuffer);
+    }
+
+    private static synchronized ExecutorService sharedReader() {
+        if (sSharedReader == null) {
+            sSharedReader = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "workshop-reader");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return sSharedReader;
     }
 
     private void logBytes(boolean isRequest, @NonNull String id, @NonNull byte[] bytes) {
@@ -62,6 +90,16 @@ class Workshop implements Callable<Packet> {
         }
     }
 
+    private void logBytes(boolean isRequest, @NonNull String id, @NonNull ByteBuffer frame) {
+        if (!BuildConfig.DEBUG) {
+            return;
+        }
+
+        final byte[] bytes = new byte[frame.remaining()];
+        frame.duplicate().get(bytes);
+        logBytes(isRequest, id, bytes);
+    }
+
     private void logPacket(boolean isRequest, @NonNull Packet packet) {
         if (!BuildConfig.DEBUG) {
             return;
@@ -72,18 +110,46 @@ class Workshop implements Callable<Packet> {
 
     @Override
     public Packet call() throws Exception {
-        final String id = ByteFormatter.addHexPrefix(mPacket.getId());
-        final byte[] outputBytes = mPacker.serialize(mPacket);
-        logBytes(true, id, outputBytes);
+        final SeMetrics metrics = SeMetrics.getInstance();
+        final int methodId = mPacket.getId();
+        final String id = ByteFormatter.addHexPrefix(methodId);
+        long start = System.nanoTime();
+        final ByteBuffer frame = mPacker.encode(mPacket);
+        metrics.record(methodId, SeMetrics.Stage.SERIALIZE, start);
+        logBytes(true, id, frame);
         logPacket(true, mPacket);
-        mPort.write(ByteBuffer.wrap(outputBytes), outputBytes.length);
+        start = System.nanoTime();
+        mPort.write(frame, frame.remaining());
+        metrics.record(methodId, SeMetrics.Stage.WRITE, start);
 
-        final Future<byte[]> future = sExecutor.submit(new SerialReader(mPort));
+        final SerialReader reader = new SerialReader(mPort, mReadBuffer);
+        final long written = System.nanoTime();
+        final Future<byte[]> future = mReader.submit(reader);
         int timeout = mPacket.getTimeout() == 0 ? DEFAULT_TIMEOUT : mPacket.getTimeout();
-        final byte[] inputBytes = future.get(timeout, TimeUnit.SECONDS);
+        final byte[] inputBytes;
+        try {
+            inputBytes = future.get(timeout, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            metrics.count(methodId, SeMetrics.Counter.TIMEOUTS);
+            // the job invalidates the session after this failure, which gives the next read a fresh reader
+            future.cancel(true);
+            throw e;
+        }
+        metrics.record(methodId, SeMetrics.Stage.FULL_READ, written);
+        if (reader.getFirstByteAt() != 0) {
+            metrics.recordNanos(methodId, SeMetrics.Stage.FIRST_BYTE, reader.getFirstByteAt() - written);
+        }
         logBytes(false, id, inputBytes);
 
-        Packet packet = mPacker.deserialize(inputBytes);
+        start = System.nanoTime();
+        final Packet packet;
+        try {
+            packet = mPacker.deserialize(inputBytes);
+        } catch (LrcException e) {
+            metrics.count(methodId, SeMetrics.Counter.LRC_FAILURES);
+            throw e;
+        }
+        metrics.record(methodId, SeMetrics.Stage.DESERIALIZE, start);
         logPacket(false, packet);
         return packet;
     }
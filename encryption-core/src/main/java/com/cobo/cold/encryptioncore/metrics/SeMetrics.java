@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.encryptioncore.metrics;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.cobo.cold.encryptioncore.utils.ByteFormatter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency of every stage of a request and failure counters, per method id.
+ * Stages are recorded in microseconds. The schedulers record into the
+ * process wide instance, the app dumps it with its logs.
+ */
+public final class SeMetrics {
+
+    public enum Stage {
+        // offer until the request is taken off the queue
+        QUEUE_WAIT,
+        SERIALIZE,
+        WRITE,
+        // end of write until the first byte of the response, serial requests only
+        FIRST_BYTE,
+        // end of write until the whole response frame is read
+        FULL_READ,
+        DESERIALIZE,
+        // offer until the callback
+        TOTAL
+    }
+
+    public enum Counter {
+        CALLS,
+        FAILURES,
+        RETRIES,
+        TIMEOUTS,
+        LRC_FAILURES
+    }
+
+    // broken frames of pipelined reads, they can not be matched to a method
+    public static final int UNMATCHED = 0;
+
+    private static final SeMetrics sInstance = new SeMetrics();
+
+    private final Map<Integer, MethodMetrics> mMethods = new ConcurrentHashMap<>();
+
+    @NonNull
+    public static SeMetrics getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * record the time from the start until now
+     */
+    public void record(int methodId, @NonNull Stage stage, long startNanos) {
+        recordNanos(methodId, stage, System.nanoTime() - startNanos);
+    }
+
+    public void recordNanos(int methodId, @NonNull Stage stage, long nanos) {
+        of(methodId).mStages[stage.ordinal()].record(nanos / 1000);
+    }
+
+    public void count(int methodId, @NonNull Counter counter) {
+        of(methodId).mCounters.incrementAndGet(counter.ordinal());
+    }
+
+    @Nullable
+    public MethodMetrics get(int methodId) {
+        return mMethods.get(methodId);
+    }
+
+    /**
+     * @return method id to its metrics, sorted by id
+     */
+    @NonNull
+    public Map<Integer, MethodMetrics> getMethods() {
+        return Collections.unmodifiableMap(new TreeMap<>(mMethods));
+    }
+
+    public void reset() {
+        mMethods.clear();
+    }
+
+    /**
+     * write a plain text report, times in milliseconds
+     *
+     * @param names method id to a readable name, optional
+     */
+    public void dump(@NonNull Writer writer, @Nullable Map<Integer, String> names) throws IOException {
+        for (Map.Entry<Integer, MethodMetrics> entry : getMethods().entrySet()) {
+            final MethodMetrics metrics = entry.getValue();
+            final String name = names != null ? names.get(entry.getKey()) : null;
+            writer.write(ByteFormatter.addHexPrefix(entry.getKey()) + (name != null ? " " + name : ""));
+            for (Counter counter : Counter.values()) {
+                writer.write(" " + counter.name().toLowerCase(Locale.US) + "=" + metrics.getCount(counter));
+            }
+            writer.write('\n');
+            writer.write(String.format(Locale.US, "  %-12s %8s %9s %9s %9s %9s %9s%n",
+                    "stage", "count", "mean", "p50", "p90", "p99", "max"));
+            for (Stage stage : Stage.values()) {
+                final Histogram histogram = metrics.getHistogram(stage);
+                if (histogram.getCount() == 0) {
+                    continue;
+                }
+                writer.write(String.format(Locale.US, "  %-12s %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                        stage.name().toLowerCase(Locale.US), histogram.getCount(),
+                        histogram.getMean() / 1000,
+                        histogram.getValueAtPercentile(50) / 1000.0,
+                        histogram.getValueAtPercentile(90) / 1000.0,
+                        histogram.getValueAtPercentile(99) / 1000.0,
+                        histogram.getMax() / 1000.0));
+            }
+        }
+        writer.flush();
+    }
+
+    @NonNull
+    private MethodMetrics of(int methodId) {
+        final MethodMetrics metrics = mMethods.get(methodId);
+        return metrics != null ? metrics : mMethods.computeIfAbsent(methodId, k -> new MethodMetrics());
+    }
+
+    public static final class MethodMetrics {
+        private final Histogram[] mStages = new Histogram[Stage.values().length];
+        private final AtomicLongArray mCounters = new AtomicLongArray(Counter.values().length);
+
+        MethodMetrics() {
+            for (int i = 0; i < mStages.length; i++) {
+                mStages[i] = new Histogram();
+            }
+        }
+
+        @NonNull
+        public Histogram getHistogram(@NonNull Stage stage) {
+            return mStages[stage.ordinal()];
+        }
+
+        public long getCount(@NonNull Counter counter) {
+            return mCounters.get(counter.ordinal());
+        }
+    }
+}
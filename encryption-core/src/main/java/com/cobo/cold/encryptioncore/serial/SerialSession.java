@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.encryptioncore.serial;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import com.cobo.cold.encryptioncore.interfaces.CONSTANTS;
+import com.cobo.cold.encryptioncore.interfaces.SerialManagerProxy;
+import com.cobo.cold.encryptioncore.interfaces.SerialPortProxy;
+import com.cobo.cold.encryptioncore.utils.Preconditions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A serial port kept open across jobs.
+ * <p>
+ * Every job runs between {@link #begin()} and {@link #end()}, the port is opened
+ * lazily by {@link #port()} and closed once the session stayed idle for the idle
+ * timeout. A port that failed is dropped by {@link #invalidate()} and reopened on
+ * the next {@link #port()}. The wake lock is held as long as the port is open.
+ * <p>
+ * A read stuck on a dead port may never return, so {@link #invalidate()} also
+ * leaves the reader thread and its buffer to that read and starts a fresh pair.
+ */
+public class SerialSession {
+    private static final String TAG = "EncryptionCore.SerialSession";
+    public static final long DEFAULT_IDLE_TIMEOUT_MS = 5000;
+    public static final long DEFAULT_PROBE_AFTER_MS = 2000;
+
+    private final SerialManagerProxy mManager;
+    private final long mIdleTimeoutMs;
+    private final long mProbeAfterMs;
+    private final ScheduledExecutorService mIdleExecutor;
+    private ExecutorService mReader;
+    private ByteBuffer mReadBuffer;
+
+    private SerialPortProxy mPort;
+    private String mPortName;
+    private boolean mWakeLocked;
+    private boolean mBroken;
+    private int mActiveJobs;
+    private long mLastUsed;
+    private ScheduledFuture<?> mIdleClose;
+
+    private final AtomicLong mOpens = new AtomicLong();
+    private final AtomicLong mReuses = new AtomicLong();
+    private final AtomicLong mReconnects = new AtomicLong();
+
+    public SerialSession(@NonNull SerialManagerProxy manager) {
+        this(manager, DEFAULT_IDLE_TIMEOUT_MS, DEFAULT_PROBE_AFTER_MS);
+    }
+
+    /**
+     * @param idleTimeoutMs close the port after this idle time, close right after every job if not positive
+     * @param probeAfterMs  check that the port is still present before reusing it after this idle time
+     */
+    public SerialSession(@NonNull SerialManagerProxy manager, long idleTimeoutMs, long probeAfterMs) {
+        mManager = Preconditions.checkNotNull(manager);
+        mIdleTimeoutMs = idleTimeoutMs;
+        mProbeAfterMs = probeAfterMs;
+        mIdleExecutor = idleTimeoutMs > 0 ? Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "serial-session-idle");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        newReader();
+    }
+
+    private void newReader() {
+        mReader = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "serial-session-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        mReadBuffer = ByteBuffer.allocateDirect(CONSTANTS.MAX_BUFFER_SIZE);
+    }
+
+    @NonNull
+    @VisibleForTesting
+    static SerialPortProxy openPort(@NonNull SerialManagerProxy manager) throws IOException {
+        return openPort(manager, firstPort(manager));
+    }
+
+    private static String firstPort(@NonNull SerialManagerProxy manager) {
+        final String[] portNumbers = manager.getSerialPorts();
+        Preconditions.checkArgument(portNumbers != null && portNumbers.length > 0, "port not found");
+        return portNumbers[0];
+    }
+
+    private static SerialPortProxy openPort(@NonNull SerialManagerProxy manager, String name) throws IOException {
+        final SerialPortProxy port = manager.openSerialPort(name);
+        Preconditions.checkNotNull(port, String.format("can not open port %s", name));
+
+        return port;
+    }
+
+    /**
+     * start a job, keeps the port from being closed by the idle timer
+     */
+    public synchronized void begin() {
+        ++mActiveJobs;
+        if (mIdleClose != null) {
+            mIdleClose.cancel(false);
+            mIdleClose = null;
+        }
+        if (!mWakeLocked) {
+            mManager.acquireWakeLock();
+            mWakeLocked = true;
+        }
+    }
+
+    /**
+     * @return the open port, opened or reopened if needed
+     */
+    @NonNull
+    public synchronized SerialPortProxy port() throws IOException {
+        if (mPort != null && !isHealthy()) {
+            Log.w(TAG, "port " + mPortName + " failed health probe");
+            closePort();
+            mBroken = true;
+        }
+
+        if (mPort != null) {
+            mReuses.incrementAndGet();
+        } else {
+            final String name = firstPort(mManager);
+            mPort = openPort(mManager, name);
+            mPortName = name;
+            mOpens.incrementAndGet();
+            if (mBroken) {
+                mReconnects.incrementAndGet();
+                mBroken = false;
+            }
+        }
+        mLastUsed = System.currentTimeMillis();
+        return mPort;
+    }
+
+    /**
+     * drop the port after an error, the next {@link #port()} reopens it.
+     * A read still blocked on the old port keeps the old reader thread and buffer,
+     * the thread exits once that read returns.
+     */
+    public synchronized void invalidate() {
+        closePort();
+        mBroken = true;
+        mReader.shutdown();
+        newReader();
+    }
+
+    /**
+     * finish a job, the port is closed after the idle timeout
+     */
+    public synchronized void end() {
+        mLastUsed = System.currentTimeMillis();
+        if (--mActiveJobs > 0) {
+            return;
+        }
+        if (mIdleExecutor == null) {
+            closeIdle();
+        } else {
+            mIdleClose = mIdleExecutor.schedule(this::closeIdle, mIdleTimeoutMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return the single thread every read of this session runs on
+     */
+    @NonNull
+    public synchronized ExecutorService reader() {
+        return mReader;
+    }
+
+    /**
+     * @return the buffer reused by every read, only touch it on the {@link #reader()} thread.
+     * It also holds the bytes read past the last frame until the next read.
+     */
+    @NonNull
+    public synchronized ByteBuffer readBuffer() {
+        return mReadBuffer;
+    }
+
+    public long getOpenCount() {
+        return mOpens.get();
+    }
+
+    public long getReuseCount() {
+        return mReuses.get();
+    }
+
+    public long getReconnectCount() {
+        return mReconnects.get();
+    }
+
+    private synchronized void closeIdle() {
+        if (mActiveJobs > 0) {
+            return;
+        }
+        mIdleClose = null;
+        closePort();
+        if (mWakeLocked) {
+            mManager.releaseWakeLock();
+            mWakeLocked = false;
+        }
+    }
+
+    private boolean isHealthy() {
+        if (System.currentTimeMillis() - mLastUsed < mProbeAfterMs) {
+            return true;
+        }
+        final String[] portNumbers = mManager.getSerialPorts();
+        return portNumbers != null && Arrays.asList(portNumbers).contains(mPortName);
+    }
+
+    private void closePort() {
+        if (mPort == null) {
+            return;
+        }
+        try {
+            mPort.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        mPort = null;
+        mPortName = null;
+    }
+}
@@ -128,10 +128,15 @@ public class ByteFormatter {
             return "";
         }
 
-        final char[] hexChars = new char[bytes.length << 1];
+        return bytes2hex(bytes, 0, bytes.length);
+    }
+
+    @NonNull
+    public static String bytes2hex(@NonNull byte[] bytes, int offset, int length) {
+        final char[] hexChars = new char[length << 1];
 
-        for (int i = 0, len = bytes.length; i < len; ++i) {
-            final int b = bytes[i] & 0xFF;
+        for (int i = 0; i < length; ++i) {
+            final int b = bytes[offset + i] & 0xFF;
 
             hexChars[i << 1] = HEX_ENCODE_TABLE[b >>> 4];
             hexChars[(i << 1) + 1] = HEX_ENCODE_TABLE[b & 0xF];
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.encryptioncore.cipher;
+
+import com.cobo.cold.encryptioncore.interfaces.Cipher;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Encrypted body throughput from 64 bytes to 4 KB. The frame body is limited to
+ * {@link com.cobo.cold.encryptioncore.interfaces.CONSTANTS#MAX_BODY_SIZE}, larger
+ * sizes show the trend only. The numbers are printed, only round trips are asserted.
+ */
+public class CipherBenchmarkTest {
+
+    private static final int[] SIZES = new int[]{64, 256, 1024, 2048, 4096};
+    private static final int BYTES_PER_RUN = 1 << 20;
+
+    private static final byte[] DES_KEY = new byte[]{
+            0x01, 0x23, 0x45, 0x67, (byte) 0x89, (byte) 0xAD, (byte) 0xCD, (byte) 0xEF,
+            0x01, 0x23, 0x45, 0x67, (byte) 0x89, (byte) 0xAD, (byte) 0xCD, (byte) 0xEF,
+            0x01, 0x23, 0x45, 0x67, (byte) 0x89, (byte) 0xAD, (byte) 0xCD, (byte) 0xEF,
+    };
+    private static final byte[] DES_IV = new byte[]{
+            (byte) 0xFE, (byte) 0xDC, (byte) 0xBA, (byte) 0x98, 0x76, 0x54, 0x32, 0x10
+    };
+
+    private interface Round {
+        void run(byte[] buffer, int length) throws Exception;
+    }
+
+    @Test
+    public void throughput() throws Exception {
+        final Cipher des = new CipherImpl(DES_KEY, DES_IV);
+
+        for (int size : SIZES) {
+            final byte[] plain = new byte[size];
+            for (int i = 0; i < size; i++) {
+                plain[i] = (byte) i;
+            }
+            assertArrayEquals(plain, des.decrypt(des.encrypt(plain)));
+
+            measure("des per call", size, (buffer, length) ->
+                    DES.decrypt(DES_KEY, DES_IV, DES.encrypt(DES_KEY, DES_IV, Arrays.copyOf(buffer, length))));
+            measure("des reused", size, (buffer, length) ->
+                    des.decrypt(buffer, 0, des.encrypt(buffer, 0, length, buffer, 0), buffer, 0));
+        }
+    }
+
+    private static void measure(String name, int size, Round round) throws Exception {
+        final byte[] buffer = new byte[size + 64];
+        final int rounds = Math.max(BYTES_PER_RUN / size, 16);
+
+        for (int i = 0; i < rounds / 4; i++) {
+            round.run(buffer, size);
+        }
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            round.run(buffer, size);
+        }
+        final long nanos = System.nanoTime() - start;
+
+        // encrypt and decrypt, both directions of a frame
+        final double megabytes = 2.0 * rounds * size / (1 << 20);
+        System.out.println(String.format("%-14s %5d B %8.1f MB/s %8d ns/frame",
+                name, size, megabytes / (nanos / 1e9), nanos / rounds));
+    }
+}
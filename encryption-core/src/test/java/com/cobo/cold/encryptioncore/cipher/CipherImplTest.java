@@ -19,7 +19,10 @@ package com.cobo.cold.encryptioncore.cipher;
 
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 
 public class CipherImplTest {
 
@@ -58,4 +61,35 @@ public class CipherImplTest {
                 (byte) 0xBB, 0x66, (byte) 0xE8, (byte) 0xFE, (byte) 0xE7, 0x5B, (byte) 0xE0, 0x39
         }));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void encryptInPlace() throws Exception {
+        final CipherImpl cipher = new CipherImpl(new byte[]{
+                0x01, 0x23, 0x45, 0x67, (byte) 0x89, (byte) 0xAD, (byte) 0xCD, (byte) 0xEF,
+                0x01, 0x23, 0x45, 0x67, (byte) 0x89, (byte) 0xAD, (byte) 0xCD, (byte) 0xEF,
+                0x01, 0x23, 0x45, 0x67, (byte) 0x89, (byte) 0xAD, (byte) 0xCD, (byte) 0xEF,
+        }, new byte[]{
+                (byte) 0xFE, (byte) 0xDC, (byte) 0xBA, (byte) 0x98, 0x76, 0x54, 0x32, 0x10
+        });
+        final byte[] plain = new byte[]{
+                0x00, 0x01, 0x00, 0x02, 0x08, 0x01, 0x08, 0x01, 0x00, 0x08, 0x01, 0x23, 0x45,
+                0x67, (byte) 0x89, (byte) 0xAB, (byte) 0xCD, (byte) 0xEF
+        };
+        final byte[] buffer = new byte[4 + 24];
+        System.arraycopy(plain, 0, buffer, 4, plain.length);
+
+        // twice, the cipher is reused for the next frame
+        for (int i = 0; i < 2; i++) {
+            System.arraycopy(plain, 0, buffer, 4, plain.length);
+            assertEquals(24, cipher.encrypt(buffer, 4, plain.length, buffer, 4));
+            assertArrayEquals(new byte[]{
+                    0x24, 0x69, (byte) 0xB5, (byte) 0x84, (byte) 0x92, 0x60, (byte) 0xF3, 0x14,
+                    0x7F, (byte) 0xC6, (byte) 0xC7, (byte) 0x8C, 0x30, 0x5B, (byte) 0xE8, (byte) 0xAE,
+                    (byte) 0xBB, 0x66, (byte) 0xE8, (byte) 0xFE, (byte) 0xE7, 0x5B, (byte) 0xE0, 0x39
+            }, Arrays.copyOfRange(buffer, 4, 28));
+
+            assertEquals(plain.length, cipher.decrypt(buffer, 4, 24, buffer, 4));
+            assertArrayEquals(plain, Arrays.copyOfRange(buffer, 4, 4 + plain.length));
+        }
+    }
+}
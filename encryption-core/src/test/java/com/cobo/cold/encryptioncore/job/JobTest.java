@@ -21,6 +21,7 @@ import com.cobo.cold.encryptioncore.base.Packet;
 import com.cobo.cold.encryptioncore.interfaces.Callback;
 import com.cobo.cold.encryptioncore.interfaces.SerialManagerProxy;
 import com.cobo.cold.encryptioncore.interfaces.SerialPortProxy;
+import com.cobo.cold.encryptioncore.serial.SerialSession;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -39,6 +40,7 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -57,39 +59,6 @@ public class JobTest {
     @Mock
     private Callback mCallback;
 
-    @Test
-    public void openPort() throws IOException {
-        when(mManager.getSerialPorts()).thenReturn(new String[]{"1100", "2200"});
-        when(mManager.openSerialPort(anyString())).thenReturn(mPort);
-
-        assertEquals(mPort, Job.openPort(mManager));
-        final ArgumentCaptor<String> argument = ArgumentCaptor.forClass(String.class);
-        verify(mManager, times(1)).openSerialPort(argument.capture());
-        assertEquals("1100", argument.getValue());
-    }
-
-    @Test(expected = IllegalArgumentException.class)
-    public void openPort2() throws IOException {
-        when(mManager.getSerialPorts()).thenReturn(null);
-
-        Job.openPort(mManager);
-    }
-
-    @Test(expected = IllegalArgumentException.class)
-    public void openPort3() throws IOException {
-        when(mManager.getSerialPorts()).thenReturn(new String[0]);
-
-        Job.openPort(mManager);
-    }
-
-    @Test(expected = NullPointerException.class)
-    public void openPort4() throws IOException {
-        when(mManager.getSerialPorts()).thenReturn(new String[]{"0001"});
-        when(mManager.openSerialPort(anyString())).thenReturn(null);
-
-        Job.openPort(mManager);
-    }
-
     @Test
     public void run() throws IOException {
         when(mManager.getSerialPorts()).thenReturn(new String[]{"1100"});
@@ -110,7 +79,7 @@ public class JobTest {
 
         final Packet packet = new Packet.Builder(0x0103).build();
 
-        new Job(mManager, new PackerImpl(null), packet, mCallback).run();
+        new Job(new SerialSession(mManager, 0, 0), new PackerImpl(null), packet, mCallback).run();
 
         verify(mManager, times(1)).getSerialPorts();
         verify(mManager, times(1)).openSerialPort(anyString());
@@ -126,6 +95,7 @@ public class JobTest {
         final ArgumentCaptor<Packet> argumentCaptor = ArgumentCaptor.forClass(Packet.class);
         verify(mCallback, times(1)).onSuccess(argumentCaptor.capture());
 
+        verify(mCallback, atLeastOnce()).isCancelled();
         verifyNoMoreInteractions(mManager, mPort, mCallback);
 
         final Packet result = argumentCaptor.getValue();
@@ -155,7 +125,7 @@ public class JobTest {
 
         final Packet packet = new Packet.Builder(0x0103).setRetryTimes(2).build();
 
-        new Job(mManager, new PackerImpl(null), packet, mCallback).run();
+        new Job(new SerialSession(mManager, 0, 0), new PackerImpl(null), packet, mCallback).run();
 
         verify(mManager, times(3)).getSerialPorts();
         verify(mManager, times(3)).openSerialPort(anyString());
@@ -172,6 +142,7 @@ public class JobTest {
         verify(mCallback, times(1)).onFail(argumentCaptor.capture());
         assertTrue(argumentCaptor.getValue() instanceof IllegalArgumentException);
 
+        verify(mCallback, atLeastOnce()).isCancelled();
         verifyNoMoreInteractions(mManager, mPort, mCallback);
     }
 
@@ -210,7 +181,7 @@ public class JobTest {
         });
 
         final Packet packet = new Packet.Builder(0x0103).setRetryTimes(3).build();
-        new Job(mManager, new PackerImpl(null), packet, mCallback).run();
+        new Job(new SerialSession(mManager, 0, 0), new PackerImpl(null), packet, mCallback).run();
 
         verify(mManager, times(3)).getSerialPorts();
         verify(mManager, times(3)).openSerialPort(anyString());
@@ -226,6 +197,7 @@ public class JobTest {
         final ArgumentCaptor<Packet> argumentCaptor = ArgumentCaptor.forClass(Packet.class);
         verify(mCallback, times(1)).onSuccess(argumentCaptor.capture());
 
+        verify(mCallback, atLeastOnce()).isCancelled();
         verifyNoMoreInteractions(mManager, mPort, mCallback);
     }
 }
\ No newline at end of file
@@ -21,6 +21,8 @@ import androidx.collection.SparseArrayCompat;
 
 import com.cobo.cold.encryptioncore.base.Packet;
 import com.cobo.cold.encryptioncore.base.Payload;
+import com.cobo.cold.encryptioncore.cipher.CipherImpl;
+import com.cobo.cold.encryptioncore.interfaces.CONSTANTS;
 import com.cobo.cold.encryptioncore.interfaces.Cipher;
 
 import org.junit.Test;
@@ -202,4 +204,15 @@ public class PackerImplTest {
     public void checkSerializedData6() {
         new PackerImpl(null).checkSerializedData(new byte[]{0x02, 0x00, 0x00, 0x00, 0x03, 0x01});
     }
+
+    @Test
+    public void encryptedRoundTrip() throws Exception {
+        final PackerImpl packer = new PackerImpl(new CipherImpl(new byte[24], new byte[8]));
+        final byte[] frame = packer.serialize(new Packet.Builder(0x0208).addBytePayload(0x020F, 0x01).build());
+
+        assertEquals(CONSTANTS.ENCRYPTION_STATUS.ENABLED, frame[1]);
+        final Packet packet = packer.deserialize(frame);
+        assertEquals(0x0208, packet.getId());
+        assertEquals(0x01, packet.getPayload(0x020F).toInt());
+    }
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.encryptioncore.job;
+
+import android.os.ParcelFileDescriptor;
+
+import com.cobo.cold.encryptioncore.base.Packet;
+import com.cobo.cold.encryptioncore.interfaces.CONSTANTS;
+import com.cobo.cold.encryptioncore.interfaces.SerialPortProxy;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class SerialReaderStressTest {
+
+    private static final int PACKETS = 10000;
+
+    private static final byte[] FRAME = new byte[]{
+            0x02, 0x00, 0x00, 0x11, 0x00, 0x01, 0x00, 0x02, 0x01, 0x03,
+            0x01, 0x02, 0x00, 0x01, (byte) 0xcb, 0x00, 0x02, 0x00, 0x02,
+            0x00, 0x00, 0x03, (byte) 0xd8
+    };
+
+    /**
+     * answers every write with FRAME, handed out in chunks of random size at the read offset
+     */
+    private static class FakePort implements SerialPortProxy {
+        private final Random mRandom = new Random(42);
+        private int mPending;
+
+        @Override
+        public void open(ParcelFileDescriptor pfd, int speed) {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public synchronized int read(ByteBuffer buffer, int offset) {
+            if (mPending == 0) {
+                return 0;
+            }
+            final int start = FRAME.length - mPending;
+            final int length = Math.min(mPending, 1 + mRandom.nextInt(8));
+            for (int i = 0; i < length; i++) {
+                buffer.put(offset + i, FRAME[start + i]);
+            }
+            mPending -= length;
+            return length;
+        }
+
+        @Override
+        public synchronized void write(ByteBuffer buffer, int length) {
+            mPending = FRAME.length;
+        }
+
+        @Override
+        public void sendBreak() {
+        }
+    }
+
+    @Test
+    public void workshopKeepsThreadCountBounded() throws Exception {
+        final FakePort port = new FakePort();
+        final ExecutorService reader = Executors.newSingleThreadExecutor();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(CONSTANTS.MAX_BUFFER_SIZE);
+        final int threadsBefore = Thread.activeCount();
+
+        try {
+            for (int i = 0; i < PACKETS; i++) {
+                final Packet result = new Workshop(port, new PackerImpl(null),
+                        new Packet.Builder(0x0103).build(), reader, buffer).call();
+                assertEquals(0x0103, result.getId());
+            }
+            assertTrue(Thread.activeCount() <= threadsBefore + 1);
+        } finally {
+            reader.shutdown();
+        }
+    }
+
+    @Test
+    public void readerOnlyAllocatesTheFrame() throws Exception {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        final FakePort port = new FakePort();
+        final SerialReader reader = new SerialReader(port,
+                ByteBuffer.allocateDirect(CONSTANTS.MAX_BUFFER_SIZE));
+
+        // warm up
+        for (int i = 0; i < 1000; i++) {
+            port.write(null, 0);
+            reader.call();
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        final long before = threads.getThreadAllocatedBytes(threadId);
+        byte[] frame = null;
+        for (int i = 0; i < PACKETS; i++) {
+            port.write(null, 0);
+            frame = reader.call();
+        }
+        final long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertArrayEquals(FRAME, frame);
+        // the returned copy is 40 bytes with its header, leave room for the jit
+        assertTrue("allocated " + allocated + " bytes", allocated < PACKETS * 128L);
+    }
+}
@@ -17,6 +17,7 @@
 
 package com.cobo.cold.encryptioncore.job;
 
+import com.cobo.cold.encryptioncore.interfaces.CONSTANTS;
 import com.cobo.cold.encryptioncore.interfaces.SerialPortProxy;
 
 import org.junit.Test;
@@ -190,4 +191,30 @@ public class SerialReaderTest {
                 0, 1, 2, 4, 16, 17
         }, captureArray);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void twoFramesInOneRead() throws Exception {
+        final byte[] first = new byte[]{
+                0x02, 0x00, 0x00, 0x0c, 0x00, 0x01, 0x00, 0x02, 0x06, 0x01,
+                0x00, 0x02, 0x00, 0x02, 0x00, 0x00, 0x03, 0x09
+        };
+        final byte[] second = new byte[]{
+                0x02, 0x00, 0x00, 0x0c, 0x00, 0x01, 0x00, 0x02, 0x07, 0x01,
+                0x00, 0x02, 0x00, 0x02, 0x00, 0x00, 0x03, 0x08
+        };
+
+        when(mPort.read(any(ByteBuffer.class), anyInt())).thenAnswer((Answer<Integer>) invocation -> {
+            final ByteBuffer buffer = invocation.getArgumentAt(0, ByteBuffer.class);
+            buffer.put(first);
+            buffer.put(second);
+
+            return first.length + second.length;
+        });
+
+        // a new reader per read on the session buffer, as Workshop does
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(CONSTANTS.MAX_BUFFER_SIZE);
+        assertArrayEquals(first, new SerialReader(mPort, buffer).call());
+        assertArrayEquals(second, new SerialReader(mPort, buffer).call());
+        verify(mPort, times(1)).read(any(ByteBuffer.class), anyInt());
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.encryptioncore.job;
+
+import androidx.collection.SparseArrayCompat;
+
+import com.cobo.cold.encryptioncore.base.Packet;
+import com.cobo.cold.encryptioncore.base.Payload;
+import com.cobo.cold.encryptioncore.interfaces.CONSTANTS;
+import com.cobo.cold.encryptioncore.utils.ByteFormatter;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Compares the buffer based codec with the stream based one it replaced, on the
+ * packet shapes of signing and xpub export. The numbers are printed, only the
+ * allocation is asserted.
+ */
+public class TlvCodecBenchmarkTest {
+
+    private static final int WARM_UP = 20000;
+    private static final int ROUNDS = 100000;
+
+    // tags and methods as the app uses them
+    private static final int SIGN = 0x0307;
+    private static final int GET_EXTENDED_PUBLICKEY = 0x0305;
+    private static final int PATH = 0x0207;
+    private static final int EXTEND_PUB_KEY = 0x020A;
+    private static final int WALLET_FLAG = 0x0210;
+    private static final int PUBLIC_KEY_HASH = 0x0303;
+    private static final int TX_HASH = 0x0307;
+    private static final int SIGNED = 0x0308;
+    private static final int CURVE = 0x030D;
+    private static final int AUTH_TOKEN = 0x0404;
+
+    private static Packet signRequest() {
+        return new Packet.Builder(SIGN)
+                .addBytePayload(CURVE, 0)
+                .addBytePayload(WALLET_FLAG, 0)
+                .addTextPayload(PATH, "M/44'/0'/0'/0/12")
+                .addHexPayload(TX_HASH, "9a7c5a4d1e1b2f6e8e2fd9ac6d4e86b1ce1e6f5cbdb8c7aa55d1f6e6b3a5c6d7")
+                .addHexPayload(AUTH_TOKEN, "00112233445566778899aabbccddeeff")
+                .build();
+    }
+
+    private static Packet signResponse() {
+        return new Packet.Builder(SIGN)
+                .addHexPayload(PUBLIC_KEY_HASH, "03" + repeat("ab", 32))
+                .addHexPayload(SIGNED, repeat("5c", 64))
+                .build();
+    }
+
+    private static Packet xpubRequest() {
+        return new Packet.Builder(GET_EXTENDED_PUBLICKEY)
+                .addBytePayload(CURVE, 0)
+                .addBytePayload(WALLET_FLAG, 0)
+                .addTextPayload(PATH, "M/49'/0'/0'")
+                .build();
+    }
+
+    private static Packet xpubResponse() {
+        return new Packet.Builder(GET_EXTENDED_PUBLICKEY)
+                .addTextPayload(EXTEND_PUB_KEY, "xpub6BosfCnifzxcFwrSzQiqu2DBVTshkCXacvNsWGYJVVhhawA7d4R5WSWGF"
+                        + "Nbi8Aw6ZRc1brxMyWMzG3DSSSSoekkudhUd9yLb6qx39T9nMdj")
+                .build();
+    }
+
+    private static String repeat(String hex, int times) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            builder.append(hex);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * the stream based codec, kept here as the baseline
+     */
+    private static final class LegacyCodec {
+
+        byte[] serialize(Packet packet) throws Exception {
+            if (packet.getPayload(CONSTANTS.TAGS.PACKET_ID) == null) {
+                packet.getPayloads().put(CONSTANTS.TAGS.PACKET_ID,
+                        new Payload(ByteFormatter.short2bytes(packet.getId())));
+            }
+            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            final SparseArrayCompat<Payload> payloads = packet.getPayloads();
+            for (int i = 0, size = payloads.size(); i < size; ++i) {
+                final byte[] value = payloads.valueAt(i).getValue();
+                final byte[] tlv = new byte[4 + value.length];
+                System.arraycopy(ByteFormatter.short2bytes(payloads.keyAt(i)), 0, tlv, 0, 2);
+                System.arraycopy(ByteFormatter.short2bytes(value.length), 0, tlv, 2, 2);
+                System.arraycopy(value, 0, tlv, 4, value.length);
+                body.write(tlv);
+            }
+            final byte[] bodyBytes = body.toByteArray();
+
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            outputStream.write(CONSTANTS.STX);
+            outputStream.write(CONSTANTS.ENCRYPTION_STATUS.DISABLED);
+            outputStream.write(ByteFormatter.short2bytes(bodyBytes.length));
+            outputStream.write(bodyBytes);
+            outputStream.write(CONSTANTS.ETX);
+            outputStream.write(lrc(outputStream.toByteArray()));
+            return outputStream.toByteArray();
+        }
+
+        Packet deserialize(byte[] bytes) {
+            if (bytes[bytes.length - 1] != lrc(Arrays.copyOf(bytes, bytes.length - 1))) {
+                throw new IllegalArgumentException("lrc");
+            }
+            final int lenOfBody = ByteFormatter.bytes2short(new byte[]{bytes[2], bytes[3]});
+            final byte[] body = Arrays.copyOfRange(bytes, 4, 4 + lenOfBody);
+            final SparseArrayCompat<Payload> payloads = new SparseArrayCompat<>();
+            final ByteArrayInputStream inputStream = new ByteArrayInputStream(body);
+            int offset = 0;
+            while (offset < body.length) {
+                final byte[] twoBytesBuffer = new byte[2];
+                inputStream.read(twoBytesBuffer, 0, 2);
+                final int tag = ByteFormatter.bytes2short(twoBytesBuffer);
+                inputStream.read(twoBytesBuffer, 0, 2);
+                final int lenOfVal = ByteFormatter.bytes2short(twoBytesBuffer);
+                final byte[] valueBuffer = new byte[lenOfVal];
+                inputStream.read(valueBuffer, 0, lenOfVal);
+                offset += 4 + lenOfVal;
+                payloads.put(tag, new Payload(valueBuffer));
+            }
+            final Packet.Builder builder = new Packet.Builder(payloads.get(CONSTANTS.TAGS.PACKET_ID).toInt());
+            for (int i = 0, size = payloads.size(); i < size; ++i) {
+                builder.addBytesPayload(payloads.keyAt(i), payloads.valueAt(i).getValue());
+            }
+            return builder.build();
+        }
+
+        private static byte lrc(byte[] bytes) {
+            byte lrc = 0;
+            for (byte b : bytes) {
+                lrc ^= b;
+            }
+            return lrc;
+        }
+    }
+
+    private interface Round {
+        Object run() throws Exception;
+    }
+
+    @Test
+    public void encodesLikeTheLegacyCodec() throws Exception {
+        final LegacyCodec legacy = new LegacyCodec();
+        final PackerImpl packer = new PackerImpl(null);
+
+        for (Packet packet : new Packet[]{signRequest(), signResponse(), xpubRequest(), xpubResponse()}) {
+            final byte[] expected = legacy.serialize(packet);
+            assertArrayEquals(expected, packer.serialize(packet));
+
+            final ByteBuffer frame = packer.encode(packet);
+            assertEquals(0, frame.position());
+            assertEquals(expected.length, frame.remaining());
+
+            final Packet decoded = packer.deserialize(expected);
+            final Packet legacyDecoded = legacy.deserialize(expected);
+            assertEquals(legacyDecoded.getPayloads().size(), decoded.getPayloads().size());
+            for (int i = 0; i < decoded.getPayloads().size(); i++) {
+                final int tag = decoded.getPayloads().keyAt(i);
+                assertEquals(legacyDecoded.getPayload(tag), decoded.getPayload(tag));
+                assertTrue(decoded.getPayload(tag).asReadOnlyBuffer().isReadOnly());
+            }
+        }
+    }
+
+    @Test
+    public void compareCodecs() throws Exception {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        final LegacyCodec legacy = new LegacyCodec();
+        final PackerImpl packer = new PackerImpl(null);
+        final Packet signRequest = signRequest();
+        final Packet xpubRequest = xpubRequest();
+        final byte[] signResponse = legacy.serialize(signResponse());
+        final byte[] xpubResponse = legacy.serialize(xpubResponse());
+
+        final long legacySign = measure(threads, "legacy sign encode", () -> legacy.serialize(signRequest));
+        final long newSign = measure(threads, "buffer sign encode", () -> packer.encode(signRequest));
+        measure(threads, "legacy sign decode", () -> legacy.deserialize(signResponse));
+        measure(threads, "buffer sign decode", () -> packer.deserialize(signResponse));
+
+        final long legacyXpub = measure(threads, "legacy xpub encode", () -> legacy.serialize(xpubRequest));
+        final long newXpub = measure(threads, "buffer xpub encode", () -> packer.encode(xpubRequest));
+        measure(threads, "legacy xpub decode", () -> legacy.deserialize(xpubResponse));
+        measure(threads, "buffer xpub decode", () -> packer.deserialize(xpubResponse));
+
+        // encoding into the reused frame buffer allocates nothing per packet
+        assertTrue("sign " + newSign + " bytes/op", newSign < legacySign / 10 + 8);
+        assertTrue("xpub " + newXpub + " bytes/op", newXpub < legacyXpub / 10 + 8);
+    }
+
+    /**
+     * @return bytes allocated per round
+     */
+    private static long measure(com.sun.management.ThreadMXBean threads, String name, Round round)
+            throws Exception {
+        for (int i = 0; i < WARM_UP; i++) {
+            round.run();
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        final long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        final long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            round.run();
+        }
+        final long nanos = System.nanoTime() - start;
+        final long allocated = (threads.getThreadAllocatedBytes(threadId) - allocatedBefore) / ROUNDS;
+
+        System.out.println(String.format("%-20s %6d ns/op %6d bytes/op", name, nanos / ROUNDS, allocated));
+        return allocated;
+    }
+}
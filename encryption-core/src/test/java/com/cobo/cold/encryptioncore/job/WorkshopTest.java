@@ -78,7 +78,9 @@ public class WorkshopTest {
         final ArgumentCaptor<ByteBuffer> argument = ArgumentCaptor.forClass(ByteBuffer.class);
         verify(mPort, times(1)).write(argument.capture(), eq(outputBytes.length));
         final ByteBuffer outputBuffer = argument.getValue();
-        assertArrayEquals(outputBytes, outputBuffer.array());
+        final byte[] written = new byte[outputBytes.length];
+        outputBuffer.get(written);
+        assertArrayEquals(outputBytes, written);
 
         assertNotNull(result);
         assertEquals(0x0103, result.getId());
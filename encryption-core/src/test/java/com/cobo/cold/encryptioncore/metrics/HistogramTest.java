@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.encryptioncore.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramTest {
+
+    @Test
+    public void keepsSmallValuesExact() {
+        final Histogram histogram = new Histogram();
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+        assertEquals(10, histogram.getCount());
+        assertEquals(5, histogram.getValueAtPercentile(50));
+        assertEquals(9, histogram.getValueAtPercentile(90));
+        assertEquals(10, histogram.getValueAtPercentile(100));
+        assertEquals(5.5, histogram.getMean(), 0);
+    }
+
+    @Test
+    public void keepsLargeValuesWithinPrecision() {
+        final Histogram histogram = new Histogram();
+        final long[] values = {100, 1234, 56789, 1000000, 123456789, 1L << 45};
+        for (long value : values) {
+            histogram.record(value);
+            if (value >= 1L << 41) {
+                // out of range values share the last bucket, the max stays exact
+                continue;
+            }
+            final long bucket = Histogram.highestValueOf(Histogram.indexOf(value));
+            assertTrue(value + " in " + bucket, bucket >= value);
+            assertTrue(value + " in " + bucket, bucket - value <= value / 16);
+        }
+        assertEquals(1L << 45, histogram.getMax());
+        assertEquals(1L << 45, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void indexesAreMonotonic() {
+        int last = -1;
+        for (long value = 0; value < 1L << 41; value = value < 64 ? value + 1 : value + value / 7) {
+            final int index = Histogram.indexOf(value);
+            assertTrue(index >= last);
+            assertTrue(Histogram.highestValueOf(index) >= Math.min(value, (1L << 41) - 1));
+            last = index;
+        }
+    }
+
+    @Test
+    public void resets() {
+        final Histogram histogram = new Histogram();
+        histogram.record(42);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.encryptioncore.metrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SeMetricsTest {
+
+    private final SeMetrics mMetrics = SeMetrics.getInstance();
+
+    @Before
+    @After
+    public void reset() {
+        mMetrics.reset();
+    }
+
+    @Test
+    public void recordsPerMethod() {
+        mMetrics.recordNanos(0x0307, SeMetrics.Stage.WRITE, 2_000_000);
+        mMetrics.recordNanos(0x0307, SeMetrics.Stage.WRITE, 4_000_000);
+        mMetrics.count(0x0307, SeMetrics.Counter.CALLS);
+        mMetrics.count(0x0307, SeMetrics.Counter.LRC_FAILURES);
+
+        final SeMetrics.MethodMetrics sign = mMetrics.get(0x0307);
+        assertEquals(2, sign.getHistogram(SeMetrics.Stage.WRITE).getCount());
+        assertEquals(4000, sign.getHistogram(SeMetrics.Stage.WRITE).getMax());
+        assertEquals(0, sign.getHistogram(SeMetrics.Stage.FULL_READ).getCount());
+        assertEquals(1, sign.getCount(SeMetrics.Counter.LRC_FAILURES));
+        assertEquals(0, sign.getCount(SeMetrics.Counter.TIMEOUTS));
+        assertNull(mMetrics.get(0x0305));
+    }
+
+    @Test
+    public void dumpsNamedMethods() throws Exception {
+        mMetrics.recordNanos(0x0305, SeMetrics.Stage.TOTAL, 12_500_000);
+        mMetrics.count(0x0305, SeMetrics.Counter.RETRIES);
+
+        final StringWriter writer = new StringWriter();
+        mMetrics.dump(writer, Collections.singletonMap(0x0305, "GET_EXTENDED_PUBLICKEY"));
+        final String report = writer.toString();
+
+        assertTrue(report, report.startsWith("0x0305 GET_EXTENDED_PUBLICKEY"));
+        assertTrue(report, report.contains("retries=1"));
+        assertTrue(report, report.contains("total"));
+        assertTrue(report, report.contains("12.50"));
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2020 Cobo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * in the file COPYING.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.cobo.cold.encryptioncore.serial;
+
+import android.os.ParcelFileDescriptor;
+
+import com.cobo.cold.encryptioncore.interfaces.SerialManagerProxy;
+import com.cobo.cold.encryptioncore.interfaces.SerialPortProxy;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SerialSessionTest {
+
+    @Mock
+    private SerialManagerProxy mManager;
+
+    @Mock
+    private SerialPortProxy mPort;
+
+    @Test
+    public void openPort() throws IOException {
+        when(mManager.getSerialPorts()).thenReturn(new String[]{"1100", "2200"});
+        when(mManager.openSerialPort(anyString())).thenReturn(mPort);
+
+        assertEquals(mPort, SerialSession.openPort(mManager));
+        final ArgumentCaptor<String> argument = ArgumentCaptor.forClass(String.class);
+        verify(mManager, times(1)).openSerialPort(argument.capture());
+        assertEquals("1100", argument.getValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void openPort2() throws IOException {
+        when(mManager.getSerialPorts()).thenReturn(null);
+
+        SerialSession.openPort(mManager);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void openPort3() throws IOException {
+        when(mManager.getSerialPorts()).thenReturn(new String[0]);
+
+        SerialSession.openPort(mManager);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void openPort4() throws IOException {
+        when(mManager.getSerialPorts()).thenReturn(new String[]{"0001"});
+        when(mManager.openSerialPort(anyString())).thenReturn(null);
+
+        SerialSession.openPort(mManager);
+    }
+
+    @Test
+    public void reuse() throws IOException {
+        when(mManager.getSerialPorts()).thenReturn(new String[]{"1100"});
+        when(mManager.openSerialPort(anyString())).thenReturn(mPort);
+
+        final SerialSession session = new SerialSession(mManager, 60000, 60000);
+        for (int i = 0; i < 5; i++) {
+            session.begin();
+            assertEquals(mPort, session.port());
+            session.end();
+        }
+
+        verify(mManager, times(1)).openSerialPort(anyString());
+        verify(mManager, times(1)).acquireWakeLock();
+        verify(mManager, never()).releaseWakeLock();
+        verify(mPort, never()).close();
+        assertEquals(1, session.getOpenCount());
+        assertEquals(4, session.getReuseCount());
+        assertEquals(0, session.getReconnectCount());
+    }
+
+    @Test
+    public void reconnect() throws IOException {
+        when(mManager.getSerialPorts()).thenReturn(new String[]{"1100"});
+        when(mManager.openSerialPort(anyString())).thenReturn(mPort);
+
+        final SerialSession session = new SerialSession(mManager, 60000, 60000);
+        session.begin();
+        session.port();
+        session.invalidate();
+        session.port();
+        session.end();
+
+        verify(mManager, times(2)).openSerialPort(anyString());
+        verify(mPort, times(1)).close();
+        assertEquals(2, session.getOpenCount());
+        assertEquals(1, session.getReconnectCount());
+    }
+
+    @Test
+    public void probe() throws IOException {
+        when(mManager.getSerialPorts()).thenReturn(new String[]{"1100"});
+        when(mManager.openSerialPort(anyString())).thenReturn(mPort);
+
+        final SerialSession session = new SerialSession(mManager, 60000, 0);
+        session.begin();
+        session.port();
+        when(mManager.getSerialPorts()).thenReturn(new String[]{"2200"});
+        session.port();
+        session.end();
+
+        verify(mManager, times(1)).openSerialPort("1100");
+        verify(mManager, times(1)).openSerialPort("2200");
+        verify(mPort, times(1)).close();
+        assertEquals(1, session.getReconnectCount());
+    }
+
+    @Test
+    public void idleClose() throws IOException, InterruptedException {
+        when(mManager.getSerialPorts()).thenReturn(new String[]{"1100"});
+        when(mManager.openSerialPort(anyString())).thenReturn(mPort);
+
+        final SerialSession session = new SerialSession(mManager, 50, 60000);
+        session.begin();
+        session.port();
+        session.end();
+        Thread.sleep(500);
+
+        verify(mPort, times(1)).close();
+        verify(mManager, times(1)).releaseWakeLock();
+        session.begin();
+        session.port();
+        session.end();
+        assertEquals(2, session.getOpenCount());
+        assertEquals(0, session.getReconnectCount());
+    }
+
+    @Test
+    public void invalidateAbandonsStuckRead() throws Exception {
+        final CountDownLatch reading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final SerialPortProxy stuck = new FakePort() {
+            @Override
+            public int read(ByteBuffer buffer, int offset) {
+                reading.countDown();
+                // a driver read that neither close nor interrupt ends
+                while (true) {
+                    try {
+                        release.await();
+                        return 0;
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+            }
+        };
+        when(mManager.getSerialPorts()).thenReturn(new String[]{"1100"});
+        when(mManager.openSerialPort(anyString())).thenReturn(stuck, mPort);
+
+        final SerialSession session = new SerialSession(mManager, 60000, 60000);
+        session.begin();
+        final SerialPortProxy port = session.port();
+        final ExecutorService oldReader = session.reader();
+        final ByteBuffer oldBuffer = session.readBuffer();
+        final Future<Integer> stuckRead = oldReader.submit(() -> port.read(oldBuffer, 0));
+        assertTrue(reading.await(1, TimeUnit.SECONDS));
+        stuckRead.cancel(true);
+
+        session.invalidate();
+        assertNotSame(oldReader, session.reader());
+        assertNotSame(oldBuffer, session.readBuffer());
+        final SerialPortProxy next = session.port();
+        assertEquals(mPort, next);
+        when(mPort.read(any(ByteBuffer.class), anyInt())).thenReturn(7);
+        final ByteBuffer buffer = session.readBuffer();
+        assertEquals(7, (int) session.reader().submit(() -> next.read(buffer, 0)).get(1, TimeUnit.SECONDS));
+        session.end();
+
+        release.countDown();
+        assertTrue(oldReader.awaitTermination(1, TimeUnit.SECONDS));
+        assertFalse(session.reader().isShutdown());
+    }
+
+    private static class FakePort implements SerialPortProxy {
+        @Override
+        public void open(ParcelFileDescriptor pfd, int speed) {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public int read(ByteBuffer buffer, int offset) throws IOException {
+            return 0;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int length) {
+        }
+
+        @Override
+        public void sendBreak() {
+        }
+    }
+}